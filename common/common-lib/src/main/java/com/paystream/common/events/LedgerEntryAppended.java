@@ -0,0 +1,19 @@
+package com.paystream.common.events;
+
+import java.util.UUID;
+
+/**
+ * ledger.entry.appended as seen by consumers, whatever the wire format.
+ * Field names match the JSON payload so the same record is the JSON target too.
+ */
+public record LedgerEntryAppended(
+        UUID eventId,
+        UUID txId,
+        UUID entryId,
+        long ledgerOffset,
+        Long accountSeq,   // null on events written before per-account sequencing
+        UUID accountId,
+        String currency,
+        long amountMinor,  // signed
+        long occurredAt    // epoch millis
+) {}
@@ -0,0 +1,102 @@
+package com.paystream.common.events;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Fixed-layout binary encoding of ledger.entry.appended (v1, big-endian, 102 bytes for a
+ * 3-letter currency):
+ *
+ * <pre>
+ *  0  version      u8   = 1
+ *  1  flags        u8   bit0: accountSeq present
+ *  2  eventId      16   (msb, lsb)
+ * 18  txId         16
+ * 34  entryId      16
+ * 50  accountId    16
+ * 66  ledgerOffset i64
+ * 74  accountSeq   i64  (0 when absent)
+ * 82  amountMinor  i64
+ * 90  occurredAt   i64  epoch millis
+ * 98  currencyLen  u8
+ * 99  currency     ASCII
+ * </pre>
+ *
+ * The format travels in the {@value #HEADER} Kafka header; records without the header are JSON.
+ */
+public final class LedgerEntryAppendedCodec {
+
+    public static final String HEADER = "content-type";
+    public static final String JSON = "application/json";
+    public static final String BINARY = "application/vnd.paystream.ledger-entry-appended.v1";
+
+    private static final byte VERSION = 1;
+    private static final byte FLAG_ACCOUNT_SEQ = 1;
+    private static final int FIXED_SIZE = 2 + 4 * 16 + 4 * 8 + 1;
+
+    private LedgerEntryAppendedCodec() {}
+
+    public static boolean isBinary(String contentType) {
+        return BINARY.equals(contentType);
+    }
+
+    public static byte[] encode(LedgerEntryAppended e) {
+        byte[] currency = e.currency().getBytes(StandardCharsets.US_ASCII);
+        if (currency.length > 255) {
+            throw new IllegalArgumentException("currency too long: " + e.currency());
+        }
+        ByteBuffer buf = ByteBuffer.allocate(FIXED_SIZE + currency.length);
+        buf.put(VERSION);
+        buf.put(e.accountSeq() == null ? 0 : FLAG_ACCOUNT_SEQ);
+        putUuid(buf, e.eventId());
+        putUuid(buf, e.txId());
+        putUuid(buf, e.entryId());
+        putUuid(buf, e.accountId());
+        buf.putLong(e.ledgerOffset());
+        buf.putLong(e.accountSeq() == null ? 0 : e.accountSeq());
+        buf.putLong(e.amountMinor());
+        buf.putLong(e.occurredAt());
+        buf.put((byte) currency.length);
+        buf.put(currency);
+        return buf.array();
+    }
+
+    public static LedgerEntryAppended decode(byte[] bytes) {
+        if (bytes == null || bytes.length < FIXED_SIZE) {
+            throw new IllegalArgumentException("ledger.entry.appended: truncated binary payload");
+        }
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        byte version = buf.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("ledger.entry.appended: unsupported binary version " + version);
+        }
+        byte flags = buf.get();
+        UUID eventId = getUuid(buf);
+        UUID txId = getUuid(buf);
+        UUID entryId = getUuid(buf);
+        UUID accountId = getUuid(buf);
+        long ledgerOffset = buf.getLong();
+        long accountSeq = buf.getLong();
+        long amountMinor = buf.getLong();
+        long occurredAt = buf.getLong();
+        int currencyLen = buf.get() & 0xFF;
+        if (buf.remaining() != currencyLen) {
+            throw new IllegalArgumentException("ledger.entry.appended: bad currency length " + currencyLen);
+        }
+        String currency = new String(bytes, buf.position(), currencyLen, StandardCharsets.US_ASCII);
+        return new LedgerEntryAppended(
+                eventId, txId, entryId, ledgerOffset,
+                (flags & FLAG_ACCOUNT_SEQ) != 0 ? accountSeq : null,
+                accountId, currency, amountMinor, occurredAt);
+    }
+
+    private static void putUuid(ByteBuffer buf, UUID id) {
+        buf.putLong(id.getMostSignificantBits());
+        buf.putLong(id.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buf) {
+        return new UUID(buf.getLong(), buf.getLong());
+    }
+}
@@ -1,8 +1,11 @@
 package com.paystream.accountservice.api.account;
 
 import com.paystream.accountservice.app.account.AccountAppService;
+import com.paystream.accountservice.app.account.AccountBulkAppService;
+import com.paystream.accountservice.app.account.AccountQueryService;
 import com.paystream.accountservice.infra.dao.account.AccountDao;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,10 +21,17 @@ import java.util.UUID;
 public class AccountController {
 
     private final AccountAppService accountAppService;
+    private final AccountBulkAppService accountBulkAppService;
+    private final AccountQueryService accountQueryService;
     private final AccountDao accountDao;
 
-    public AccountController(AccountAppService accountAppService, AccountDao accountDao) {
+    public AccountController(AccountAppService accountAppService,
+                             AccountBulkAppService accountBulkAppService,
+                             AccountQueryService accountQueryService,
+                             AccountDao accountDao) {
         this.accountAppService = accountAppService;
+        this.accountBulkAppService = accountBulkAppService;
+        this.accountQueryService = accountQueryService;
         this.accountDao = accountDao;
     }
 
@@ -35,10 +45,30 @@ public class AccountController {
             @Valid @RequestBody CreateAccountRequest req
     ) {
         var resp = accountAppService.openFor(customerId, req.currency());
+        // Committed at this point; cached list pages of the customer are now stale
+        accountQueryService.invalidate(customerId);
         var location = URI.create("/v1/accounts/" + resp.id());
         return ResponseEntity.created(location).body(resp);
     }
 
+    /**
+     * Toplu hesap açma (kurumsal onboarding)
+     * POST /v1/customers/{customerId}/accounts:bulk
+     *
+     * 201 when every account was opened; 500 with the accounts opened before the failure otherwise.
+     */
+    @PostMapping("/customers/{customerId}/accounts:bulk")
+    public ResponseEntity<BulkCreateAccountsResponse> openBulk(
+            @PathVariable UUID customerId,
+            @Valid @RequestBody BulkCreateAccountsRequest req
+    ) {
+        var currencies = req.accounts().stream().map(CreateAccountRequest::currency).toList();
+        var resp = accountBulkAppService.openBulk(customerId, currencies);
+        accountQueryService.invalidate(customerId);
+        return ResponseEntity.status(resp.complete() ? HttpStatus.CREATED : HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(resp);
+    }
+
     /**
      * Tekil hesap getirme
      * GET /v1/accounts/{accountId}
@@ -69,4 +99,22 @@ public class AccountController {
         // Boşsa bile 200 + [] döner → FE tarafında 500 yerine boş liste görürsün
         return ResponseEntity.ok(responses);
     }
+
+    /**
+     * Sayfalı hesap listeleme (büyük kurumsal müşteriler)
+     * GET /v1/customers/{customerId}/accounts?limit=100[&afterId=...][&includeBalances=true]
+     *
+     * Keyset pages in id order; pass nextAfterId back as afterId until it is null.
+     * includeBalances joins the balances in the same query instead of one balance call per account.
+     * Without limit the endpoint keeps returning the full plain list above.
+     */
+    @GetMapping(value = "/customers/{customerId}/accounts", params = "limit")
+    public ResponseEntity<AccountPageResponse> pageByCustomer(
+            @PathVariable UUID customerId,
+            @RequestParam int limit,
+            @RequestParam(required = false) UUID afterId,
+            @RequestParam(defaultValue = "false") boolean includeBalances
+    ) {
+        return ResponseEntity.ok(accountQueryService.page(customerId, afterId, limit, includeBalances));
+    }
 }
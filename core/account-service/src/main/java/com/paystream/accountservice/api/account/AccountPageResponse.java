@@ -0,0 +1,32 @@
+package com.paystream.accountservice.api.account;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.paystream.accountservice.domain.account.AccountSummary;
+
+import java.util.List;
+import java.util.UUID;
+
+// nextAfterId: pass back as afterId for the next page; null on the last page
+public record AccountPageResponse(
+        List<Item> accounts,
+        UUID nextAfterId
+) {
+    /** Balance fields are present only with includeBalances=true (same names as the balance endpoint). */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record Item(
+            UUID id,
+            String currency,
+            String status,
+            @JsonProperty("balance_minor") Long balanceMinor,
+            @JsonProperty("as_of_ledger_offset") Long asOfLedgerOffset
+    ) {}
+
+    public static AccountPageResponse of(List<AccountSummary> rows, UUID nextAfterId) {
+        return new AccountPageResponse(
+                rows.stream()
+                        .map(a -> new Item(a.id(), a.currency(), a.status(), a.balanceMinor(), a.asOfLedgerOffset()))
+                        .toList(),
+                nextAfterId);
+    }
+}
@@ -1,24 +1,33 @@
 package com.paystream.accountservice.api.account;
 
-import org.springframework.jdbc.core.JdbcTemplate;
+import com.paystream.accountservice.app.account.BalanceQueryService;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import java.util.Map;
 import java.util.UUID;
 
-/** Read-only balance endpoint for smoke tests. */
+/** Balance reads; served from BalanceCache (local → Redis → account_balances). */
 @RestController
 @RequestMapping("/v1")
 public class BalanceController {
 
-    private final JdbcTemplate jdbc;
-    public BalanceController(JdbcTemplate jdbc) { this.jdbc = jdbc; }
+    private final BalanceQueryService balances;
+    public BalanceController(BalanceQueryService balances) { this.balances = balances; }
 
     @GetMapping("/accounts/{accountId}/balance")
-    public Map<String, Object> get(@PathVariable UUID accountId) {
-        return jdbc.queryForMap("""
-            SELECT account_id, balance_minor, as_of_ledger_offset, updated_at
-              FROM account_balances WHERE account_id = ?
-        """, accountId);
+    public BalanceResponse get(@PathVariable UUID accountId) {
+        return balances.get(accountId);
+    }
+
+    /**
+     * Read-your-writes: GET /v1/accounts/{id}/balance?minOffset=N[&waitMs=]
+     * Answers once as_of_ledger_offset >= N (the ledger offset of the caller's own entry),
+     * or after waitMs with the latest committed balance; compare as_of_ledger_offset to tell.
+     */
+    @GetMapping(value = "/accounts/{accountId}/balance", params = "minOffset")
+    public DeferredResult<BalanceResponse> awaitOffset(@PathVariable UUID accountId,
+                                                       @RequestParam long minOffset,
+                                                       @RequestParam(required = false) Long waitMs) {
+        return balances.awaitOffset(accountId, minOffset, waitMs);
     }
 }
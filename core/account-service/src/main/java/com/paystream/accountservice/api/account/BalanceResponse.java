@@ -1,6 +1,23 @@
 package com.paystream.accountservice.api.account;
-import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.paystream.accountservice.domain.account.AccountBalance;
+
 import java.time.Instant;
 import java.util.UUID;
 
-public record BalanceResponse(UUID accountId, BigDecimal currentBalance, Long asOfLedgerOffset, Instant updatedAt) {}
+/**
+ * Balance in minor units. as_of_ledger_offset is the last ledger offset folded into it
+ * (null before the first entry), so clients can tell how fresh it is.
+ * Field names match the columns the endpoint has always returned.
+ */
+public record BalanceResponse(
+        @JsonProperty("account_id") UUID accountId,
+        @JsonProperty("balance_minor") long balanceMinor,
+        @JsonProperty("as_of_ledger_offset") Long asOfLedgerOffset,
+        @JsonProperty("updated_at") Instant updatedAt
+) {
+    public static BalanceResponse of(AccountBalance b) {
+        return new BalanceResponse(b.accountId(), b.balanceMinor(), b.asOfLedgerOffset(), b.updatedAt());
+    }
+}
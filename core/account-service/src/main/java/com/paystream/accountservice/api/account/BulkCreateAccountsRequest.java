@@ -0,0 +1,14 @@
+package com.paystream.accountservice.api.account;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/** POST /v1/customers/{customerId}/accounts:bulk body; one item per account to open */
+public record BulkCreateAccountsRequest(
+        @NotEmpty
+        @Size(max = 50000, message = "At most 50000 accounts per request")
+        List<@Valid CreateAccountRequest> accounts
+) {}
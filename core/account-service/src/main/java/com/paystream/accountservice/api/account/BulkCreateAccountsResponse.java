@@ -0,0 +1,14 @@
+package com.paystream.accountservice.api.account;
+
+import java.util.List;
+
+/**
+ * Accounts opened by a bulk request, in request order.
+ * error is null when all were opened; otherwise created holds the ones that were.
+ */
+public record BulkCreateAccountsResponse(int requested, List<AccountResponse> created, String error) {
+
+    public boolean complete() {
+        return error == null;
+    }
+}
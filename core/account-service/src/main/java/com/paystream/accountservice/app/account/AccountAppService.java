@@ -64,23 +64,28 @@ public class AccountAppService {
         accountBalanceDao.insertInitial(accountId);
 
         // 3) Record outbox event for "account created"
-        outboxDao.insert(new OutboxEvent(
+        outboxDao.insert(accountCreated(account));
+
+        // Map domain to response DTO
+        return new AccountResponse(accountId, currency, "ACTIVE");
+    }
+
+    /** Outbox event for a newly opened account; also used by the bulk path. */
+    static OutboxEvent accountCreated(Account account) {
+        return new OutboxEvent(
                 UUID.randomUUID(),             // outbox event id
                 "ACCOUNT",                     // aggregate type
-                accountId,                     // aggregate id
+                account.id(),                  // aggregate id
                 "accounts.account-created.v1", // versioned event name
                 Map.of(                        // minimal payload
-                        "accountId", accountId.toString(),
-                        "customerId", customerId.toString(),
-                        "currency", currency,
-                        "status", "ACTIVE"
+                        "accountId", account.id().toString(),
+                        "customerId", account.customerId().toString(),
+                        "currency", account.currency(),
+                        "status", account.status()
                 ),
                 Map.of(),                      // headers (traceId/correlationId) if available
-                now,
+                account.createdAt(),
                 null                           // published_at is NULL; publisher will set it
-        ));
-
-        // Map domain to response DTO
-        return new AccountResponse(accountId, currency, "ACTIVE");
+        );
     }
 }
@@ -0,0 +1,82 @@
+package com.paystream.accountservice.app.account;
+
+import com.paystream.accountservice.api.account.AccountResponse;
+import com.paystream.accountservice.api.account.BulkCreateAccountsResponse;
+import com.paystream.accountservice.domain.account.Account;
+import com.paystream.accountservice.infra.dao.account.AccountBalanceDao;
+import com.paystream.accountservice.infra.dao.account.AccountDao;
+import com.paystream.accountservice.infra.dao.outbox.OutboxDao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Opens many accounts for one customer (corporate onboarding).
+ *
+ * Same rows as {@link AccountAppService#openFor} per account, but written per chunk: one JDBC
+ * batch each for accounts, account_balances and outbox_events, one transaction per chunk.
+ * Chunks commit independently; if one fails, the accounts of the earlier chunks stay open and
+ * are returned together with the error, so the caller knows exactly what exists.
+ */
+@Slf4j
+@Service
+public class AccountBulkAppService {
+
+    private final AccountDao accountDao;
+    private final AccountBalanceDao accountBalanceDao;
+    private final OutboxDao outboxDao;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+
+    public AccountBulkAppService(AccountDao accountDao,
+                                 AccountBalanceDao accountBalanceDao,
+                                 OutboxDao outboxDao,
+                                 TransactionTemplate tx,
+                                 @Value("${account.bulk.chunk-size:1000}") int chunkSize) {
+        this.accountDao = accountDao;
+        this.accountBalanceDao = accountBalanceDao;
+        this.outboxDao = outboxDao;
+        this.tx = tx;
+        this.chunkSize = chunkSize;
+    }
+
+    /** @param currencies one ISO 4217 code per account to open */
+    public BulkCreateAccountsResponse openBulk(UUID customerId, List<String> currencies) {
+        List<AccountResponse> created = new ArrayList<>(currencies.size());
+        for (int from = 0; from < currencies.size(); from += chunkSize) {
+            List<String> chunk = currencies.subList(from, Math.min(from + chunkSize, currencies.size()));
+            try {
+                created.addAll(openChunk(customerId, chunk));
+            } catch (RuntimeException ex) {
+                log.error("Bulk account opening failed after {} of {} accounts. customer={}",
+                        created.size(), currencies.size(), customerId, ex);
+                return new BulkCreateAccountsResponse(currencies.size(), created,
+                        "Opening failed after " + created.size() + " accounts; the listed ones are open");
+            }
+        }
+        return new BulkCreateAccountsResponse(currencies.size(), created, null);
+    }
+
+    private List<AccountResponse> openChunk(UUID customerId, List<String> currencies) {
+        Instant now = Instant.now();
+        List<Account> accounts = new ArrayList<>(currencies.size());
+        for (String currency : currencies) {
+            accounts.add(new Account(UUID.randomUUID(), customerId, currency, "ACTIVE", 0L, now, now));
+        }
+
+        tx.executeWithoutResult(status -> {
+            accountDao.insertAll(accounts);
+            accountBalanceDao.insertInitialAll(accounts.stream().map(Account::id).toList());
+            outboxDao.insertAll(accounts.stream().map(AccountAppService::accountCreated).toList());
+        });
+        return accounts.stream()
+                .map(a -> new AccountResponse(a.id(), a.currency(), a.status()))
+                .toList();
+    }
+}
@@ -0,0 +1,48 @@
+package com.paystream.accountservice.app.account;
+
+import com.paystream.accountservice.api.account.AccountPageResponse;
+import com.paystream.accountservice.domain.account.AccountSummary;
+import com.paystream.accountservice.infra.cache.AccountListCache;
+import com.paystream.accountservice.infra.cache.AccountListCache.PageKey;
+import com.paystream.accountservice.infra.dao.account.AccountDao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/** Paged account listing of a customer, optionally with balances, through AccountListCache. */
+@Service
+public class AccountQueryService {
+
+    private final AccountDao accountDao;
+    private final AccountListCache cache;
+    private final int maxLimit;
+
+    public AccountQueryService(AccountDao accountDao,
+                               AccountListCache cache,
+                               @Value("${account.list.max-limit:500}") int maxLimit) {
+        this.accountDao = accountDao;
+        this.cache = cache;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param afterId last id of the previous page (its nextAfterId), null for the first page
+     * @param limit   clamped to [1, max-limit]
+     */
+    public AccountPageResponse page(UUID customerId, UUID afterId, int limit, boolean withBalances) {
+        int size = Math.min(Math.max(limit, 1), maxLimit);
+        // One row beyond the page tells whether another page exists
+        List<AccountSummary> rows = cache.page(customerId, new PageKey(afterId, size, withBalances),
+                () -> accountDao.findPageByCustomer(customerId, afterId, size + 1, withBalances));
+
+        boolean more = rows.size() > size;
+        List<AccountSummary> page = more ? rows.subList(0, size) : rows;
+        return AccountPageResponse.of(page, more ? page.get(page.size() - 1).id() : null);
+    }
+
+    public void invalidate(UUID customerId) {
+        cache.invalidate(customerId);
+    }
+}
@@ -0,0 +1,106 @@
+package com.paystream.accountservice.app.account;
+
+import com.paystream.accountservice.api.account.BalanceResponse;
+import com.paystream.accountservice.api.error.NotFoundException;
+import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.infra.cache.BalanceCache;
+import com.paystream.accountservice.infra.cache.BalanceWaiters;
+import com.paystream.accountservice.infra.cache.BalanceWaiters.Waiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.UUID;
+
+/**
+ * Balance reads, optionally read-your-writes: with minOffset the request is parked (no thread
+ * held) until the account's as_of_ledger_offset reaches it, or until waitMs passes.
+ *
+ * The local cache may lag for accounts consumed by another instance, so a miss is re-checked
+ * against account_balances before parking, and parked accounts are re-read by
+ * {@link com.paystream.accountservice.infra.cache.BalanceWaitPoller} until they are covered.
+ * On timeout the balance is re-read once more. The response carries as_of_ledger_offset either
+ * way; the caller compares it with minOffset.
+ */
+@Service
+public class BalanceQueryService {
+
+    private final BalanceCache cache;
+    private final BalanceWaiters waiters;
+    private final long defaultWaitMs;
+    private final long maxWaitMs;
+
+    private final Counter immediate;
+    private final Counter woken;
+    private final Counter timedOut;
+
+    public BalanceQueryService(BalanceCache cache,
+                               BalanceWaiters waiters,
+                               MeterRegistry meters,
+                               @Value("${account.balance-wait.default-wait-ms:5000}") long defaultWaitMs,
+                               @Value("${account.balance-wait.max-wait-ms:30000}") long maxWaitMs) {
+        this.cache = cache;
+        this.waiters = waiters;
+        this.defaultWaitMs = defaultWaitMs;
+        this.maxWaitMs = maxWaitMs;
+        this.immediate = Counter.builder("account.balance.wait").tag("outcome", "immediate").register(meters);
+        this.woken = Counter.builder("account.balance.wait").tag("outcome", "woken").register(meters);
+        this.timedOut = Counter.builder("account.balance.wait").tag("outcome", "timeout").register(meters);
+    }
+
+    public BalanceResponse get(UUID accountId) {
+        return cache.get(accountId)
+                .map(BalanceResponse::of)
+                .orElseThrow(() -> notFound(accountId));
+    }
+
+    public DeferredResult<BalanceResponse> awaitOffset(UUID accountId, long minOffset, Long waitMs) {
+        long wait = Math.min(Math.max(waitMs == null ? defaultWaitMs : waitMs, 0), maxWaitMs);
+        AccountBalance cached = cache.get(accountId).orElseThrow(() -> notFound(accountId));
+        // The cached row may be stale (foreign account): ask the DB before parking
+        AccountBalance current = covers(cached, minOffset) || wait == 0
+                ? cached
+                : cache.reload(accountId).orElse(cached);
+
+        // Timeout 0 would mean "no timeout" to the servlet container
+        DeferredResult<BalanceResponse> result = new DeferredResult<>(Math.max(wait, 1));
+        if (covers(current, minOffset) || wait == 0) {
+            immediate.increment();
+            result.setResult(BalanceResponse.of(current));
+            return result;
+        }
+
+        Waiter waiter = new Waiter(minOffset, b -> {
+            if (result.setResult(BalanceResponse.of(b))) woken.increment();
+        });
+        if (!waiters.register(accountId, waiter)) {
+            // Too many parked reads: answer now, the client retries as before
+            immediate.increment();
+            result.setResult(BalanceResponse.of(current));
+            return result;
+        }
+        result.onCompletion(() -> waiters.remove(accountId, waiter));
+        result.onTimeout(() -> {
+            waiters.remove(accountId, waiter);
+            AccountBalance latest = cache.reload(accountId).orElse(current);
+            if (result.setResult(BalanceResponse.of(latest))) timedOut.increment();
+        });
+
+        // The consumer may have applied it between the first read and register()
+        cache.get(accountId).filter(b -> covers(b, minOffset)).ifPresent(b -> {
+            waiters.remove(accountId, waiter);
+            if (result.setResult(BalanceResponse.of(b))) immediate.increment();
+        });
+        return result;
+    }
+
+    private static boolean covers(AccountBalance b, long minOffset) {
+        return BalanceCache.offsetOf(b) >= minOffset;
+    }
+
+    private static NotFoundException notFound(UUID accountId) {
+        return new NotFoundException("Balance not found for account " + accountId);
+    }
+}
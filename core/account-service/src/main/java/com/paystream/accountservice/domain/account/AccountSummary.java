@@ -0,0 +1,12 @@
+package com.paystream.accountservice.domain.account;
+
+import java.util.UUID;
+
+/** Account list row; balance fields are null unless balances were requested. */
+public record AccountSummary(
+        UUID id,
+        String currency,
+        String status,
+        Long balanceMinor,
+        Long asOfLedgerOffset
+) {}
@@ -0,0 +1,55 @@
+package com.paystream.accountservice.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paystream.accountservice.domain.account.AccountSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Short-TTL cache of account list pages, keyed by customer.
+ *
+ * All pages of a customer live under one entry, so they expire together and a new account
+ * invalidates them together. Included balances are therefore at most one TTL old; every row
+ * carries as_of_ledger_offset, and the single-balance endpoint stays the fresh read.
+ */
+@Component
+public class AccountListCache {
+
+    /** One cached page request of a customer. */
+    public record PageKey(UUID afterId, int limit, boolean withBalances) {}
+
+    private final Cache<UUID, Map<PageKey, List<AccountSummary>>> cache;
+
+    public AccountListCache(MeterRegistry meters,
+                            @Value("${account.list-cache.max-customers:10000}") long maxCustomers,
+                            @Value("${account.list-cache.ttl:PT5S}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxCustomers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{cache=account.list.cache,result=hit|miss}, cache.evictions, cache.size, ... (tag, not prefix);
+        // hits/misses count customers
+        CaffeineCacheMetrics.monitor(meters, cache, "account.list.cache");
+    }
+
+    public List<AccountSummary> page(UUID customerId, PageKey key, Supplier<List<AccountSummary>> load) {
+        return cache.get(customerId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> List.copyOf(load.get()));
+    }
+
+    /** Call after the accounts of a customer changed (committed). */
+    public void invalidate(UUID customerId) {
+        cache.invalidate(customerId);
+    }
+}
@@ -0,0 +1,113 @@
+package com.paystream.accountservice.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.infra.dao.account.AccountBalanceDao;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache for account balances: local Caffeine → Redis (optional) → account_balances.
+ *
+ * - LedgerEntryConsumer puts the rows it has just committed, so balances of accounts this
+ *   instance consumes are updated in place rather than expired.
+ * - Every write keeps the row with the higher as_of_ledger_offset, so a read-through load that
+ *   raced with the consumer can never put an older balance back.
+ * - Accounts consumed by another instance only change here when the TTL expires; with Redis
+ *   enabled they are re-read from the shared tier, which the owning instance keeps current.
+ *   A write the owner failed to make there is bounded by the Redis TTL, which is capped at the
+ *   local TTL, so such a read is at most two TTLs behind instead of the Redis TTL.
+ *   Reads that must see a given offset use {@link #reload} / {@link #reloadAll} instead.
+ * Unknown accounts are not cached.
+ */
+@Component
+public class BalanceCache {
+
+    private final AccountBalanceDao dao;
+    private final Optional<RedisBalanceTier> redis;
+    private final Cache<UUID, AccountBalance> local;
+
+    public BalanceCache(AccountBalanceDao dao,
+                        ObjectProvider<RedisBalanceTier> redis,
+                        MeterRegistry meters,
+                        @Value("${account.balance-cache.max-size:200000}") long maxSize,
+                        @Value("${account.balance-cache.ttl:PT30S}") Duration ttl) {
+        this.dao = dao;
+        this.redis = Optional.ofNullable(redis.getIfAvailable());
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{cache=account.balance.cache,result=hit|miss}, cache.evictions, cache.size, ... (tag, not prefix)
+        CaffeineCacheMetrics.monitor(meters, local, "account.balance.cache");
+        Gauge.builder("account.balance.cache.hit.ratio", local, c -> c.stats().hitRate())
+                .description("Share of balance reads served from the local cache")
+                .register(meters);
+    }
+
+    public Optional<AccountBalance> get(UUID accountId) {
+        // Loads run once per key; a concurrent put for that key waits and then wins by offset
+        return Optional.ofNullable(local.get(accountId, this::load));
+    }
+
+    /** Straight from account_balances (skipping both tiers), then cached if it is newer. */
+    public Optional<AccountBalance> reload(UUID accountId) {
+        return dao.findById(accountId).map(fromDb -> {
+            redis.ifPresent(r -> r.putAll(List.of(fromDb)));
+            return local.asMap().merge(accountId, fromDb, BalanceCache::newer);
+        });
+    }
+
+    /** {@link #reload} for many accounts in one query; returns what is cached afterwards. */
+    public List<AccountBalance> reloadAll(Collection<UUID> accountIds) {
+        List<AccountBalance> fromDb = dao.findAllById(accountIds);
+        if (fromDb.isEmpty()) return fromDb;
+        redis.ifPresent(r -> r.putAll(fromDb));
+        return fromDb.stream()
+                .map(b -> local.asMap().merge(b.accountId(), b, BalanceCache::newer))
+                .toList();
+    }
+
+    /** Rows just committed by the consumer. */
+    public void putAll(List<AccountBalance> committed) {
+        if (committed.isEmpty()) return;
+        committed.forEach(this::putLocal);
+        redis.ifPresent(r -> r.putAll(committed));
+    }
+
+    private AccountBalance load(UUID accountId) {
+        Optional<AccountBalance> shared = redis.flatMap(r -> r.get(accountId));
+        if (shared.isPresent()) return shared.get();
+
+        AccountBalance fromDb = dao.findById(accountId).orElse(null);
+        if (fromDb != null) {
+            redis.ifPresent(r -> r.putAll(List.of(fromDb)));
+        }
+        return fromDb;
+    }
+
+    private void putLocal(AccountBalance b) {
+        local.asMap().merge(b.accountId(), b, BalanceCache::newer);
+    }
+
+    static AccountBalance newer(AccountBalance current, AccountBalance candidate) {
+        return offsetOf(candidate) >= offsetOf(current) ? candidate : current;
+    }
+
+    /** as_of_ledger_offset, -1 before the first applied entry. */
+    public static long offsetOf(AccountBalance b) {
+        return b.asOfLedgerOffset() == null ? -1 : b.asOfLedgerOffset();
+    }
+}
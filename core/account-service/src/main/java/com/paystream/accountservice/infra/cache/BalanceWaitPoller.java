@@ -0,0 +1,39 @@
+package com.paystream.accountservice.infra.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Wakes parked balance reads of accounts this instance does not consume.
+ *
+ * The local consumer only sees its own partitions, and the cache holds other accounts for up to
+ * its TTL. Every poll-ms the parked accounts are re-read from account_balances in one query per
+ * chunk and handed to {@link BalanceWaiters#onApplied} like consumer rows. Accounts this instance
+ * does consume are usually woken before the next poll; re-reading them is harmless.
+ */
+@Component
+public class BalanceWaitPoller {
+
+    private static final int CHUNK = 1000;
+
+    private final BalanceCache cache;
+    private final BalanceWaiters waiters;
+
+    public BalanceWaitPoller(BalanceCache cache, BalanceWaiters waiters) {
+        this.cache = cache;
+        this.waiters = waiters;
+    }
+
+    @Scheduled(fixedDelayString = "${account.balance-wait.poll-ms:200}")
+    public void poll() {
+        List<UUID> parked = new ArrayList<>(waiters.parkedAccounts());
+        for (int from = 0; from < parked.size(); from += CHUNK) {
+            waiters.onApplied(cache.reloadAll(parked.subList(from, Math.min(from + CHUNK, parked.size()))));
+        }
+    }
+}
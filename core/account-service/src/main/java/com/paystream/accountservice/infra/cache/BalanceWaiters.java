@@ -0,0 +1,80 @@
+package com.paystream.accountservice.infra.cache;
+
+import com.paystream.accountservice.domain.account.AccountBalance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Parked balance reads waiting for an account to reach a ledger offset.
+ *
+ * Nothing blocks: a waiter is just a callback (completing a DeferredResult) kept per account.
+ * LedgerEntryConsumer calls {@link #onApplied} with the rows it has committed, and every waiter
+ * whose minOffset is now covered fires. Only accounts consumed by this instance are woken this
+ * way; the others are woken by {@link BalanceWaitPoller}, which re-reads parked accounts from
+ * account_balances at a short interval.
+ */
+@Component
+public class BalanceWaiters {
+
+    /** A parked read; fire is called at most once, with the balance that satisfied it. */
+    public record Waiter(long minOffset, Consumer<AccountBalance> fire) {}
+
+    private final Map<UUID, Set<Waiter>> byAccount = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxWaiters;
+
+    public BalanceWaiters(MeterRegistry meters,
+                          @Value("${account.balance-wait.max-waiters:10000}") int maxWaiters) {
+        this.maxWaiters = maxWaiters;
+        Gauge.builder("account.balance.waiters", size, AtomicInteger::get)
+                .description("Balance reads parked until their minOffset is applied")
+                .register(meters);
+    }
+
+    /** @return false if too many reads are parked already; the caller answers right away instead */
+    public boolean register(UUID accountId, Waiter w) {
+        if (size.incrementAndGet() > maxWaiters) {
+            size.decrementAndGet();
+            return false;
+        }
+        byAccount.computeIfAbsent(accountId, k -> ConcurrentHashMap.newKeySet()).add(w);
+        return true;
+    }
+
+    public void remove(UUID accountId, Waiter w) {
+        byAccount.computeIfPresent(accountId, (k, set) -> {
+            if (set.remove(w)) size.decrementAndGet();
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    /** Accounts with at least one parked read. */
+    public Set<UUID> parkedAccounts() {
+        return Set.copyOf(byAccount.keySet());
+    }
+
+    /** Rows just committed by the consumer (or re-read by the poller). */
+    public void onApplied(List<AccountBalance> committed) {
+        if (size.get() == 0) return;
+        for (AccountBalance b : committed) {
+            Set<Waiter> waiting = byAccount.get(b.accountId());
+            if (waiting == null || b.asOfLedgerOffset() == null) continue;
+            for (Waiter w : waiting) {
+                if (b.asOfLedgerOffset() >= w.minOffset()) {
+                    remove(b.accountId(), w);
+                    w.fire().accept(b);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.paystream.accountservice.infra.cache;
+
+import com.paystream.accountservice.domain.account.AccountBalance;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Shared balance tier in Redis (account.balance-cache.redis.enabled), one hash per account:
+ * b = balance_minor, o = as_of_ledger_offset (-1 if none), u = updated_at epoch millis.
+ *
+ * Writes go through a small script that only replaces a hash holding a lower offset, so the
+ * owning consumer and read-through fills from any pod can write without clobbering newer data.
+ * Redis is an optimisation only: errors are counted and the caller falls back to Postgres.
+ *
+ * A failed write leaves the previous hash in place, and other pods keep reading it. The hash
+ * therefore never outlives the local tier's TTL (account.balance-cache.ttl): only a newer write
+ * extends it, so a missed update is dropped within the same bound as a local entry.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.balance-cache.redis.enabled", havingValue = "true")
+public class RedisBalanceTier {
+
+    private static final String KEY_PREFIX = "account:balance:";
+    private static final byte[] PUT_IF_NEWER = """
+        local cur = redis.call('HGET', KEYS[1], 'o')
+        if cur and tonumber(cur) >= tonumber(ARGV[2]) then return 0 end
+        redis.call('HSET', KEYS[1], 'b', ARGV[1], 'o', ARGV[2], 'u', ARGV[3])
+        redis.call('PEXPIRE', KEYS[1], ARGV[4])
+        return 1
+        """.getBytes(StandardCharsets.UTF_8);
+
+    private final StringRedisTemplate redis;
+    private final Duration ttl;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter errors;
+
+    public RedisBalanceTier(StringRedisTemplate redis,
+                            MeterRegistry meters,
+                            @Value("${account.balance-cache.redis.ttl:PT30S}") Duration ttl,
+                            @Value("${account.balance-cache.ttl:PT30S}") Duration localTtl) {
+        this.redis = redis;
+        if (ttl.compareTo(localTtl) > 0) {
+            log.warn("account.balance-cache.redis.ttl {} exceeds the local TTL {}; using {}", ttl, localTtl, localTtl);
+            ttl = localTtl;
+        }
+        this.ttl = ttl;
+        this.hits = Counter.builder("account.balance.cache.redis").tag("result", "hit").register(meters);
+        this.misses = Counter.builder("account.balance.cache.redis").tag("result", "miss").register(meters);
+        this.errors = Counter.builder("account.balance.cache.redis").tag("result", "error").register(meters);
+    }
+
+    public Optional<AccountBalance> get(UUID accountId) {
+        try {
+            Map<Object, Object> h = redis.opsForHash().entries(KEY_PREFIX + accountId);
+            if (h.isEmpty()) {
+                misses.increment();
+                return Optional.empty();
+            }
+            hits.increment();
+            long offset = Long.parseLong((String) h.get("o"));
+            return Optional.of(new AccountBalance(
+                    accountId,
+                    Long.parseLong((String) h.get("b")),
+                    offset < 0 ? null : offset,
+                    Instant.ofEpochMilli(Long.parseLong((String) h.get("u")))));
+        } catch (RuntimeException ex) {
+            errors.increment();
+            log.debug("Redis balance read failed acc={}", accountId, ex);
+            return Optional.empty();
+        }
+    }
+
+    /** One pipelined round trip for the whole list. */
+    public void putAll(List<AccountBalance> balances) {
+        byte[] ttlMs = String.valueOf(ttl.toMillis()).getBytes(StandardCharsets.UTF_8);
+        try {
+            redis.executePipelined((RedisCallback<Object>) con -> {
+                for (AccountBalance b : balances) {
+                    eval(con, b, ttlMs);
+                }
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            errors.increment();
+            log.debug("Redis balance write failed for {} accounts", balances.size(), ex);
+        }
+    }
+
+    private static void eval(RedisConnection con, AccountBalance b, byte[] ttlMs) {
+        con.scriptingCommands().eval(PUT_IF_NEWER, ReturnType.INTEGER, 1,
+                bytes(KEY_PREFIX + b.accountId()),
+                bytes(String.valueOf(b.balanceMinor())),
+                bytes(String.valueOf(BalanceCache.offsetOf(b))),
+                bytes(String.valueOf(b.updatedAt().toEpochMilli())),
+                ttlMs);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
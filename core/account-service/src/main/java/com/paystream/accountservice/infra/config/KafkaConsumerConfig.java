@@ -1,32 +1,54 @@
 package com.paystream.accountservice.infra.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ContainerProperties;
 
 import java.util.HashMap;
 import java.util.Map;
 
-/** Basic consumer config for ledger.entry.appended topic. */
+/**
+ * Batch consumer config for the ledger.entry.appended topic.
+ * Offsets are committed by the container once a whole poll has been applied (AckMode.BATCH),
+ * never by the client in the background: at-least-once, duplicates are dropped by the offset guard.
+ */
 @Configuration
 public class KafkaConsumerConfig {
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
-            KafkaProperties properties) {
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory(
+            KafkaProperties properties,
+            MeterRegistry meters,
+            @Value("${account.balance-consumer.max-poll-records:2000}") int maxPollRecords,
+            @Value("${account.balance-consumer.concurrency:1}") int concurrency) {
 
         Map<String, Object> props = new HashMap<>(properties.buildConsumerProperties(null));
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, true); // at-least-once; idempotent update at DB
-        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 200);
+        // Raw bytes: ledger.entry.appended is JSON or binary, chosen by the content-type header
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // Bigger polls → fewer, larger coalesced UPDATEs
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
 
-        var factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
-        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
+        var cf = new DefaultKafkaConsumerFactory<String, byte[]>(props);
+        // kafka.consumer.fetch.manager.records.lag.max etc. → consumer lag on /actuator/prometheus
+        cf.addListener(new MicrometerConsumerListener<>(meters));
+
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, byte[]>();
+        factory.setConsumerFactory(cf);
+        factory.setBatchListener(true);
+        // Partitions are keyed by account, so instances/threads never update the same balance row
+        factory.setConcurrency(concurrency);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
         return factory;
     }
 }
@@ -1,46 +1,101 @@
 package com.paystream.accountservice.infra.consumer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.infra.cache.BalanceCache;
+import com.paystream.accountservice.infra.cache.BalanceWaiters;
 import com.paystream.accountservice.infra.dao.account.AccountBalanceDao;
-import lombok.RequiredArgsConstructor;
+import com.paystream.accountservice.infra.dao.account.AccountBalanceDao.Delta;
+import com.paystream.common.events.LedgerEntryAppended;
+import com.paystream.common.events.LedgerEntryAppendedCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
-/** Consumes ledger.entry.appended and applies balance deltas idempotently. */
+/**
+ * Consumes ledger.entry.appended in whole polls and applies the balance deltas with one
+ * coalesced UPDATE per poll (see AccountBalanceDao.applyDeltas).
+ * - Offsets are committed by the container after this method returns, i.e. after the UPDATE
+ *   has committed; a crash in between redelivers the poll and the account_seq guard skips it.
+ * - The committed rows are pushed into BalanceCache and wake reads parked on their offset.
+ * - Reads both wire formats: the compact binary one when the content-type header says so, JSON otherwise.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class LedgerEntryConsumer {
 
     private final ObjectMapper om;
     private final AccountBalanceDao balances;
+    private final BalanceCache cache;
+    private final BalanceWaiters waiters;
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private record Event(
-            UUID accountId,
-            String currency,   // not used here but useful for validation later
-            long amountMinor,  // signed
-            long ledgerOffset  // global, monotonically increasing
-    ) {}
+    private final DistributionSummary pollSize;
+    private final Timer applyTimer;
+    private final Counter undecodable;
+
+    public LedgerEntryConsumer(ObjectMapper om,
+                               AccountBalanceDao balances,
+                               BalanceCache cache,
+                               BalanceWaiters waiters,
+                               MeterRegistry meters) {
+        this.om = om;
+        this.balances = balances;
+        this.cache = cache;
+        this.waiters = waiters;
+        this.pollSize = DistributionSummary.builder("account.balance.consumer.poll.size")
+                .description("ledger.entry.appended events per applied poll")
+                .register(meters);
+        this.applyTimer = Timer.builder("account.balance.consumer.apply")
+                .description("Time to apply one poll to account_balances")
+                .register(meters);
+        this.undecodable = Counter.builder("account.balance.consumer.undecodable").register(meters);
+    }
 
     @KafkaListener(
             topics = "ledger.entry.appended",
-            groupId = "account-snapshot-consumer"
+            groupId = "account-snapshot-consumer",
+            batch = "true"
     )
-    public void onMessage(ConsumerRecord<String, String> rec) throws Exception {
-        Event e = om.readValue(rec.value(), Event.class);
-
-        // Apply idempotently: only if offset is newer than snapshot
-        int updated = balances.applyDelta(e.accountId(), e.amountMinor(), e.ledgerOffset());
-        if (updated == 1) {
-            log.info("Snapshot updated acc={} Δ={} offset={}", e.accountId(), e.amountMinor(), e.ledgerOffset());
-        } else {
-            log.debug("Skipped (old/duplicate) acc={} Δ={} offset={}", e.accountId(), e.amountMinor(), e.ledgerOffset());
+    public void onMessages(List<ConsumerRecord<String, byte[]>> recs) {
+        List<Delta> deltas = new ArrayList<>(recs.size());
+        for (ConsumerRecord<String, byte[]> rec : recs) {
+            try {
+                LedgerEntryAppended e = read(rec);
+                deltas.add(new Delta(e.accountId(), e.amountMinor(), e.ledgerOffset(), e.accountSeq()));
+            } catch (IOException | RuntimeException ex) {
+                // Retrying cannot fix a record that does not decode; it must not block the partition
+                undecodable.increment();
+                log.error("Undecodable ledger event skipped. partition={} offset={}", rec.partition(), rec.offset(), ex);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<AccountBalance> updated = balances.applyDeltas(deltas);
+        applyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        pollSize.record(deltas.size());
+        // Committed rows replace cached ones in place, then parked reads are woken
+        cache.putAll(updated);
+        waiters.onApplied(updated);
+        log.debug("Applied poll events={} accountsUpdated={}", deltas.size(), updated.size());
+    }
+
+    private LedgerEntryAppended read(ConsumerRecord<String, byte[]> rec) throws IOException {
+        Header type = rec.headers().lastHeader(LedgerEntryAppendedCodec.HEADER);
+        if (type != null && LedgerEntryAppendedCodec.isBinary(new String(type.value(), StandardCharsets.UTF_8))) {
+            return LedgerEntryAppendedCodec.decode(rec.value());
         }
+        return om.readValue(rec.value(), LedgerEntryAppended.class);
     }
 }
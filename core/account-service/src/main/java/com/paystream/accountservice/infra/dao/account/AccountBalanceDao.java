@@ -1,13 +1,24 @@
 package com.paystream.accountservice.infra.dao.account;
 
+import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.infra.dao.mapper.RowMappers;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
  * DAO for account_balances table in minor units.
- * Idempotent update: apply only if new offset is strictly higher.
+ * Idempotent update: a delta is applied once, in per-account account_seq order (see applyDeltas).
  */
 @Repository
 public class AccountBalanceDao {
@@ -25,19 +36,190 @@ public class AccountBalanceDao {
         jdbc.update(sql, accountId);
     }
 
+    /** Initial balance rows for a batch of new accounts (JDBC batch). */
+    public void insertInitialAll(List<UUID> accountIds) {
+        final String sql = """
+            INSERT INTO account_balances (account_id, balance_minor, as_of_ledger_offset, updated_at)
+            VALUES (?, 0, NULL, now())
+        """;
+        jdbc.batchUpdate(sql, accountIds, accountIds.size(), (ps, id) -> ps.setObject(1, id));
+    }
+
+    /** One ledger.entry.appended event: balance delta of an account at a ledger offset / account_seq. */
+    public record Delta(UUID accountId, long amountMinor, long ledgerOffset, Long accountSeq) {}
+
     /**
-     * Apply delta in minor units if the incoming ledgerOffset is newer.
-     * @return rows updated (0 if skipped → idempotent)
+     * Applies a whole poll of deltas in one transaction, coalesced per account, in account_seq
+     * order (the order the ledger booked them; Kafka and ledger_offset order may differ per account):
+     * - Sequenced events above as_of_account_seq are staged in account_balance_pending, then each
+     *   account of the poll takes its contiguous run applied+1, applied+2, ... from there in one
+     *   UPDATE. Events behind a missing seq stay pending until it arrives; a redelivered poll is
+     *   at or below as_of_account_seq and adds nothing.
+     * - A row still on the old offset guard (as_of_account_seq NULL, as_of_ledger_offset set)
+     *   takes its first sequenced run by offset, once, and is seq-gated from then on.
+     * - Legacy events without accountSeq keep the offset guard, on rows not yet seq-gated.
+     * Accounts without a balance row are skipped, as before.
+     * @return the updated rows, one per account
      */
-    public int applyDelta(UUID accountId, long deltaMinor, long ledgerOffset) {
+    @Transactional
+    public List<AccountBalance> applyDeltas(List<Delta> deltas) {
+        if (deltas.isEmpty()) return List.of();
+
+        List<Delta> legacy = new ArrayList<>();
+        List<Delta> sequenced = new ArrayList<>(deltas.size());
+        for (Delta d : deltas) {
+            (d.accountSeq() == null ? legacy : sequenced).add(d);
+        }
+
+        Map<UUID, AccountBalance> updated = new LinkedHashMap<>();
+        for (AccountBalance b : applyByOffset(legacy)) updated.put(b.accountId(), b);
+        for (AccountBalance b : applyBySeq(sequenced)) updated.put(b.accountId(), b);
+        return List.copyOf(updated.values());
+    }
+
+    private List<AccountBalance> applyBySeq(List<Delta> deltas) {
+        if (deltas.isEmpty()) return List.of();
+
+        UUID[] accounts = new UUID[deltas.size()];
+        Long[] amounts = new Long[deltas.size()];
+        Long[] offsets = new Long[deltas.size()];
+        Long[] seqs = new Long[deltas.size()];
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta d = deltas.get(i);
+            accounts[i] = d.accountId();
+            amounts[i] = d.amountMinor();
+            offsets[i] = d.ledgerOffset();
+            seqs[i] = d.accountSeq();
+        }
+        Object[] touched = Arrays.stream(accounts).distinct().toArray();
+
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                INSERT INTO account_balance_pending (account_id, account_seq, amount_minor, ledger_offset)
+                SELECT e.account_id, e.account_seq, e.amount_minor, e.ledger_offset
+                  FROM unnest(?::uuid[], ?::bigint[], ?::bigint[], ?::bigint[])
+                           AS e(account_id, amount_minor, ledger_offset, account_seq)
+                  JOIN account_balances cur ON cur.account_id = e.account_id
+                 WHERE e.account_seq > coalesce(cur.as_of_account_seq, 0)
+                ON CONFLICT (account_id, account_seq) DO NOTHING
+            """);
+            ps.setArray(1, con.createArrayOf("uuid", accounts));
+            ps.setArray(2, con.createArrayOf("bigint", amounts));
+            ps.setArray(3, con.createArrayOf("bigint", offsets));
+            ps.setArray(4, con.createArrayOf("bigint", seqs));
+            return ps;
+        });
+
+        // seq = applied + rn holds exactly for the gapless prefix of the pending seqs. The
+        // applied check in the WHERE is re-evaluated on the locked row, so a run computed from a
+        // stale as_of_account_seq (two consumers during a rebalance) is a no-op.
+        final String sql = """
+            WITH p AS (
+                SELECT p.account_id, p.account_seq, p.amount_minor, p.ledger_offset,
+                       cur.as_of_account_seq AS applied, cur.as_of_ledger_offset AS applied_offset,
+                       row_number() OVER (PARTITION BY p.account_id ORDER BY p.account_seq) AS rn
+                  FROM account_balance_pending p
+                  JOIN account_balances cur ON cur.account_id = p.account_id
+                 WHERE p.account_id = ANY (?::uuid[])
+                   AND p.account_seq > coalesce(cur.as_of_account_seq, 0)
+            ), run AS (
+                SELECT account_id, applied,
+                       coalesce(sum(amount_minor) FILTER (WHERE applied IS NOT NULL OR applied_offset IS NULL
+                                                          OR ledger_offset > applied_offset), 0) AS delta_minor,
+                       max(ledger_offset) AS max_offset, max(account_seq) AS to_seq
+                  FROM p
+                 WHERE account_seq = coalesce(applied, 0) + rn
+                    OR (applied IS NULL AND applied_offset IS NOT NULL)
+                 GROUP BY account_id, applied
+            )
+            UPDATE account_balances b
+               SET balance_minor       = b.balance_minor + run.delta_minor,
+                   as_of_ledger_offset = greatest(b.as_of_ledger_offset, run.max_offset),
+                   as_of_account_seq   = run.to_seq,
+                   updated_at          = now()
+              FROM run
+             WHERE b.account_id = run.account_id
+               AND b.as_of_account_seq IS NOT DISTINCT FROM run.applied
+            RETURNING b.account_id, b.balance_minor, b.as_of_ledger_offset, b.updated_at
+        """;
+        List<AccountBalance> updated = jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", touched));
+            return ps;
+        }, RowMappers.ACCOUNT_BALANCE);
+
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                DELETE FROM account_balance_pending p
+                 USING account_balances b
+                 WHERE b.account_id = p.account_id
+                   AND p.account_id = ANY (?::uuid[])
+                   AND p.account_seq <= b.as_of_account_seq
+            """);
+            ps.setArray(1, con.createArrayOf("uuid", touched));
+            return ps;
+        });
+        return updated;
+    }
+
+    // Events written before per-account sequencing: only deltas newer than as_of_ledger_offset
+    private List<AccountBalance> applyByOffset(List<Delta> deltas) {
+        if (deltas.isEmpty()) return List.of();
+
+        UUID[] accounts = new UUID[deltas.size()];
+        Long[] amounts = new Long[deltas.size()];
+        Long[] offsets = new Long[deltas.size()];
+        for (int i = 0; i < deltas.size(); i++) {
+            Delta d = deltas.get(i);
+            accounts[i] = d.accountId();
+            amounts[i] = d.amountMinor();
+            offsets[i] = d.ledgerOffset();
+        }
+
         final String sql = """
-            UPDATE account_balances
-               SET balance_minor       = balance_minor + ?,
-                   as_of_ledger_offset = ?,
+            UPDATE account_balances b
+               SET balance_minor       = b.balance_minor + d.delta_minor,
+                   as_of_ledger_offset = d.max_offset,
                    updated_at          = now()
-             WHERE account_id = ?
-               AND (as_of_ledger_offset IS NULL OR as_of_ledger_offset < ?)
+              FROM (
+                    SELECT e.account_id, sum(e.amount_minor) AS delta_minor, max(e.ledger_offset) AS max_offset
+                      FROM unnest(?::uuid[], ?::bigint[], ?::bigint[]) AS e(account_id, amount_minor, ledger_offset)
+                      JOIN account_balances cur ON cur.account_id = e.account_id
+                     WHERE cur.as_of_account_seq IS NULL
+                       AND (cur.as_of_ledger_offset IS NULL OR e.ledger_offset > cur.as_of_ledger_offset)
+                     GROUP BY e.account_id
+                   ) d
+             WHERE b.account_id = d.account_id
+            RETURNING b.account_id, b.balance_minor, b.as_of_ledger_offset, b.updated_at
+        """;
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", accounts));
+            ps.setArray(2, con.createArrayOf("bigint", amounts));
+            ps.setArray(3, con.createArrayOf("bigint", offsets));
+            return ps;
+        }, RowMappers.ACCOUNT_BALANCE);
+    }
+
+    public Optional<AccountBalance> findById(UUID accountId) {
+        final String sql = """
+            SELECT account_id, balance_minor, as_of_ledger_offset, updated_at
+              FROM account_balances WHERE account_id = ?
+        """;
+        return jdbc.query(sql, RowMappers.ACCOUNT_BALANCE, accountId).stream().findFirst();
+    }
+
+    /** Balance rows of the given accounts; unknown ids are left out. */
+    public List<AccountBalance> findAllById(Collection<UUID> accountIds) {
+        if (accountIds.isEmpty()) return List.of();
+        final String sql = """
+            SELECT account_id, balance_minor, as_of_ledger_offset, updated_at
+              FROM account_balances WHERE account_id = ANY (?::uuid[])
         """;
-        return jdbc.update(sql, deltaMinor, ledgerOffset, accountId, ledgerOffset);
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", accountIds.toArray()));
+            return ps;
+        }, RowMappers.ACCOUNT_BALANCE);
     }
 }
@@ -1,6 +1,7 @@
 package com.paystream.accountservice.infra.dao.account;
 
 import com.paystream.accountservice.domain.account.Account;
+import com.paystream.accountservice.domain.account.AccountSummary;
 import com.paystream.accountservice.infra.dao.mapper.RowMappers;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -32,6 +33,20 @@ public class AccountDao {
         );
     }
 
+    /** JDBC batch; rewritten into multi-row INSERTs by the driver (reWriteBatchedInserts). */
+    public void insertAll(List<Account> accounts) {
+        String sql =
+                "INSERT INTO accounts (id, customer_id, currency, status, version, created_at, updated_at) " +
+                        "VALUES (?, ?, ?, ?, 0, now(), now())";
+
+        jdbc.batchUpdate(sql, accounts, accounts.size(), (ps, a) -> {
+            ps.setObject(1, a.id());
+            ps.setObject(2, a.customerId());
+            ps.setString(3, a.currency());
+            ps.setString(4, a.status());
+        });
+    }
+
     public Optional<Account> findById(UUID id) {
         String sql =
                 "SELECT id, customer_id, currency, status, version, created_at, updated_at " +
@@ -54,4 +69,26 @@ public class AccountDao {
 
         return jdbc.query(sql, RowMappers.ACCOUNT, customerId);
     }
+
+    /**
+     * One keyset page of a customer's accounts in id order (idx_accounts_customer_page).
+     * afterId = last id of the previous page, null for the first page. With balances, the
+     * balance row is joined in the same query instead of one balance call per account.
+     */
+    public List<AccountSummary> findPageByCustomer(UUID customerId, UUID afterId, int limit, boolean withBalances) {
+        String columns = withBalances
+                ? "a.id, a.currency, a.status, b.balance_minor, b.as_of_ledger_offset"
+                : "a.id, a.currency, a.status, NULL::bigint AS balance_minor, NULL::bigint AS as_of_ledger_offset";
+        String join = withBalances ? "LEFT JOIN account_balances b ON b.account_id = a.id " : "";
+        String keyset = afterId == null ? "" : "AND a.id > ? ";
+        String sql =
+                "SELECT " + columns + " FROM accounts a " + join +
+                        "WHERE a.customer_id = ? " + keyset +
+                        "ORDER BY a.id LIMIT ?";
+
+        Object[] args = afterId == null
+                ? new Object[]{customerId, limit}
+                : new Object[]{customerId, afterId, limit};
+        return jdbc.query(sql, RowMappers.ACCOUNT_SUMMARY, args);
+    }
 }
@@ -2,6 +2,7 @@ package com.paystream.accountservice.infra.dao.mapper;
 
 import com.paystream.accountservice.domain.account.Account;
 import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.domain.account.AccountSummary;
 import org.springframework.jdbc.core.RowMapper;
 
 import java.sql.ResultSet;
@@ -27,6 +28,14 @@ public class RowMappers {
             rs.getTimestamp("updated_at").toInstant()
     );
 
+    public static final RowMapper<AccountSummary> ACCOUNT_SUMMARY = (rs, rowNum) -> new AccountSummary(
+            getUuid(rs, "id"),
+            rs.getString("currency"),
+            rs.getString("status"),
+            rs.getObject("balance_minor", Long.class),
+            rs.getObject("as_of_ledger_offset", Long.class)
+    );
+
     private static UUID getUuid(ResultSet rs, String col) throws SQLException {
         Object o = rs.getObject(col);
         if (o instanceof UUID u) return u;
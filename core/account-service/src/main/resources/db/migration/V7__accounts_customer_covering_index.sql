@@ -0,0 +1,7 @@
+-- Keyset pagination of a customer's accounts: (customer_id, id) in index order, with the listed
+-- columns included so the page without balances is an index-only scan.
+-- Replaces idx_accounts_customer (its leading column), so customer lookups keep an index.
+CREATE INDEX IF NOT EXISTS idx_accounts_customer_page
+    ON accounts(customer_id, id) INCLUDE (currency, status);
+
+DROP INDEX IF EXISTS idx_accounts_customer;
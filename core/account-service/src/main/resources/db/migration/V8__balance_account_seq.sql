@@ -0,0 +1,16 @@
+-- ledger.entry.appended is applied in per-account account_seq order (AccountBalanceDao.applyDeltas).
+-- as_of_account_seq: last applied seq; NULL until the first sequenced event of the account.
+-- Nullable, no default: the ADD COLUMN is a catalog-only change, no table rewrite.
+ALTER TABLE account_balances
+    ADD COLUMN IF NOT EXISTS as_of_account_seq BIGINT;
+
+-- Events that arrived ahead of a missing seq (Kafka order per account may differ from seq
+-- order). They wait here, durably, until the gap is filled and are applied in the same
+-- transaction as the event that fills it.
+CREATE TABLE IF NOT EXISTS account_balance_pending (
+    account_id     UUID    NOT NULL REFERENCES account_balances(account_id) ON DELETE CASCADE,
+    account_seq    BIGINT  NOT NULL,
+    amount_minor   BIGINT  NOT NULL,
+    ledger_offset  BIGINT  NOT NULL,
+    PRIMARY KEY (account_id, account_seq)
+);
@@ -0,0 +1,124 @@
+package com.paystream.accountservice.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.accountservice.app.account.AccountBulkAppService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class AccountListingIT {
+
+    static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>("postgres:16")
+                    .withDatabaseName("paystream")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static { POSTGRES.start(); }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        r.add("spring.datasource.username", POSTGRES::getUsername);
+        r.add("spring.datasource.password", POSTGRES::getPassword);
+        r.add("eureka.client.enabled", () -> "false");
+        r.add("spring.flyway.enabled", () -> "true");
+        r.add("account.list-cache.ttl", () -> "PT1M");
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired AccountBulkAppService bulk;
+
+    @Test
+    @DisplayName("Keyset pages cover every account once, in id order, and end with nextAfterId = null")
+    void pages_coverAllAccounts() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        bulk.openBulk(customerId, Collections.nCopies(25, "TRY"));
+
+        List<String> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            String url = "/v1/customers/" + customerId + "/accounts?limit=10" + (after == null ? "" : "&afterId=" + after);
+            JsonNode page = getJson(url);
+            page.get("accounts").forEach(a -> seen.add(a.get("id").asText()));
+            // Bakiye istenmedi → alanlar yok
+            assertThat(page.get("accounts").get(0).has("balance_minor")).isFalse();
+            after = page.get("nextAfterId").isNull() ? null : page.get("nextAfterId").asText();
+            pages++;
+        } while (after != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+        // Postgres uuid sırası (Java UUID.compareTo işaretli karşılaştırır, farklıdır)
+        assertThat(seen).containsExactlyElementsOf(jdbc.queryForList(
+                "SELECT id::text FROM accounts WHERE customer_id = ? ORDER BY id", String.class, customerId));
+    }
+
+    @Test
+    @DisplayName("includeBalances joins the balance of every account in the same response")
+    void includeBalances_returnsBalancesInline() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        UUID acc = bulk.openBulk(customerId, List.of("TRY")).created().get(0).id();
+        jdbc.update("UPDATE account_balances SET balance_minor = 1250, as_of_ledger_offset = 42 WHERE account_id = ?", acc);
+
+        JsonNode item = getJson("/v1/customers/" + customerId + "/accounts?limit=50&includeBalances=true")
+                .get("accounts").get(0);
+        assertThat(item.get("balance_minor").asLong()).isEqualTo(1250);
+        assertThat(item.get("as_of_ledger_offset").asLong()).isEqualTo(42);
+    }
+
+    @Test
+    @DisplayName("Opening an account through the API invalidates the customer's cached pages")
+    void newAccount_invalidatesCachedPages() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        bulk.openBulk(customerId, List.of("TRY"));
+        String url = "/v1/customers/" + customerId + "/accounts?limit=50";
+        assertThat(getJson(url).get("accounts")).hasSize(1);
+
+        // Cache'te; doğrudan DB'ye eklenen hesap TTL dolana kadar görünmez
+        jdbc.update("""
+            INSERT INTO accounts(id, customer_id, currency, status, version, created_at, updated_at)
+            VALUES (?, ?, 'EUR', 'ACTIVE', 0, NOW(), NOW())
+        """, UUID.randomUUID(), customerId);
+        assertThat(getJson(url).get("accounts")).hasSize(1);
+
+        mvc.perform(post("/v1/customers/{id}/accounts", customerId)
+                        .contentType("application/json")
+                        .content("{\"currency\":\"USD\"}"))
+                .andExpect(status().isCreated());
+        assertThat(getJson(url).get("accounts")).hasSize(3);
+
+        // Parametresiz çağrı eski düz listeyi döndürmeye devam eder
+        assertThat(getJson("/v1/customers/" + customerId + "/accounts").isArray()).isTrue();
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String body = mvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return om.readTree(body);
+    }
+}
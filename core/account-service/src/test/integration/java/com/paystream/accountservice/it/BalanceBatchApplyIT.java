@@ -0,0 +1,177 @@
+package com.paystream.accountservice.it;
+
+import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.infra.dao.account.AccountBalanceDao;
+import com.paystream.accountservice.infra.dao.account.AccountBalanceDao.Delta;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class BalanceBatchApplyIT {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>("postgres:16")
+                    .withDatabaseName("paystream")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        r.add("spring.datasource.username", POSTGRES::getUsername);
+        r.add("spring.datasource.password", POSTGRES::getPassword);
+        r.add("spring.flyway.enabled", () -> "true");
+        r.add("eureka.client.enabled", () -> "false");
+    }
+
+    @Autowired JdbcTemplate jdbc;
+    @Autowired AccountBalanceDao balances;
+
+    @Test
+    @DisplayName("One poll is coalesced per account; a redelivered, overlapping poll only adds the new events")
+    void poll_isCoalesced_andRedeliveryIsIdempotent() {
+        UUID a = newAccount();
+        UUID b = newAccount();
+        UUID unknown = UUID.randomUUID();
+
+        List<AccountBalance> updated = balances.applyDeltas(List.of(
+                new Delta(a, 100, 1, 1L), new Delta(b, -40, 2, 1L), new Delta(a, 50, 3, 2L), new Delta(unknown, 7, 4, 1L)));
+        // hesap başına tek satır; bilinmeyen hesap atlanır
+        assertThat(updated).extracting(AccountBalance::accountId).containsExactlyInAnyOrder(a, b);
+        assertThat(balance(a)).isEqualTo(150);
+        assertThat(offset(a)).isEqualTo(3);
+        assertThat(seq(a)).isEqualTo(2);
+        assertThat(balance(b)).isEqualTo(-40);
+
+        // Offset commit kayboldu → aynı poll + yeni kayıtlar tekrar gelir
+        balances.applyDeltas(List.of(
+                new Delta(a, 100, 1, 1L), new Delta(b, -40, 2, 1L), new Delta(a, 50, 3, 2L), new Delta(a, 25, 5, 3L)));
+        assertThat(balance(a)).isEqualTo(175);
+        assertThat(offset(a)).isEqualTo(5);
+        assertThat(seq(a)).isEqualTo(3);
+        assertThat(balance(b)).isEqualTo(-40);
+        assertThat(pending()).isZero();
+
+        assertThat(balances.applyDeltas(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Events behind a missing account_seq wait until it arrives, whatever their offsets")
+    void outOfSeqOrder_waitsForTheGap_insteadOfDropping() {
+        UUID a = newAccount();
+
+        // seq 1 offset'ini seq 2'den önce almış ama Kafka'ya sonra düşmüş
+        assertThat(balances.applyDeltas(List.of(new Delta(a, 10, 7, 2L), new Delta(a, 5, 9, 4L)))).isEmpty();
+        assertThat(balance(a)).isZero();
+        assertThat(pending()).isEqualTo(2);
+
+        List<AccountBalance> updated = balances.applyDeltas(List.of(new Delta(a, 20, 8, 1L)));
+        // 1 ve 2 uygulanır; 4, 3 gelene kadar bekler
+        assertThat(updated).extracting(AccountBalance::balanceMinor).containsExactly(30L);
+        assertThat(seq(a)).isEqualTo(2);
+        assertThat(offset(a)).isEqualTo(8);
+        assertThat(pending()).isEqualTo(1);
+
+        balances.applyDeltas(List.of(new Delta(a, 1, 6, 3L)));
+        assertThat(balance(a)).isEqualTo(36);
+        assertThat(seq(a)).isEqualTo(4);
+        assertThat(offset(a)).isEqualTo(9);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Legacy events keep the offset guard; a row upgraded from it switches to account_seq once")
+    void legacyEvents_andUpgradedRows_useTheOffsetGuardOnce() {
+        UUID a = newAccount();
+
+        balances.applyDeltas(List.of(new Delta(a, 40, 9, null), new Delta(a, 60, 10, null)));
+        assertThat(balance(a)).isEqualTo(100);
+        assertThat(offset(a)).isEqualTo(10);
+
+        // Yükseltme öncesi offset guard ile uygulanmış seq 5 tekrar gelir, seq 6 yenidir
+        balances.applyDeltas(List.of(new Delta(a, 7, 9, 5L), new Delta(a, 3, 11, 6L)));
+        assertThat(balance(a)).isEqualTo(103);
+        assertThat(seq(a)).isEqualTo(6);
+
+        // Artık seq ile: eski legacy event'ler ve seq <= 6 yok sayılır
+        balances.applyDeltas(List.of(new Delta(a, 100, 12, null), new Delta(a, 3, 11, 6L), new Delta(a, 1, 13, 7L)));
+        assertThat(balance(a)).isEqualTo(104);
+        assertThat(seq(a)).isEqualTo(7);
+        assertThat(pending()).isZero();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Large polls over many accounts: logs events/s for the coalesced UPDATE")
+    void largePolls_logThroughput() {
+        List<UUID> accounts = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) accounts.add(newAccount());
+
+        int polls = 50;
+        int perPoll = 2000;
+        long offset = 0;
+        long[] seqs = new long[accounts.size()];
+        long started = System.nanoTime();
+        for (int p = 0; p < polls; p++) {
+            List<Delta> poll = new ArrayList<>(perPoll);
+            for (int i = 0; i < perPoll; i++) {
+                int k = i % accounts.size();
+                poll.add(new Delta(accounts.get(k), 1, ++offset, ++seqs[k]));
+            }
+            balances.applyDeltas(poll);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Long total = jdbc.queryForObject("SELECT sum(balance_minor) FROM account_balances", Long.class);
+        assertThat(total).isEqualTo((long) polls * perPoll);
+        log.info("coalesced balance apply: {} events/s ({}-event polls, {} accounts)",
+                Math.round(polls * perPoll / seconds), perPoll, accounts.size());
+    }
+
+    private UUID newAccount() {
+        UUID id = UUID.randomUUID();
+        jdbc.update("""
+            INSERT INTO accounts(id, customer_id, currency, status, version, created_at, updated_at)
+            VALUES (?, ?, 'TRY', 'ACTIVE', 0, NOW(), NOW())
+        """, id, UUID.randomUUID());
+        balances.insertInitial(id);
+        return id;
+    }
+
+    private long balance(UUID id) {
+        return jdbc.queryForObject("SELECT balance_minor FROM account_balances WHERE account_id = ?", Long.class, id);
+    }
+
+    private long offset(UUID id) {
+        return jdbc.queryForObject("SELECT as_of_ledger_offset FROM account_balances WHERE account_id = ?", Long.class, id);
+    }
+
+    private long seq(UUID id) {
+        return jdbc.queryForObject("SELECT as_of_account_seq FROM account_balances WHERE account_id = ?", Long.class, id);
+    }
+
+    private long pending() {
+        return jdbc.queryForObject("SELECT count(*) FROM account_balance_pending", Long.class);
+    }
+}
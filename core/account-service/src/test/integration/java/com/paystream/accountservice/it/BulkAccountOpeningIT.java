@@ -0,0 +1,125 @@
+package com.paystream.accountservice.it;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.accountservice.api.account.BulkCreateAccountsResponse;
+import com.paystream.accountservice.app.account.AccountAppService;
+import com.paystream.accountservice.app.account.AccountBulkAppService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Slf4j
+@SpringBootTest
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+class BulkAccountOpeningIT {
+
+    static final PostgreSQLContainer<?> POSTGRES =
+            new PostgreSQLContainer<>("postgres:16")
+                    .withDatabaseName("paystream")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    static { POSTGRES.start(); }
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry r) {
+        r.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        r.add("spring.datasource.username", POSTGRES::getUsername);
+        r.add("spring.datasource.password", POSTGRES::getPassword);
+        r.add("eureka.client.enabled", () -> "false");
+        r.add("spring.flyway.enabled", () -> "true");
+        r.add("account.bulk.chunk-size", () -> "500");
+    }
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired AccountAppService single;
+    @Autowired AccountBulkAppService bulk;
+
+    @Test
+    @DisplayName("POST /v1/customers/{id}/accounts:bulk -> 201, every account gets its balance row and outbox event")
+    void bulk_createsAllRows_acrossChunks() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            if (i > 0) items.append(',');
+            items.append(i % 2 == 0 ? "{\"currency\":\"TRY\"}" : "{\"currency\":\"USD\"}");
+        }
+
+        String body = mvc.perform(post("/v1/customers/{id}/accounts:bulk", customerId)
+                        .contentType("application/json")
+                        .content("{\"accounts\":[" + items + "]}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode resp = om.readTree(body);
+        assertThat(resp.get("created")).hasSize(1200);   // 3 chunk (500 + 500 + 200)
+        assertThat(resp.get("created").get(1).get("currency").asText()).isEqualTo("USD");
+        assertThat(count("SELECT count(*) FROM accounts WHERE customer_id = ?", customerId)).isEqualTo(1200);
+        assertThat(count("""
+            SELECT count(*) FROM account_balances b JOIN accounts a ON a.id = b.account_id
+            WHERE a.customer_id = ? AND b.balance_minor = 0
+        """, customerId)).isEqualTo(1200);
+        assertThat(count("""
+            SELECT count(*) FROM outbox_events
+            WHERE event_type = 'accounts.account-created.v1' AND payload->>'customerId' = ?
+        """, customerId.toString())).isEqualTo(1200);
+    }
+
+    @Test
+    @DisplayName("POST ...:bulk -> 400 on an invalid currency, nothing is opened")
+    void bulk_invalidItem_isRejected() throws Exception {
+        UUID customerId = UUID.randomUUID();
+        mvc.perform(post("/v1/customers/{id}/accounts:bulk", customerId)
+                        .contentType("application/json")
+                        .content("{\"accounts\":[{\"currency\":\"TRY\"},{\"currency\":\"tr\"}]}"))
+                .andExpect(status().isBadRequest());
+        assertThat(count("SELECT count(*) FROM accounts WHERE customer_id = ?", customerId)).isZero();
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Benchmark: accounts/s for the bulk path vs one openFor call per account")
+    void bulk_vs_single_logsThroughput() {
+        int n = 2000;
+
+        UUID c1 = UUID.randomUUID();
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) single.openFor(c1, "TRY");
+        double singleRate = n / ((System.nanoTime() - t0) / 1e9);
+
+        UUID c2 = UUID.randomUUID();
+        long t1 = System.nanoTime();
+        BulkCreateAccountsResponse resp = bulk.openBulk(c2, Collections.nCopies(n, "TRY"));
+        double bulkRate = n / ((System.nanoTime() - t1) / 1e9);
+
+        assertThat(resp.complete()).isTrue();
+        assertThat(resp.created()).hasSize(n);
+        log.info("account opening: single {} accounts/s, bulk {} accounts/s ({} accounts)",
+                Math.round(singleRate), Math.round(bulkRate), n);
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbc.queryForObject(sql, Long.class, args);
+    }
+}
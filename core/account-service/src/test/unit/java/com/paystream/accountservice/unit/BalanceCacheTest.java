@@ -0,0 +1,82 @@
+package com.paystream.accountservice.unit;
+
+import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.infra.cache.BalanceCache;
+import com.paystream.accountservice.infra.dao.account.AccountBalanceDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * BalanceCache without Redis: read-through, in-place updates from the consumer, offset ordering.
+ */
+class BalanceCacheTest {
+
+    private final AccountBalanceDao dao = mock(AccountBalanceDao.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
+    @SuppressWarnings("unchecked")
+    private final BalanceCache cache = new BalanceCache(dao, mock(ObjectProvider.class), meters,
+            1000, Duration.ofMinutes(5));
+
+    @Test
+    @DisplayName("get: first read loads from DB, later reads are hits; unknown accounts are not cached")
+    void get_readsThrough_once() {
+        UUID acc = UUID.randomUUID();
+        when(dao.findById(acc)).thenReturn(Optional.of(balance(acc, 500, 10L)));
+
+        assertThat(cache.get(acc)).map(AccountBalance::balanceMinor).contains(500L);
+        assertThat(cache.get(acc)).map(AccountBalance::balanceMinor).contains(500L);
+        verify(dao, times(1)).findById(acc);
+
+        UUID unknown = UUID.randomUUID();
+        when(dao.findById(unknown)).thenReturn(Optional.empty());
+        assertThat(cache.get(unknown)).isEmpty();
+        assertThat(cache.get(unknown)).isEmpty();
+        verify(dao, times(2)).findById(unknown);
+
+        assertThat(meters.get("account.balance.cache.hit.ratio").gauge().value()).isGreaterThan(0.0);
+    }
+
+    @Test
+    @DisplayName("putAll: consumer rows replace cached ones in place, but never with an older offset")
+    void putAll_keepsHigherOffset() {
+        UUID acc = UUID.randomUUID();
+        when(dao.findById(acc)).thenReturn(Optional.of(balance(acc, 100, 5L)));
+        cache.get(acc);
+
+        cache.putAll(List.of(balance(acc, 180, 9L)));
+        assertThat(cache.get(acc)).map(AccountBalance::asOfLedgerOffset).contains(9L);
+
+        // Geç kalan eski satır (ör. yarışan read-through) yeniyi ezmez
+        cache.putAll(List.of(balance(acc, 100, 5L)));
+        assertThat(cache.get(acc)).map(AccountBalance::balanceMinor).contains(180L);
+        verify(dao, times(1)).findById(acc);
+        verifyNoMoreInteractions(dao);
+    }
+
+    @Test
+    @DisplayName("A fresh account (null offset) is replaced by its first applied delta")
+    void nullOffset_isOlderThanAnyOffset() {
+        UUID acc = UUID.randomUUID();
+        when(dao.findById(acc)).thenReturn(Optional.of(balance(acc, 0, null)));
+        cache.get(acc);
+
+        cache.putAll(List.of(balance(acc, 70, 1L)));
+        assertThat(cache.get(acc)).map(AccountBalance::balanceMinor).contains(70L);
+    }
+
+    private static AccountBalance balance(UUID acc, long minor, Long offset) {
+        return new AccountBalance(acc, minor, offset, Instant.now());
+    }
+}
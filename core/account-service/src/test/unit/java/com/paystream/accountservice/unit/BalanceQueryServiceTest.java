@@ -0,0 +1,116 @@
+package com.paystream.accountservice.unit;
+
+import com.paystream.accountservice.api.account.BalanceResponse;
+import com.paystream.accountservice.app.account.BalanceQueryService;
+import com.paystream.accountservice.domain.account.AccountBalance;
+import com.paystream.accountservice.infra.cache.BalanceCache;
+import com.paystream.accountservice.infra.cache.BalanceWaitPoller;
+import com.paystream.accountservice.infra.cache.BalanceWaiters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Read-your-writes waits: answered at once when the offset is already covered (in the cache
+ * or in account_balances), otherwise parked until the consumer or the DB poll sees it.
+ */
+class BalanceQueryServiceTest {
+
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final BalanceCache cache = mock(BalanceCache.class);
+    private final BalanceWaiters waiters = new BalanceWaiters(meters, 2);
+    private final BalanceQueryService service = new BalanceQueryService(cache, waiters, meters, 5000, 30000);
+
+    private final UUID acc = UUID.randomUUID();
+
+    @Test
+    @DisplayName("minOffset already applied → answered without parking")
+    void coveredOffset_answersImmediately() {
+        when(cache.get(acc)).thenReturn(Optional.of(balance(300, 12L)));
+
+        DeferredResult<BalanceResponse> r = service.awaitOffset(acc, 12, null);
+
+        assertThat(r.hasResult()).isTrue();
+        assertThat(((BalanceResponse) r.getResult()).asOfLedgerOffset()).isEqualTo(12L);
+        assertThat(meters.get("account.balance.waiters").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Parked read is woken by the applied row that covers it, not by an older one")
+    void parkedRead_isWokenByConsumer() {
+        when(cache.get(acc)).thenReturn(Optional.of(balance(100, 5L)));
+
+        DeferredResult<BalanceResponse> r = service.awaitOffset(acc, 9, 10_000L);
+        assertThat(r.hasResult()).isFalse();
+        assertThat(meters.get("account.balance.waiters").gauge().value()).isEqualTo(1.0);
+
+        // Henüz yetişmedi
+        waiters.onApplied(List.of(balance(120, 7L)));
+        assertThat(r.hasResult()).isFalse();
+
+        waiters.onApplied(List.of(balance(180, 9L)));
+        assertThat(r.hasResult()).isTrue();
+        assertThat(((BalanceResponse) r.getResult()).balanceMinor()).isEqualTo(180);
+        assertThat(meters.get("account.balance.waiters").gauge().value()).isZero();
+        assertThat(meters.get("account.balance.wait").tag("outcome", "woken").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Stale cached row but account_balances already covers minOffset → answered without parking")
+    void staleCache_isRecheckedAgainstDbBeforeParking() {
+        when(cache.get(acc)).thenReturn(Optional.of(balance(100, 5L)));
+        when(cache.reload(acc)).thenReturn(Optional.of(balance(150, 9L)));
+
+        DeferredResult<BalanceResponse> r = service.awaitOffset(acc, 9, 10_000L);
+
+        assertThat(r.hasResult()).isTrue();
+        assertThat(((BalanceResponse) r.getResult()).balanceMinor()).isEqualTo(150);
+        assertThat(meters.get("account.balance.waiters").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Parked read of an account consumed elsewhere is woken by the DB poll")
+    void parkedForeignAccount_isWokenByPoller() {
+        when(cache.get(acc)).thenReturn(Optional.of(balance(100, 5L)));
+        BalanceWaitPoller poller = new BalanceWaitPoller(cache, waiters);
+
+        DeferredResult<BalanceResponse> r = service.awaitOffset(acc, 9, 10_000L);
+        assertThat(r.hasResult()).isFalse();
+
+        when(cache.reloadAll(List.of(acc))).thenReturn(List.of(balance(130, 8L)));
+        poller.poll();
+        assertThat(r.hasResult()).isFalse();
+
+        when(cache.reloadAll(List.of(acc))).thenReturn(List.of(balance(170, 11L)));
+        poller.poll();
+        assertThat(r.hasResult()).isTrue();
+        assertThat(((BalanceResponse) r.getResult()).balanceMinor()).isEqualTo(170);
+        assertThat(waiters.parkedAccounts()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Waiter limit reached → current balance is returned instead of parking")
+    void waiterLimit_answersWithCurrent() {
+        when(cache.get(acc)).thenReturn(Optional.of(balance(100, 5L)));
+
+        service.awaitOffset(acc, 50, 10_000L);
+        service.awaitOffset(acc, 50, 10_000L);
+        DeferredResult<BalanceResponse> third = service.awaitOffset(acc, 50, 10_000L);
+
+        assertThat(third.hasResult()).isTrue();
+        assertThat(((BalanceResponse) third.getResult()).asOfLedgerOffset()).isEqualTo(5L);
+    }
+
+    private AccountBalance balance(long minor, Long offset) {
+        return new AccountBalance(acc, minor, offset, Instant.now());
+    }
+}
@@ -0,0 +1,17 @@
+package com.paystream.ledgerservice.api;
+
+import java.util.UUID;
+
+/**
+ * @param lastEntryOffset  offset of the newest entry included in the balance (null: no entries yet)
+ * @param checkpointOffset checkpoint the computation started from (null: summed from the beginning)
+ * @param scannedEntries   entries summed on top of the checkpoint
+ */
+public record BalanceAsOfResponse(
+        UUID accountId,
+        String currency,
+        long balanceMinor,
+        Long lastEntryOffset,
+        Long checkpointOffset,
+        int scannedEntries
+) {}
@@ -0,0 +1,17 @@
+package com.paystream.ledgerservice.api;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookBatchRequest {
+
+    // Items are validated one by one by the app service (no @Valid cascade),
+    // so a single bad item is reported in its result instead of failing the whole file
+    @NotEmpty
+    @Size(max = 10_000)
+    private List<BookTransactionRequest> transactions;
+}
@@ -0,0 +1,26 @@
+package com.paystream.ledgerservice.api;
+
+import java.util.List;
+import java.util.UUID;
+
+// Per-item outcome, in the same order as the request's transactions.
+// rejected: permanent (invalid, insufficient funds, txId conflict); failed: chunk rolled back, retry as is
+public record BookBatchResponse(int booked, int duplicates, int rejected, int failed, List<Item> results) {
+
+    public enum Status { BOOKED, DUPLICATE, REJECTED, CONFLICT, FAILED }
+
+    public record Item(int index, UUID txId, Status status, String message) {}
+
+    public static BookBatchResponse of(List<Item> results) {
+        int booked = 0, duplicates = 0, rejected = 0, failed = 0;
+        for (Item it : results) {
+            switch (it.status()) {
+                case BOOKED -> booked++;
+                case DUPLICATE -> duplicates++;
+                case REJECTED, CONFLICT -> rejected++;
+                case FAILED -> failed++;
+            }
+        }
+        return new BookBatchResponse(booked, duplicates, rejected, failed, results);
+    }
+}
@@ -0,0 +1,12 @@
+package com.paystream.ledgerservice.api;
+
+import java.util.UUID;
+
+// Snapshot balance including every entry of the account up to consistentAsOfOffset
+public record CurrentBalanceResponse(
+        UUID accountId,
+        String currency,
+        long balanceMinor,
+        Long consistentAsOfOffset,
+        Long accountSeq
+) {}
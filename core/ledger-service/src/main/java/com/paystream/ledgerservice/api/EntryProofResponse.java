@@ -0,0 +1,18 @@
+package com.paystream.ledgerservice.api;
+
+import java.util.List;
+
+/**
+ * Inclusion proof of one entry: fold entryHash up the path (leaf = sha256(0x00 || entryHash),
+ * node = sha256(0x01 || left || right)) and compare with block.merkleRoot.
+ */
+public record EntryProofResponse(
+        long ledgerOffset,
+        String entryHash,
+        int leafIndex,
+        List<Step> path,
+        HashBlockResponse block
+) {
+    // side: where the sibling sits, "left" or "right"
+    public record Step(String sibling, String side) {}
+}
@@ -1,7 +1,13 @@
 package com.paystream.ledgerservice.api;
 
+import com.paystream.ledgerservice.app.SequencerUnavailableException;
+import com.paystream.ledgerservice.domain.InsufficientFundsException;
+import com.paystream.ledgerservice.domain.TransactionConflictException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -10,6 +16,13 @@ import java.util.Map;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+
+    private final int retryAfterSeconds;
+
+    public GlobalExceptionHandler(@Value("${ledger.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, Object> onIAE(IllegalArgumentException ex, HttpServletRequest req) {
@@ -20,4 +33,45 @@ public class GlobalExceptionHandler {
                 "path", req.getRequestURI()
         );
     }
+
+    // Business rejection; transfer-service LedgerClient maps 422 to its own InsufficientFundsException
+    @ExceptionHandler(InsufficientFundsException.class)
+    @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+    public Map<String, Object> onInsufficientFunds(InsufficientFundsException ex, HttpServletRequest req) {
+        return Map.of(
+                "status", 422,
+                "error", "Unprocessable Entity",
+                "message", ex.getMessage(),
+                "path", req.getRequestURI()
+        );
+    }
+
+    // Same txId, different legs: the original booking stands, the repeat is refused
+    @ExceptionHandler(TransactionConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public Map<String, Object> onTransactionConflict(TransactionConflictException ex, HttpServletRequest req) {
+        return Map.of(
+                "status", 409,
+                "error", "Conflict",
+                "message", ex.getMessage(),
+                "path", req.getRequestURI()
+        );
+    }
+
+    // Sequencer back-pressure: same statuses as AdmissionControlFilter, the caller retries with the same txId
+    @ExceptionHandler(SequencerUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> onSequencerUnavailable(SequencerUnavailableException ex,
+                                                                      HttpServletRequest req) {
+        HttpStatus status = ex.reason() == SequencerUnavailableException.Reason.QUEUE_FULL
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(Map.of(
+                        "status", status.value(),
+                        "error", status.getReasonPhrase(),
+                        "message", ex.getMessage(),
+                        "path", req.getRequestURI()
+                ));
+    }
 }
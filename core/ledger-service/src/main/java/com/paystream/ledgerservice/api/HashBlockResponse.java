@@ -0,0 +1,26 @@
+package com.paystream.ledgerservice.api;
+
+import com.paystream.ledgerservice.domain.HashBlock;
+
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+
+// One hash chain block; hashes are lowercase hex. blockHash = sha256(prevHash || from || to || count || merkleRoot)
+public record HashBlockResponse(
+        long blockNo,
+        long fromOffset,
+        long toOffset,
+        int entryCount,
+        String merkleRoot,
+        String prevHash,
+        String blockHash,
+        OffsetDateTime sealedAt,
+        Boolean verifyOk
+) {
+    public static HashBlockResponse of(HashBlock b) {
+        HexFormat hex = HexFormat.of();
+        return new HashBlockResponse(b.blockNo(), b.fromOffset(), b.toOffset(), b.entryCount(),
+                hex.formatHex(b.merkleRoot()), hex.formatHex(b.prevHash()), hex.formatHex(b.blockHash()),
+                b.sealedAt(), b.verifyOk());
+    }
+}
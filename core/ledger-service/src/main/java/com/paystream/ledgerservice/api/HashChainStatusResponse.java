@@ -0,0 +1,8 @@
+package com.paystream.ledgerservice.api;
+
+// Progress of the hash chain jobs (block numbers) and blocks that failed verification
+public record HashChainStatusResponse(
+        long sealedBlocks,
+        long verifiedBlocks,
+        long failedBlocks
+) {}
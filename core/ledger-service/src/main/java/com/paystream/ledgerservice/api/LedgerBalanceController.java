@@ -0,0 +1,48 @@
+package com.paystream.ledgerservice.api;
+
+import com.paystream.ledgerservice.app.BalanceQueryAppService;
+import com.paystream.ledgerservice.infra.cache.HotBalanceCache;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/ledger/accounts")
+@RequiredArgsConstructor
+public class LedgerBalanceController {
+
+    private final BalanceQueryAppService balances;
+    private final HotBalanceCache hotBalances;
+
+    // Balance as of a ledger offset or a point in time; latest if neither is given
+    @GetMapping("/{accountId}/balance")
+    public BalanceAsOfResponse balance(@PathVariable UUID accountId,
+                                       @RequestParam String currency,
+                                       @RequestParam(required = false) Long asOfOffset,
+                                       @RequestParam(required = false)
+                                       @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime asOf) {
+        return balances.balanceAsOf(accountId, currency, asOfOffset, asOf);
+    }
+
+    // Hot path: cached snapshot balance, consistent as of consistentAsOfOffset.
+    // minOffset forces a reload when the cached copy is older than what the caller already saw.
+    @GetMapping("/{accountId}/balance/current")
+    public ResponseEntity<CurrentBalanceResponse> current(@PathVariable UUID accountId,
+                                                          @RequestParam String currency,
+                                                          @RequestParam(required = false) Long minOffset) {
+        Key key = new Key(accountId, currency);
+        var cached = hotBalances.get(key);
+        if (minOffset != null && cached.map(c -> c.asOfLedgerOffset() == null || c.asOfLedgerOffset() < minOffset).orElse(true)) {
+            cached = hotBalances.reload(key);
+        }
+        return cached
+                .map(c -> ResponseEntity.ok(new CurrentBalanceResponse(accountId, currency,
+                        c.balanceMinor(), c.asOfLedgerOffset(), c.asOfAccountSeq())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
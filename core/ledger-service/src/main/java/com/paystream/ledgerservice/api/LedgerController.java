@@ -1,23 +1,38 @@
 package com.paystream.ledgerservice.api;
 
+import com.paystream.ledgerservice.app.GroupCommitSequencer;
 import com.paystream.ledgerservice.app.LedgerTransactionAppService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/v1/ledger")
 @RequiredArgsConstructor
 public class LedgerController {
 
     private final LedgerTransactionAppService app;
+    private final Optional<GroupCommitSequencer> sequencer;   // present when ledger.sequencer.enabled
 
     // Internal-only endpoint to book a transaction containing N entries
     @PostMapping("/transactions")
     @ResponseStatus(HttpStatus.ACCEPTED)
     public void book(@Valid @RequestBody BookTransactionRequest req) {
         // Delegate to the application service; transactional boundary is there
-        app.bookTransaction(req);
+        // (or to the single writer, which group-commits and returns once durable)
+        if (sequencer.isPresent()) {
+            sequencer.get().book(req);
+        } else {
+            app.bookTransaction(req);
+        }
+    }
+
+    // Bulk variant for settlement/payroll files; every item gets its own result
+    @PostMapping("/transactions:batch")
+    public BookBatchResponse bookBatch(@Valid @RequestBody BookBatchRequest req) {
+        return BookBatchResponse.of(app.bookBatch(req.getTransactions()));
     }
 }
@@ -0,0 +1,48 @@
+package com.paystream.ledgerservice.api;
+
+import com.paystream.ledgerservice.app.LedgerEntryQueryAppService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/v1/ledger")
+@RequiredArgsConstructor
+public class LedgerEntryController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final LedgerEntryQueryAppService entries;
+
+    // Keyset page: pass nextAfterOffset back as afterOffset
+    @GetMapping("/entries")
+    public LedgerEntryPageResponse page(@RequestParam(defaultValue = "0") long afterOffset,
+                                        @RequestParam(defaultValue = "1000") int limit,
+                                        @RequestParam(required = false) UUID accountId,
+                                        @RequestParam(required = false) String currency) {
+        return entries.page(afterOffset, limit, accountId, currency);
+    }
+
+    // All legs of one transaction with publish status; 404 until it is booked
+    @GetMapping("/transactions/{txId}")
+    public ResponseEntity<LedgerTransactionResponse> transaction(@PathVariable UUID txId) {
+        return entries.transaction(txId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Full export from afterOffset as NDJSON, streamed row by row
+    @GetMapping("/entries:export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "0") long afterOffset,
+                                                        @RequestParam(required = false) UUID accountId,
+                                                        @RequestParam(required = false) String currency) {
+        StreamingResponseBody body = out -> entries.export(afterOffset, accountId, currency, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+}
@@ -0,0 +1,9 @@
+package com.paystream.ledgerservice.api;
+
+import java.util.List;
+
+// nextAfterOffset: pass back as afterOffset for the next page (unchanged when the page is empty)
+public record LedgerEntryPageResponse(
+        List<LedgerEntryResponse> entries,
+        long nextAfterOffset
+) {}
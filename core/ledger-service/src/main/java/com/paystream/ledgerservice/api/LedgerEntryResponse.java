@@ -0,0 +1,24 @@
+package com.paystream.ledgerservice.api;
+
+import com.paystream.ledgerservice.domain.LedgerEntry;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// One ledger line as exposed by the read/export API
+public record LedgerEntryResponse(
+        UUID entryId,
+        UUID txId,
+        int txSeq,
+        UUID accountId,
+        String currency,
+        long amountMinor,
+        long ledgerOffset,
+        Long accountSeq,
+        OffsetDateTime createdAt
+) {
+    public static LedgerEntryResponse of(LedgerEntry e) {
+        return new LedgerEntryResponse(e.getEntryId(), e.getTxId(), e.getTxSeq(), e.getAccountId(),
+                e.getCurrency(), e.getAmountMinor(), e.getLedgerOffset(), e.getAccountSeq(), e.getCreatedAt());
+    }
+}
@@ -0,0 +1,41 @@
+package com.paystream.ledgerservice.api;
+
+import com.paystream.ledgerservice.app.LedgerProofAppService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/v1/ledger")
+@RequiredArgsConstructor
+public class LedgerProofController {
+
+    private final LedgerProofAppService proofs;
+
+    // Merkle inclusion proof of one entry; 404 until the entry is sealed into a block
+    @GetMapping("/proofs/entries/{ledgerOffset}")
+    public ResponseEntity<EntryProofResponse> entryProof(@PathVariable long ledgerOffset) {
+        return proofs.entryProof(ledgerOffset)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Block headers covering an offset range; check the chain links and recompute roots from an export
+    @GetMapping("/proofs/blocks")
+    public List<HashBlockResponse> blocks(@RequestParam long fromOffset, @RequestParam long toOffset) {
+        return proofs.blocks(fromOffset, toOffset);
+    }
+
+    @GetMapping("/admin/hash-chain")
+    public HashChainStatusResponse status() {
+        return proofs.status();
+    }
+
+    // Full re-verification, resumable: the verifier persists its position after every batch
+    @PostMapping("/admin/hash-chain:reverify")
+    public ResponseEntity<HashChainStatusResponse> reverify() {
+        return ResponseEntity.accepted().body(proofs.reverify());
+    }
+}
@@ -0,0 +1,37 @@
+package com.paystream.ledgerservice.api;
+
+import com.paystream.ledgerservice.domain.LedgerEntry;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// A booked ledger transaction with all its legs; published = every leg reached Kafka
+public record LedgerTransactionResponse(
+        UUID txId,
+        boolean published,
+        List<Leg> entries
+) {
+    public record Leg(
+            UUID entryId,
+            int txSeq,
+            UUID accountId,
+            String currency,
+            long amountMinor,
+            long ledgerOffset,
+            Long accountSeq,
+            OffsetDateTime createdAt,
+            boolean published,
+            OffsetDateTime publishedAt   // null while pending, or when the outbox row is already pruned
+    ) {}
+
+    public static LedgerTransactionResponse of(UUID txId, List<LedgerEntry> entries, Map<UUID, OffsetDateTime> published) {
+        List<Leg> legs = entries.stream()
+                .map(e -> new Leg(e.getEntryId(), e.getTxSeq(), e.getAccountId(), e.getCurrency(),
+                        e.getAmountMinor(), e.getLedgerOffset(), e.getAccountSeq(), e.getCreatedAt(),
+                        published.containsKey(e.getEntryId()), published.get(e.getEntryId())))
+                .toList();
+        return new LedgerTransactionResponse(txId, published.size() == entries.size(), legs);
+    }
+}
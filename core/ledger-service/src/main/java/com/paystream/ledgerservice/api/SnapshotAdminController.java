@@ -0,0 +1,27 @@
+package com.paystream.ledgerservice.api;
+
+import com.paystream.ledgerservice.infra.maintenance.SnapshotRebuildJob;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Internal/admin endpoints for account_snapshots maintenance
+@RestController
+@RequestMapping("/v1/ledger/admin")
+@RequiredArgsConstructor
+public class SnapshotAdminController {
+
+    private final SnapshotRebuildJob rebuild;
+
+    // Starts a rebuild (or returns the one already running); poll the GET for progress
+    @PostMapping("/snapshots:rebuild")
+    public ResponseEntity<SnapshotRebuildJob.Status> startRebuild() {
+        return ResponseEntity.accepted().body(rebuild.start());
+    }
+
+    @GetMapping("/snapshots:rebuild")
+    public ResponseEntity<SnapshotRebuildJob.Status> rebuildStatus() {
+        SnapshotRebuildJob.Status s = rebuild.status();
+        return s == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(s);
+    }
+}
@@ -0,0 +1,60 @@
+package com.paystream.ledgerservice.app;
+
+import com.paystream.ledgerservice.api.BalanceAsOfResponse;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository.Checkpoint;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository.Delta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Historical balances straight from the ledger: nearest checkpoint at or before the
+ * requested point + a bounded delta scan of the account's entries after it.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceQueryAppService {
+
+    private final BalanceCheckpointRepository checkpoints;
+
+    @Transactional(readOnly = true)
+    public BalanceAsOfResponse balanceAsOf(UUID accountId, String currency, Long asOfOffset, OffsetDateTime asOf) {
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("currency is required");
+        }
+        if (asOfOffset != null && asOf != null) {
+            throw new IllegalArgumentException("Use either asOfOffset or asOf, not both");
+        }
+        if (asOfOffset != null && asOfOffset < 0) {
+            throw new IllegalArgumentException("asOfOffset must be >= 0");
+        }
+
+        Checkpoint cp;
+        Delta delta;
+        if (asOf != null) {
+            // Resolved at entry created_at granularity; the scan stops at the next checkpoint
+            cp = checkpoints.latestAtOrBefore(accountId, currency, asOf).orElse(null);
+            delta = checkpoints.deltaAfter(accountId, currency, cp == null ? 0 : cp.ledgerOffset(), asOf);
+        } else {
+            long upTo = asOfOffset == null ? Long.MAX_VALUE : asOfOffset;
+            cp = checkpoints.latestAtOrBefore(accountId, currency, upTo).orElse(null);
+            delta = checkpoints.deltaAfter(accountId, currency, cp == null ? 0 : cp.ledgerOffset(), upTo);
+        }
+
+        long base = cp == null ? 0 : cp.balanceMinor();
+        Long lastOffset = delta.lastOffset() != null ? delta.lastOffset()
+                : cp != null ? Long.valueOf(cp.ledgerOffset()) : null;
+
+        return new BalanceAsOfResponse(
+                accountId,
+                currency,
+                base + delta.sumMinor(),
+                lastOffset,
+                cp == null ? null : cp.ledgerOffset(),
+                delta.entries());
+    }
+}
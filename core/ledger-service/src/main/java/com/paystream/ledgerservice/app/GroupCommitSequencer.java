@@ -0,0 +1,178 @@
+package com.paystream.ledgerservice.app;
+
+import com.paystream.ledgerservice.api.BookBatchResponse;
+import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.domain.InsufficientFundsException;
+import com.paystream.ledgerservice.app.SequencerUnavailableException.Reason;
+import com.paystream.ledgerservice.domain.TransactionConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Single-writer booking mode (ledger.sequencer.enabled).
+ * - HTTP threads validate, enqueue into a bounded queue and wait for their own future.
+ * - One writer thread drains whatever is queued (up to max-batch) and books it as one group:
+ *   one multi-row insert, one outbox batch, one commit. The whole group draws its offsets
+ *   from ledger_offset_seq in that one statement instead of one round trip per request.
+ *   They are not necessarily contiguous: ledger_offset_seq is CACHE 1 (V16), but bookings that
+ *   bypass this writer (the :batch endpoint, other instances) draw from the same sequence
+ *   while the statement runs, and a rolled-back group leaves a hole. Nothing relies on
+ *   contiguity; readers go by the committed watermark.
+ * - Callers are released only after the group has committed (durable), with their own
+ *   per-item outcome; no artificial linger, groups grow with load on their own.
+ * - A full queue, a caller timeout, an interrupt or shutdown surface as
+ *   {@link SequencerUnavailableException} (429/503, retry with the same txId); a group that
+ *   failed inside the writer stays a 500.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.sequencer.enabled", havingValue = "true")
+public class GroupCommitSequencer {
+
+    private record Pending(BookTransactionRequest req, CompletableFuture<Void> done) {}
+
+    private final LedgerTransactionAppService app;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long callerTimeoutMs;
+
+    private final Timer commitTimer;
+    private final DistributionSummary groupSize;
+    private final Map<Reason, Counter> unavailable = new EnumMap<>(Reason.class);
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public GroupCommitSequencer(LedgerTransactionAppService app,
+                                MeterRegistry meters,
+                                @Value("${ledger.sequencer.queue-capacity:10000}") int queueCapacity,
+                                @Value("${ledger.sequencer.max-batch:500}") int maxBatch,
+                                @Value("${ledger.sequencer.caller-timeout-ms:10000}") long callerTimeoutMs) {
+        this.app = app;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.callerTimeoutMs = callerTimeoutMs;
+
+        Gauge.builder("ledger.sequencer.queue.depth", queue, BlockingQueue::size)
+                .description("Booking requests waiting for the writer thread")
+                .register(meters);
+        this.commitTimer = Timer.builder("ledger.sequencer.commit")
+                .description("Time to book and commit one group")
+                .register(meters);
+        this.groupSize = DistributionSummary.builder("ledger.sequencer.group.size")
+                .description("Transactions per group commit")
+                .register(meters);
+        for (Reason reason : Reason.values()) {
+            unavailable.put(reason, Counter.builder("ledger.sequencer.rejected")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(meters));
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeLoop, "ledger-sequencer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(callerTimeoutMs);
+        Pending p;
+        while ((p = queue.poll()) != null) {
+            p.done().completeExceptionally(unavailable(Reason.STOPPED, "Ledger sequencer stopped", null));
+        }
+    }
+
+    /** Books one transaction through the writer thread; returns once its group is durable. */
+    public void book(BookTransactionRequest req) {
+        // Invalid requests never reach the writer (→ 400 straight away)
+        app.validate(req);
+
+        Pending p = new Pending(req, new CompletableFuture<>());
+        if (!queue.offer(p)) {
+            throw unavailable(Reason.QUEUE_FULL, "Ledger sequencer queue is full", null);
+        }
+        try {
+            p.done().get(callerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            // The group may still commit; the caller retries with the same txId (idempotent)
+            throw unavailable(Reason.TIMEOUT, "Timed out waiting for group commit", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw unavailable(Reason.INTERRUPTED, "Interrupted waiting for group commit", ex);
+        }
+    }
+
+    private SequencerUnavailableException unavailable(Reason reason, String message, Throwable cause) {
+        unavailable.get(reason).increment();
+        return new SequencerUnavailableException(reason, message, cause);
+    }
+
+    private void writeLoop() {
+        List<Pending> group = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                group.add(queue.take());
+                queue.drainTo(group, maxBatch - 1);
+                commit(group);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Ledger sequencer group of {} failed", group.size(), ex);
+                group.forEach(p -> p.done().completeExceptionally(ex));
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> group) {
+        List<BookTransactionRequest> reqs = new ArrayList<>(group.size());
+        for (Pending p : group) reqs.add(p.req());
+
+        groupSize.record(group.size());
+        // bookBatch: one DB transaction per chunk, per-item outcome (funds check, duplicates)
+        List<BookBatchResponse.Item> items = commitTimer.record(() -> app.bookBatch(reqs));
+
+        for (int i = 0; i < group.size(); i++) {
+            BookBatchResponse.Item item = items.get(i);
+            CompletableFuture<Void> done = group.get(i).done();
+            switch (item.status()) {
+                case BOOKED, DUPLICATE -> done.complete(null);
+                // Validation already passed before enqueue, so a rejection here is the funds check
+                case REJECTED -> done.completeExceptionally(new InsufficientFundsException(item.message()));
+                case CONFLICT -> done.completeExceptionally(new TransactionConflictException(item.message()));
+                case FAILED -> done.completeExceptionally(new IllegalStateException(item.message()));
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.paystream.ledgerservice.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.ledgerservice.api.LedgerEntryPageResponse;
+import com.paystream.ledgerservice.api.LedgerEntryResponse;
+import com.paystream.ledgerservice.api.LedgerTransactionResponse;
+import com.paystream.ledgerservice.infra.cache.LedgerTxCache;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import com.paystream.ledgerservice.infra.repo.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read/export side of ledger_entries for auditors and the data warehouse.
+ * Both variants are keyset scans on ledger_offset up to the committed watermark, so a client
+ * paging by afterOffset never steps over an offset that commits later; the export streams
+ * through a JDBC cursor and writes NDJSON as rows arrive, so memory stays flat.
+ * Single transactions are served from {@link LedgerTxCache} for status polling.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerEntryQueryAppService {
+
+    static final int MAX_PAGE_SIZE = 10_000;
+
+    private final LedgerEntryRepository entryRepo;
+    private final CommittedWatermarkRepository watermarks;
+    private final ObjectMapper om;
+    private final LedgerTxCache txCache;
+
+    @Value("${ledger.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Transactional(readOnly = true)
+    public LedgerEntryPageResponse page(long afterOffset, int limit, UUID accountId, String currency) {
+        validate(afterOffset);
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        List<LedgerEntryResponse> entries = new ArrayList<>(Math.min(limit, fetchSize));
+        entryRepo.scanAfter(afterOffset, accountId, currency, watermarks.safeOffset(), limit, Math.min(limit, fetchSize),
+                e -> entries.add(LedgerEntryResponse.of(e)));
+
+        long next = entries.isEmpty() ? afterOffset : entries.get(entries.size() - 1).ledgerOffset();
+        return new LedgerEntryPageResponse(entries, next);
+    }
+
+    /** Writes every entry after afterOffset as one JSON object per line. */
+    @Transactional(readOnly = true)
+    public void export(long afterOffset, UUID accountId, String currency, OutputStream out) {
+        validate(afterOffset);
+
+        int[] sinceFlush = {0};
+        entryRepo.scanAfter(afterOffset, accountId, currency, watermarks.safeOffset(), 0, fetchSize, e -> {
+            try {
+                out.write(om.writeValueAsBytes(LedgerEntryResponse.of(e)));
+                out.write('\n');
+                if (++sinceFlush[0] == fetchSize) {
+                    out.flush();
+                    sinceFlush[0] = 0;
+                }
+            } catch (IOException ex) {
+                // Client went away → abort the cursor
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    // No DB transaction here: a cache hit must not borrow a connection
+    public Optional<LedgerTransactionResponse> transaction(UUID txId) {
+        return txCache.get(txId)
+                .map(tx -> LedgerTransactionResponse.of(txId, tx.entries(), tx.published()));
+    }
+
+    private static void validate(long afterOffset) {
+        if (afterOffset < 0) {
+            throw new IllegalArgumentException("afterOffset must be >= 0");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.paystream.ledgerservice.app;
+
+import com.paystream.ledgerservice.api.EntryProofResponse;
+import com.paystream.ledgerservice.api.HashBlockResponse;
+import com.paystream.ledgerservice.api.HashChainStatusResponse;
+import com.paystream.ledgerservice.domain.HashBlock;
+import com.paystream.ledgerservice.domain.MerkleTree;
+import com.paystream.ledgerservice.infra.repo.HashChainRepository;
+import com.paystream.ledgerservice.infra.repo.HashChainRepository.EntryHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read side of the hash chain: inclusion proofs for single entries and the block headers
+ * covering an offset range. Both touch at most one block's entries (a primary-key range scan),
+ * so they stay cheap however long the ledger is.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerProofAppService {
+
+    static final int MAX_BLOCKS = 1000;
+
+    private final HashChainRepository repo;
+
+    /** Empty if the entry does not exist or is not sealed into a block yet. */
+    public Optional<EntryProofResponse> entryProof(long ledgerOffset) {
+        Optional<HashBlock> block = repo.blockContaining(ledgerOffset);
+        if (block.isEmpty()) return Optional.empty();
+
+        HashBlock b = block.get();
+        List<EntryHash> entries = repo.entryHashes(b.fromOffset(), b.toOffset());
+        int index = -1;
+        for (int i = 0; i < entries.size(); i++) {
+            if (entries.get(i).ledgerOffset() == ledgerOffset) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) return Optional.empty();
+
+        HexFormat hex = HexFormat.of();
+        List<EntryProofResponse.Step> path = MerkleTree.proof(entries.stream().map(EntryHash::hash).toList(), index)
+                .stream()
+                .map(s -> new EntryProofResponse.Step(hex.formatHex(s.sibling()), s.left() ? "left" : "right"))
+                .toList();
+        return Optional.of(new EntryProofResponse(ledgerOffset, hex.formatHex(entries.get(index).hash()),
+                index, path, HashBlockResponse.of(b)));
+    }
+
+    /** Chained block headers overlapping [fromOffset, toOffset], at most MAX_BLOCKS. */
+    public List<HashBlockResponse> blocks(long fromOffset, long toOffset) {
+        if (fromOffset < 0 || toOffset < fromOffset) {
+            throw new IllegalArgumentException("Require 0 <= fromOffset <= toOffset");
+        }
+        return repo.blocksCovering(fromOffset, toOffset, MAX_BLOCKS).stream()
+                .map(HashBlockResponse::of)
+                .toList();
+    }
+
+    public HashChainStatusResponse status() {
+        return new HashChainStatusResponse(
+                repo.position(HashChainRepository.SEALER),
+                repo.position(HashChainRepository.VERIFIER),
+                repo.failedBlocks());
+    }
+
+    /** Restarts verification from block 1; the verifier works through the chain in batches. */
+    public HashChainStatusResponse reverify() {
+        repo.savePosition(HashChainRepository.VERIFIER, 0);
+        return status();
+    }
+}
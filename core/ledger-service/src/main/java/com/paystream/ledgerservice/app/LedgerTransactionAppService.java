@@ -2,90 +2,369 @@ package com.paystream.ledgerservice.app;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.common.events.LedgerEntryAppended;
+import com.paystream.common.events.LedgerEntryAppendedCodec;
+import com.paystream.ledgerservice.api.BookBatchResponse;
 import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.domain.InsufficientFundsException;
 import com.paystream.ledgerservice.domain.LedgerEntry;
 import com.paystream.ledgerservice.domain.OutboxRecord;
+import com.paystream.ledgerservice.domain.TransactionConflictException;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
 import com.paystream.ledgerservice.infra.repo.LedgerEntryRepository;
 import com.paystream.ledgerservice.infra.repo.OutboxRepository;
 // import jakarta.validation.ValidationException; // <-- KALDIRILDI
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class LedgerTransactionAppService {
 
     private final LedgerEntryRepository entryRepo;
     private final OutboxRepository outboxRepo;
+    private final TransactionTemplate tx;
     private final ObjectMapper om = new ObjectMapper();
 
+    // Batch endpoint commits this many transactions per DB transaction
+    @Value("${ledger.batch.chunk-size:500}")
+    private int batchChunkSize = 500;
+
+    // Optional funds check: debited accounts may not go below zero (→ 422)
+    @Value("${ledger.balance-check.enabled:false}")
+    private boolean balanceCheck = false;
+
+    // Accounts allowed to go negative (treasury / settlement / funding accounts)
+    @Value("${ledger.balance-check.exempt-accounts:}")
+    private Set<UUID> exemptAccounts = Set.of();
+
+    // FX position / suspense accounts; when set, a transaction may span currencies through them
+    @Value("${ledger.fx.position-accounts:}")
+    private Set<UUID> fxAccounts = Set.of();
+
+    // ledger.entry.appended wire format: json (default) or binary (LedgerEntryAppendedCodec)
+    @Value("${ledger.events.encoding:json}")
+    private String eventEncoding = "json";
+
     @Transactional
     public void bookTransaction(BookTransactionRequest req) {
         // --- 1) Keeping business rules in order ---
         validate(req);
+        List<LedgerEntry> lines = toLines(req);
+
+        // --- 2) Funds check mode: lock the touched balance rows first, in key order ---
+        Map<Key, Long> balances = balanceCheck ? entryRepo.lockBalances(keysOf(lines)) : null;
+
+        // --- 3) Append all lines (append-only) in one statement ---
+        // Lines that already existed are not returned → no outbox for them (idempotency)
+        List<LedgerEntry> inserted = entryRepo.insertAll(lines);
+
+        // A repeat must carry the legs booked the first time; throwing rolls back any extra legs
+        if (!conflictingTxIds(List.of(req), inserted).isEmpty()) {
+            throw new TransactionConflictException(conflictMessage(req.getTxId()));
+        }
+
+        // Only newly inserted lines move the balance, so a replay never fails the check;
+        // throwing here rolls the insert back
+        if (balanceCheck) {
+            String shortfall = applyIfFunded(balances, inserted);
+            if (shortfall != null) throw new InsufficientFundsException(shortfall);
+        }
+
+        // --- 4) Outbox only for new lines, written as one batch ---
+        outboxRepo.insertAll(toEvents(inserted));
+    }
+
+    /**
+     * Books many transactions, committing them in chunks of {@code ledger.batch.chunk-size}.
+     * Each item is validated on its own; invalid items are REJECTED without affecting the rest.
+     * Idempotency is per item on (tx_id, tx_seq): an item whose lines all exist with the same legs
+     * is a DUPLICATE; a repeated txId with different legs is a CONFLICT and writes nothing.
+     * If a chunk fails (DB or otherwise), only that chunk's items are reported as FAILED and the
+     * following chunks are still booked.
+     */
+    public List<BookBatchResponse.Item> bookBatch(List<BookTransactionRequest> reqs) {
+        BookBatchResponse.Item[] results = new BookBatchResponse.Item[reqs.size()];
+
+        List<Integer> chunk = new ArrayList<>(batchChunkSize);
+        for (int i = 0; i < reqs.size(); i++) {
+            BookTransactionRequest req = reqs.get(i);
+            try {
+                validate(req);
+            } catch (IllegalArgumentException ex) {
+                results[i] = new BookBatchResponse.Item(i, req == null ? null : req.getTxId(),
+                        BookBatchResponse.Status.REJECTED, ex.getMessage());
+                continue;
+            }
+            chunk.add(i);
+            if (chunk.size() == batchChunkSize) {
+                bookChunk(reqs, chunk, results);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            bookChunk(reqs, chunk, results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private record ChunkOutcome(Set<UUID> bookedTxIds, List<BookBatchResponse.Item> refused) {}
+
+    private void bookChunk(List<BookTransactionRequest> reqs, List<Integer> chunk,
+                           BookBatchResponse.Item[] results) {
+        // The same txId twice in one chunk: later copies must match the first one
+        List<Integer> pending = new ArrayList<>(chunk.size());
+        Map<UUID, List<Leg>> firstLegs = new HashMap<>();
+        for (int i : chunk) {
+            List<Leg> legs = legsOf(reqs.get(i));
+            List<Leg> first = firstLegs.putIfAbsent(reqs.get(i).getTxId(), legs);
+            if (first != null && !first.equals(legs)) {
+                results[i] = new BookBatchResponse.Item(i, reqs.get(i).getTxId(),
+                        BookBatchResponse.Status.CONFLICT, "txId repeated in this batch with different entries");
+            } else {
+                pending.add(i);
+            }
+        }
+
+        // A conflicting repeat or (in funds check mode) an overdrawing item rolls the chunk back;
+        // it is then refused and the rest is retried. Every retry drops at least one item.
+        while (!pending.isEmpty()) {
+            List<LedgerEntry> lines = new ArrayList<>();
+            for (int i : pending) {
+                lines.addAll(toLines(reqs.get(i)));
+            }
+
+            ChunkOutcome outcome;
+            try {
+                // One multi-row insert + one outbox batch for the whole chunk
+                outcome = tx.execute(status -> {
+                    Map<Key, Long> balances = balanceCheck ? entryRepo.lockBalances(keysOf(lines)) : null;
+                    List<LedgerEntry> inserted = entryRepo.insertAll(lines);
+
+                    Set<UUID> conflicts = conflictingTxIds(pending.stream().map(reqs::get).toList(), inserted);
+                    if (!conflicts.isEmpty()) {
+                        status.setRollbackOnly();
+                        return new ChunkOutcome(Set.of(), pending.stream()
+                                .filter(i -> conflicts.contains(reqs.get(i).getTxId()))
+                                .map(i -> new BookBatchResponse.Item(i, reqs.get(i).getTxId(),
+                                        BookBatchResponse.Status.CONFLICT, conflictMessage(reqs.get(i).getTxId())))
+                                .toList());
+                    }
+                    if (balanceCheck) {
+                        List<Integer> overdrawn = overdrawnItems(reqs, pending, balances, inserted);
+                        if (!overdrawn.isEmpty()) {
+                            status.setRollbackOnly();
+                            return new ChunkOutcome(Set.of(), overdrawn.stream()
+                                    .map(i -> new BookBatchResponse.Item(i, reqs.get(i).getTxId(),
+                                            BookBatchResponse.Status.REJECTED, "Insufficient funds"))
+                                    .toList());
+                        }
+                    }
+                    outboxRepo.insertAll(toEvents(inserted));
+                    return new ChunkOutcome(
+                            inserted.stream().map(LedgerEntry::getTxId).collect(Collectors.toSet()), List.of());
+                });
+            } catch (RuntimeException ex) {
+                // Anything thrown inside the chunk (DB, serialization, a bug) fails only this chunk
+                log.error("Ledger batch chunk failed, {} items rolled back", pending.size(), ex);
+                for (int i : pending) {
+                    results[i] = new BookBatchResponse.Item(i, reqs.get(i).getTxId(),
+                            BookBatchResponse.Status.FAILED,
+                            "Chunk rolled back: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+                }
+                return;
+            }
+
+            if (!outcome.refused().isEmpty()) {
+                for (BookBatchResponse.Item item : outcome.refused()) {
+                    results[item.index()] = item;
+                    pending.remove(Integer.valueOf(item.index()));
+                }
+                continue;
+            }
+
+            // The same txId twice in one file: only the first occurrence is BOOKED
+            Set<UUID> bookedTxIds = new HashSet<>(outcome.bookedTxIds());
+            for (int i : pending) {
+                UUID txId = reqs.get(i).getTxId();
+                boolean first = bookedTxIds.remove(txId);
+                results[i] = new BookBatchResponse.Item(i, txId,
+                        first ? BookBatchResponse.Status.BOOKED : BookBatchResponse.Status.DUPLICATE, null);
+            }
+            return;
+        }
+    }
 
-        // --- 2) Append records (append-only) and sum the given offsets ---
+    private record Leg(UUID accountId, String currency, long amountMinor) {}
+
+    private static List<Leg> legsOf(BookTransactionRequest req) {
+        return req.getEntries().stream()
+                .map(e -> new Leg(e.getAccountId(), e.getCurrency(), e.getAmountMinor()))
+                .toList();
+    }
+
+    /**
+     * txIds whose repeat does not match the stored booking: some of their lines were new and some
+     * were not (the stored booking had fewer legs), or none were new and the stored legs differ.
+     * Queries ledger_entries only when the input contains a replay.
+     */
+    private Set<UUID> conflictingTxIds(List<BookTransactionRequest> reqs, List<LedgerEntry> inserted) {
+        Map<UUID, Long> newLines = inserted.stream()
+                .collect(Collectors.groupingBy(LedgerEntry::getTxId, Collectors.counting()));
+        Set<UUID> conflicts = new HashSet<>();
+        Map<UUID, List<Leg>> replays = new HashMap<>();
+        for (BookTransactionRequest req : reqs) {
+            long fresh = newLines.getOrDefault(req.getTxId(), 0L);
+            if (fresh == req.getEntries().size()) continue; // booked now; copies in the chunk match it
+            if (fresh > 0) conflicts.add(req.getTxId());
+            else replays.put(req.getTxId(), legsOf(req));
+        }
+        if (!replays.isEmpty()) {
+            Map<UUID, List<Leg>> stored = entryRepo.findByTxIds(replays.keySet()).stream()
+                    .collect(Collectors.groupingBy(LedgerEntry::getTxId, Collectors.mapping(
+                            e -> new Leg(e.getAccountId(), e.getCurrency(), e.getAmountMinor()), Collectors.toList())));
+            replays.forEach((txId, legs) -> {
+                if (!legs.equals(stored.get(txId))) conflicts.add(txId);
+            });
+        }
+        return conflicts;
+    }
+
+    private static String conflictMessage(UUID txId) {
+        return "Transaction " + txId + " was already booked with different entries";
+    }
+
+    // Walks the chunk in request order against the locked balances; returns the items that would overdraw
+    private List<Integer> overdrawnItems(List<BookTransactionRequest> reqs, List<Integer> pending,
+                                         Map<Key, Long> balances, List<LedgerEntry> inserted) {
+        Map<UUID, List<LedgerEntry>> newLinesByTx = inserted.stream()
+                .collect(Collectors.groupingBy(LedgerEntry::getTxId));
+        List<Integer> overdrawn = new ArrayList<>();
+        for (int i : pending) {
+            // remove: a repeated txId only counts once; duplicates of booked txs have no new lines
+            List<LedgerEntry> newLines = newLinesByTx.remove(reqs.get(i).getTxId());
+            if (newLines != null && applyIfFunded(balances, newLines) != null) {
+                overdrawn.add(i);
+            }
+        }
+        return overdrawn;
+    }
+
+    /**
+     * Applies the net movement of {@code newLines} to {@code balances} if no non-exempt account
+     * ends up negative. Returns null on success, otherwise a message and leaves balances untouched.
+     */
+    private String applyIfFunded(Map<Key, Long> balances, List<LedgerEntry> newLines) {
+        Map<Key, Long> net = new HashMap<>();
+        for (LedgerEntry e : newLines) {
+            net.merge(new Key(e.getAccountId(), e.getCurrency()), e.getAmountMinor(), Long::sum);
+        }
+        for (Map.Entry<Key, Long> m : net.entrySet()) {
+            Key key = m.getKey();
+            long available = balances.getOrDefault(key, 0L);
+            if (m.getValue() < 0 && available + m.getValue() < 0 && !exemptAccounts.contains(key.accountId())) {
+                return "Insufficient funds on account " + key.accountId() + " (" + key.currency()
+                        + "): available " + available + ", requested " + (-m.getValue());
+            }
+        }
+        net.forEach((key, delta) -> balances.merge(key, delta, Long::sum));
+        return null;
+    }
+
+    // Credited accounts are locked too: insertAll upserts every touched row in the same order,
+    // so locking only the debited ones could deadlock against a booking in the other direction
+    private static Set<Key> keysOf(List<LedgerEntry> lines) {
+        Set<Key> keys = new HashSet<>();
+        for (LedgerEntry e : lines) {
+            keys.add(new Key(e.getAccountId(), e.getCurrency()));
+        }
+        return keys;
+    }
+
+    private List<LedgerEntry> toLines(BookTransactionRequest req) {
         int seq = 0;
-        // ...
+        List<LedgerEntry> lines = new ArrayList<>(req.getEntries().size());
         for (BookTransactionRequest.Entry line : req.getEntries()) {
-            LedgerEntry e = LedgerEntry.builder()
+            lines.add(LedgerEntry.builder()
                     .entryId(UUID.randomUUID())
                     .txId(req.getTxId())
                     .txSeq(seq++)
                     .accountId(line.getAccountId())
                     .currency(line.getCurrency())
                     .amountMinor(line.getAmountMinor())
-                    .build();
-
-            var result = entryRepo.upsert(e); // <-- insert yerine upsert kullan
-
-            if (!result.inserted()) {
-                // zaten vardı → outbox YAZMA (idempotency)
-                continue;
-            }
-
-            // --- outbox sadece yeni kayıt için ---
-            Map<String, Object> payload = new LinkedHashMap<>();
-            payload.put("eventId", UUID.randomUUID().toString());
-            payload.put("txId", e.getTxId().toString());
-            payload.put("entryId", e.getEntryId().toString());
-            payload.put("ledgerOffset", e.getLedgerOffset());
-            payload.put("accountId", e.getAccountId().toString());
-            payload.put("currency", e.getCurrency());
-            payload.put("amountMinor", e.getAmountMinor());
-            payload.put("occurredAt", Date.from(e.getCreatedAt().toInstant()));
+                    .build());
+        }
+        return lines;
+    }
 
-            try {
-                outboxRepo.insert(OutboxRecord.builder()
-                        .id(UUID.randomUUID())
-                        .eventType("ledger.entry.appended")
-                        .keyAccountId(e.getAccountId())
-                        .payload(om.writeValueAsString(payload))
-                        .build());
-            } catch (JsonProcessingException ex) {
-                throw new IllegalStateException("Failed to serialize event payload", ex);
+    private List<OutboxRecord> toEvents(List<LedgerEntry> inserted) {
+        boolean binary = "binary".equalsIgnoreCase(eventEncoding);
+        List<OutboxRecord> events = new ArrayList<>(inserted.size());
+        for (LedgerEntry e : inserted) {
+            OutboxRecord.OutboxRecordBuilder rec = OutboxRecord.builder()
+                    .id(UUID.randomUUID())
+                    .eventType("ledger.entry.appended")
+                    .keyAccountId(e.getAccountId())
+                    .entryId(e.getEntryId());
+            if (binary) {
+                rec.payloadBytes(LedgerEntryAppendedCodec.encode(toEvent(e)))
+                   .contentType(LedgerEntryAppendedCodec.BINARY);
+            } else {
+                rec.payload(toPayload(e));
             }
+            events.add(rec.build());
         }
+        return events;
+    }
+
+    private static LedgerEntryAppended toEvent(LedgerEntry e) {
+        return new LedgerEntryAppended(
+                UUID.randomUUID(), e.getTxId(), e.getEntryId(), e.getLedgerOffset(), e.getAccountSeq(),
+                e.getAccountId(), e.getCurrency(), e.getAmountMinor(), e.getCreatedAt().toInstant().toEpochMilli());
+    }
 
+    private String toPayload(LedgerEntry e) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventId", UUID.randomUUID().toString());
+        payload.put("txId", e.getTxId().toString());
+        payload.put("entryId", e.getEntryId().toString());
+        payload.put("ledgerOffset", e.getLedgerOffset());
+        payload.put("accountSeq", e.getAccountSeq());
+        payload.put("accountId", e.getAccountId().toString());
+        payload.put("currency", e.getCurrency());
+        payload.put("amountMinor", e.getAmountMinor());
+        payload.put("occurredAt", Date.from(e.getCreatedAt().toInstant()));
 
+        try {
+            return om.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize event payload", ex);
+        }
     }
 
-    // Basic invariants: at least one row, single currency, non-0 amounts, total = 0
-    private void validate(BookTransactionRequest req) {
+    // Basic invariants: at least one row, non-0 amounts, total = 0 per currency;
+    // more than one currency only via the configured FX position accounts
+    void validate(BookTransactionRequest req) {
         if (req == null || req.getEntries() == null || req.getEntries().isEmpty()) {
             throw new IllegalArgumentException("At least one entry is required");
         }
 
-        // All currency fields must be the same (single currency transaction)
-        String currency = req.getEntries().get(0).getCurrency();
-        boolean sameCurrency = req.getEntries().stream()
-                .allMatch(e -> Objects.equals(currency, e.getCurrency()));
-        if (!sameCurrency) {
-            throw new IllegalArgumentException("All entries must have the same currency");
+        if (req.getTxId() == null) {
+            throw new IllegalArgumentException("txId is required");
+        }
+        boolean complete = req.getEntries().stream().allMatch(e -> e != null
+                && e.getAccountId() != null && e.getCurrency() != null && e.getAmountMinor() != null);
+        if (!complete) {
+            throw new IllegalArgumentException("Each entry requires accountId, currency and amountMinor");
         }
 
         // No amount should be 0
@@ -94,11 +373,29 @@ public class LedgerTransactionAppService {
             throw new IllegalArgumentException("Entry amount must be non-zero");
         }
 
-        // Double-entry accounting: signed sum must be 0
-        long sum = req.getEntries().stream()
-                .collect(Collectors.summingLong(BookTransactionRequest.Entry::getAmountMinor));
-        if (sum != 0) {
-            throw new IllegalArgumentException("Signed amounts must sum to zero");
+        Map<String, List<BookTransactionRequest.Entry>> byCurrency = req.getEntries().stream()
+                .collect(Collectors.groupingBy(BookTransactionRequest.Entry::getCurrency, TreeMap::new, Collectors.toList()));
+
+        // Cross-currency: every currency leg must go through an FX position account,
+        // e.g. customer TRY → FX(TRY) and FX(USD) → customer USD in one commit
+        if (byCurrency.size() > 1) {
+            if (fxAccounts.isEmpty()) {
+                throw new IllegalArgumentException("All entries must have the same currency");
+            }
+            byCurrency.forEach((currency, legs) -> {
+                boolean viaFx = legs.stream().anyMatch(e -> fxAccounts.contains(e.getAccountId()));
+                if (!viaFx) {
+                    throw new IllegalArgumentException("Currency " + currency + " has no FX position account leg");
+                }
+            });
         }
+
+        // Double-entry accounting: signed sum must be 0 in every currency
+        byCurrency.forEach((currency, legs) -> {
+            long sum = legs.stream().mapToLong(BookTransactionRequest.Entry::getAmountMinor).sum();
+            if (sum != 0) {
+                throw new IllegalArgumentException("Signed amounts must sum to zero per currency (" + currency + ": " + sum + ")");
+            }
+        });
     }
 }
@@ -0,0 +1,31 @@
+package com.paystream.ledgerservice.app;
+
+/**
+ * The group-commit sequencer did not take or finish a booking in time (→ 429/503 with Retry-After).
+ * Nothing tells the caller the transaction failed: a retry with the same txId is always safe,
+ * because a booking that did commit comes back as a duplicate.
+ */
+public class SequencerUnavailableException extends RuntimeException {
+
+    public enum Reason {
+        QUEUE_FULL,   // never enqueued → 429
+        TIMEOUT,      // enqueued, group not committed within caller-timeout-ms → 503
+        INTERRUPTED,  // caller thread interrupted while waiting → 503
+        STOPPED       // instance shutting down → 503
+    }
+
+    private final Reason reason;
+
+    public SequencerUnavailableException(Reason reason, String message) {
+        this(reason, message, null);
+    }
+
+    public SequencerUnavailableException(Reason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason reason() {
+        return reason;
+    }
+}
@@ -17,7 +17,7 @@ public class LedgerDtoMapper {
                 .txId(txId)                     // correlates all lines of the same business transaction
                 .txSeq(seq)                     // in-transaction order; (tx_id, tx_seq) is UNIQUE in DB
                 .accountId(in.getAccountId())   // target account for this line
-                .currency(in.getCurrency())     // single-currency invariant is validated at app layer
+                .currency(in.getCurrency())     // per-currency zero-sum / FX rules are validated at app layer
                 .amountMinor(in.getAmountMinor()) // signed minor units: +debit, -credit
                 .build();                       // createdAt & ledgerOffset will be set by DB/application later
     }
@@ -1,6 +1,7 @@
 package com.paystream.ledgerservice.config;
 
 import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -9,11 +10,20 @@ import org.springframework.kafka.config.TopicBuilder;
 public class KafkaTopicsConfig {
 
     @Bean
-    public NewTopic ledgerEntryAppended() {
+    public NewTopic ledgerEntryAppended(@Value("${ledger.events.partitions:6}") int partitions) {
         // Creates the topic if it does not exist (requires KafkaAdmin auto-config)
         return TopicBuilder.name("ledger.entry.appended")
-                .partitions(6)   // choose your partition count
+                .partitions(partitions)
                 .replicas(1)     // single-broker dev setup
                 .build();
     }
+
+    @Bean
+    public NewTopic ledgerReconciliationMismatch() {
+        // One event per account whose projection drifted from the ledger (LedgerReconciler)
+        return TopicBuilder.name("ledger.reconciliation.mismatch")
+                .partitions(3)
+                .replicas(1)
+                .build();
+    }
 }
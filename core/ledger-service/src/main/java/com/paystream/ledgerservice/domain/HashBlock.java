@@ -0,0 +1,38 @@
+package com.paystream.ledgerservice.domain;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.time.OffsetDateTime;
+
+/**
+ * One sealed range of the hash chain (ledger_hash_blocks): entries with
+ * fromOffset <= ledger_offset <= toOffset, their Merkle root and the link to the previous block.
+ */
+public record HashBlock(
+        long blockNo,
+        long fromOffset,
+        long toOffset,
+        int entryCount,
+        byte[] merkleRoot,
+        byte[] prevHash,
+        byte[] blockHash,
+        OffsetDateTime sealedAt,
+        Boolean verifyOk       // null until the verifier has checked the block
+) {
+    /** prev_hash of block 1. */
+    public static final byte[] GENESIS = new byte[32];
+
+    public static byte[] hash(byte[] prevHash, long fromOffset, long toOffset, int entryCount, byte[] merkleRoot) {
+        MessageDigest md = MerkleTree.sha256();
+        md.update(prevHash);
+        md.update(ByteBuffer.allocate(20).putLong(fromOffset).putLong(toOffset).putInt(entryCount).array());
+        md.update(merkleRoot);
+        return md.digest();
+    }
+
+    /** Whether blockHash matches the block's own fields and the given predecessor hash. */
+    public boolean linksTo(byte[] expectedPrevHash) {
+        return MessageDigest.isEqual(prevHash, expectedPrevHash)
+                && MessageDigest.isEqual(blockHash, hash(prevHash, fromOffset, toOffset, entryCount, merkleRoot));
+    }
+}
@@ -0,0 +1,8 @@
+package com.paystream.ledgerservice.domain;
+
+/** A booking would take a debited account below zero while the funds check is enabled (→ 422). */
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(String message) {
+        super(message);
+    }
+}
@@ -30,6 +30,9 @@ public class LedgerEntry {
     // Assigned by DB at insert time from a global sequence; defines total ordering
     private Long ledgerOffset;
 
+    // Gapless per (account, currency) sequence assigned at booking; null for legacy rows
+    private Long accountSeq;
+
     // Server timestamp when inserted
     private OffsetDateTime createdAt;
 }
@@ -0,0 +1,95 @@
+package com.paystream.ledgerservice.domain;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary SHA-256 Merkle tree over entry hashes in ledger_offset order.
+ * Leaves are sha256(0x00 || entryHash) and inner nodes sha256(0x01 || left || right), so a leaf
+ * can never be passed off as an inner node; an unpaired last node is promoted unchanged.
+ */
+public final class MerkleTree {
+
+    /** One step of an inclusion proof: the sibling hash and whether it sits on the left. */
+    public record Step(byte[] sibling, boolean left) {}
+
+    private MerkleTree() {}
+
+    public static byte[] root(List<byte[]> entryHashes) {
+        if (entryHashes.isEmpty()) {
+            throw new IllegalArgumentException("Merkle root of an empty range");
+        }
+        List<byte[]> level = leaves(entryHashes);
+        while (level.size() > 1) {
+            level = parents(level);
+        }
+        return level.get(0);
+    }
+
+    /** Path from the leaf at index up to (excluding) the root. */
+    public static List<Step> proof(List<byte[]> entryHashes, int index) {
+        if (index < 0 || index >= entryHashes.size()) {
+            throw new IllegalArgumentException("Leaf index out of range: " + index);
+        }
+        List<Step> path = new ArrayList<>();
+        List<byte[]> level = leaves(entryHashes);
+        int i = index;
+        while (level.size() > 1) {
+            int sibling = i ^ 1;
+            if (sibling < level.size()) {
+                path.add(new Step(level.get(sibling), sibling < i));
+            }
+            level = parents(level);
+            i /= 2;
+        }
+        return path;
+    }
+
+    /** Root implied by an entry hash and its proof; equal to the block's merkle_root if included. */
+    public static byte[] rootFromProof(byte[] entryHash, List<Step> path) {
+        byte[] node = leaf(entryHash);
+        for (Step s : path) {
+            node = s.left() ? node(s.sibling(), node) : node(node, s.sibling());
+        }
+        return node;
+    }
+
+    private static List<byte[]> leaves(List<byte[]> entryHashes) {
+        List<byte[]> out = new ArrayList<>(entryHashes.size());
+        for (byte[] h : entryHashes) out.add(leaf(h));
+        return out;
+    }
+
+    private static List<byte[]> parents(List<byte[]> level) {
+        List<byte[]> up = new ArrayList<>((level.size() + 1) / 2);
+        for (int i = 0; i < level.size(); i += 2) {
+            up.add(i + 1 < level.size() ? node(level.get(i), level.get(i + 1)) : level.get(i));
+        }
+        return up;
+    }
+
+    private static byte[] leaf(byte[] entryHash) {
+        MessageDigest md = sha256();
+        md.update((byte) 0x00);
+        md.update(entryHash);
+        return md.digest();
+    }
+
+    private static byte[] node(byte[] left, byte[] right) {
+        MessageDigest md = sha256();
+        md.update((byte) 0x01);
+        md.update(left);
+        md.update(right);
+        return md.digest();
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+}
@@ -18,9 +18,19 @@ public class OutboxRecord {
     // Kafka partition key; we choose accountId to ensure in-partition ordering per account
     private UUID keyAccountId;
 
+    // Ledger entry behind a ledger.entry.appended row (publish status lookups); null otherwise
+    private UUID entryId;
+
     // Serialized event payload (typically JSON)
     private String payload;
 
+    // Compact binary payload; set instead of payload when contentType is not JSON
+    private byte[] payloadBytes;
+
+    // Sent as the Kafka content-type header so consumers can pick the decoder
+    @Builder.Default
+    private String contentType = "application/json";
+
     // Timestamps for tracing and relay state
     private OffsetDateTime createdAt;
     private OffsetDateTime publishedAt;
@@ -0,0 +1,8 @@
+package com.paystream.ledgerservice.domain;
+
+/** A txId that is already booked came back with different entries (→ 409); nothing is written. */
+public class TransactionConflictException extends RuntimeException {
+    public TransactionConflictException(String message) {
+        super(message);
+    }
+}
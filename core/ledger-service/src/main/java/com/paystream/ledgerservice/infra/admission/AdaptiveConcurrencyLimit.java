@@ -0,0 +1,142 @@
+package com.paystream.ledgerservice.infra.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-flight limit that adapts to latency (gradient style, after Netflix concurrency-limits' Gradient2).
+ *
+ * Two moving averages of request latency are kept: a short one (current RTT) and a long one
+ * (the no-load baseline). Their ratio is the gradient: ~1 when latency is at baseline, below 1
+ * when requests queue up in Tomcat/Hikari/Postgres. Each sample moves the limit towards
+ * {@code limit * gradient + sqrt(limit)}, so it shrinks as soon as latency climbs and probes
+ * upwards by a small headroom while latency stays flat.
+ *
+ * Callers over the limit wait in a bounded queue for at most the given time; a full queue or an
+ * expired wait is a rejection, never an unbounded pile-up.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;     // latency may grow 50% over baseline before shrinking
+    private static final double SMOOTHING = 0.2;     // share of the new estimate per sample
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+    private static final double LONG_ALPHA = 2.0 / (600 + 1);
+
+    public enum Outcome { ADMITTED, QUEUE_FULL, TIMED_OUT }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueCapacity;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private double shortRttNanos;
+    private double longRttNanos;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, int queueCapacity) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Require 1 <= min <= initial <= max limit");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /** Takes a slot, waiting up to maxWait in the queue if the limit is reached. */
+    public Outcome acquire(long maxWait, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                return Outcome.ADMITTED;
+            }
+            if (waiting >= queueCapacity) return Outcome.QUEUE_FULL;
+
+            long remaining = unit.toNanos(maxWait);
+            waiting++;
+            try {
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) return Outcome.TIMED_OUT;
+                    remaining = slotFreed.awaitNanos(remaining);
+                }
+                inFlight++;
+                return Outcome.ADMITTED;
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the slot and feeds the request's latency into the limit.
+     *
+     * @param inFlightAtStart in-flight count seen when the request was admitted; samples taken
+     *                        while far below the limit say nothing about capacity and cannot grow it
+     */
+    public void release(long rttNanos, int inFlightAtStart) {
+        lock.lock();
+        try {
+            inFlight--;
+            sample(Math.max(1, rttNanos), inFlightAtStart);
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sample(long rtt, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            shortRttNanos = longRttNanos = rtt;
+            return;
+        }
+        shortRttNanos += SHORT_ALPHA * (rtt - shortRttNanos);
+        longRttNanos += LONG_ALPHA * (rtt - longRttNanos);
+        // Sustained overload would drag the baseline up with it; pull it back towards current
+        if (longRttNanos > 2 * shortRttNanos) {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        if (target > limit && inFlightAtStart < limit / 2) {
+            return; // app-limited: no evidence that more concurrency would be served well
+        }
+        double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int waiting() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
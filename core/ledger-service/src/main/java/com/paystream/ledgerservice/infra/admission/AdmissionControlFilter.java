@@ -0,0 +1,130 @@
+package com.paystream.ledgerservice.infra.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.ledgerservice.infra.admission.AdaptiveConcurrencyLimit.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the booking endpoints (POST /v1/ledger/transactions[:batch]).
+ *
+ * Requests beyond the adaptive in-flight limit wait briefly in a bounded queue; when that queue
+ * is full they get 429 at once, and when the wait expires they get 503. Both carry Retry-After.
+ * Shedding at the door keeps Tomcat threads and Hikari connections for the requests already
+ * admitted, so their latency stays bounded instead of everything timing out together.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "ledger.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final String BOOKING_PATH = "/v1/ledger/transactions";
+
+    private final AdaptiveConcurrencyLimit limit;
+    private final ObjectMapper om;
+    private final long maxWaitMs;
+    private final int retryAfterSeconds;
+
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Timer queueWait;
+
+    public AdmissionControlFilter(ObjectMapper om,
+                                  MeterRegistry meters,
+                                  @Value("${ledger.admission.initial-limit:32}") int initialLimit,
+                                  @Value("${ledger.admission.min-limit:4}") int minLimit,
+                                  @Value("${ledger.admission.max-limit:200}") int maxLimit,
+                                  @Value("${ledger.admission.queue-capacity:100}") int queueCapacity,
+                                  @Value("${ledger.admission.max-wait-ms:200}") long maxWaitMs,
+                                  @Value("${ledger.admission.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, queueCapacity);
+        this.om = om;
+        this.maxWaitMs = maxWaitMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("ledger.admission.limit", limit, AdaptiveConcurrencyLimit::limit)
+                .description("Current adaptive in-flight limit for booking requests")
+                .register(meters);
+        Gauge.builder("ledger.admission.inflight", limit, AdaptiveConcurrencyLimit::inFlight)
+                .register(meters);
+        Gauge.builder("ledger.admission.queue.depth", limit, AdaptiveConcurrencyLimit::waiting)
+                .description("Booking requests waiting for an in-flight slot")
+                .register(meters);
+        this.rejectedQueueFull = Counter.builder("ledger.admission.rejected").tag("reason", "queue_full").register(meters);
+        this.rejectedTimeout = Counter.builder("ledger.admission.rejected").tag("reason", "timeout").register(meters);
+        this.queueWait = Timer.builder("ledger.admission.queue.wait")
+                .description("Time admitted requests spent waiting for a slot")
+                .register(meters);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod()) || !request.getRequestURI().startsWith(BOOKING_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long waitStart = System.nanoTime();
+        Outcome outcome;
+        try {
+            outcome = limit.acquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            outcome = Outcome.TIMED_OUT;
+        }
+
+        if (outcome == Outcome.QUEUE_FULL) {
+            rejectedQueueFull.increment();
+            reject(request, response, HttpStatus.TOO_MANY_REQUESTS, "Ledger is at capacity, retry later");
+            return;
+        }
+        if (outcome == Outcome.TIMED_OUT) {
+            rejectedTimeout.increment();
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, "Ledger is overloaded, retry later");
+            return;
+        }
+
+        long start = System.nanoTime();
+        queueWait.record(start - waitStart, TimeUnit.NANOSECONDS);
+        int inFlightAtStart = limit.inFlight();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limit.release(System.nanoTime() - start, inFlightAtStart);
+        }
+    }
+
+    // Same body shape as GlobalExceptionHandler
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        log.debug("Booking request shed with {} (limit={}, inflight={})", status.value(), limit.limit(), limit.inFlight());
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        om.writeValue(response.getOutputStream(), Map.of(
+                "status", status.value(),
+                "error", status.getReasonPhrase(),
+                "message", message,
+                "path", request.getRequestURI()
+        ));
+    }
+}
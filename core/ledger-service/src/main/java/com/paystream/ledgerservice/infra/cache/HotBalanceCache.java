@@ -0,0 +1,71 @@
+package com.paystream.ledgerservice.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of (accountId, currency) → balance, loaded from account_snapshots
+ * on a miss and then advanced in place by ledger.entry.appended events.
+ *
+ * An event is only folded in if its accountSeq is exactly the next one; older events are
+ * ignored and a gap (or a legacy event without seq) drops the entry so the next read reloads it.
+ * The TTL bounds staleness if the event stream itself stops.
+ */
+@Component
+public class HotBalanceCache {
+
+    public record CachedBalance(long balanceMinor, Long asOfLedgerOffset, Long asOfAccountSeq) {}
+
+    private final AccountSnapshotRepository snapshots;
+    private final Cache<Key, CachedBalance> cache;
+
+    public HotBalanceCache(AccountSnapshotRepository snapshots,
+                           MeterRegistry meters,
+                           @Value("${ledger.balance-cache.max-size:100000}") long maxSize,
+                           @Value("${ledger.balance-cache.ttl:PT5M}") Duration ttl) {
+        this.snapshots = snapshots;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{cache=ledger.balance.cache,result=hit|miss}, cache.evictions, cache.size, ... (tag, not prefix)
+        CaffeineCacheMetrics.monitor(meters, cache, "ledger.balance.cache");
+    }
+
+    /** Cached balance, loaded from the snapshot on a miss; empty if the account has no snapshot yet. */
+    public Optional<CachedBalance> get(Key key) {
+        return Optional.ofNullable(cache.get(key, k -> snapshots.find(k)
+                .map(s -> new CachedBalance(s.balanceMinor(), s.asOfLedgerOffset(), s.asOfAccountSeq()))
+                .orElse(null)));
+    }
+
+    /** Drops the entry and reloads it from the snapshot (used when a caller needs a newer offset). */
+    public Optional<CachedBalance> reload(Key key) {
+        cache.invalidate(key);
+        return get(key);
+    }
+
+    public void apply(Key key, long amountMinor, long ledgerOffset, Long accountSeq) {
+        if (accountSeq == null) {
+            cache.invalidate(key);
+            return;
+        }
+        cache.asMap().computeIfPresent(key, (k, cur) -> {
+            long applied = cur.asOfAccountSeq() == null ? 0 : cur.asOfAccountSeq();
+            if (accountSeq <= applied) return cur;       // already included
+            if (accountSeq != applied + 1) return null;  // gap → evict, reload on next read
+            long offset = cur.asOfLedgerOffset() == null ? ledgerOffset : Math.max(cur.asOfLedgerOffset(), ledgerOffset);
+            return new CachedBalance(cur.balanceMinor() + amountMinor, offset, accountSeq);
+        });
+    }
+}
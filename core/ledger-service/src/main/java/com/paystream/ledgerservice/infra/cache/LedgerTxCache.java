@@ -0,0 +1,87 @@
+package com.paystream.ledgerservice.infra.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.paystream.ledgerservice.domain.LedgerEntry;
+import com.paystream.ledgerservice.infra.repo.LedgerEntryRepository;
+import com.paystream.ledgerservice.infra.repo.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * In-process txId → legs cache for transaction status polling.
+ *
+ * All legs of a transaction commit together and never change afterwards, so once a tx has been
+ * read its legs are cached without invalidation (size-bounded only). Publish status is the one
+ * moving part: while any leg is still in the outbox, only those legs are re-checked on each read;
+ * once everything is published the entry is final and reads stop touching Postgres.
+ * Unknown txIds are not cached, so a tx booked right after a 404 is visible on the next poll.
+ */
+@Component
+public class LedgerTxCache {
+
+    /** published: entryId → publish time; legs missing from the map are still pending. */
+    public record CachedTx(List<LedgerEntry> entries, Map<UUID, OffsetDateTime> published) {
+        public boolean fullyPublished() {
+            return published.size() == entries.size();
+        }
+    }
+
+    private final LedgerEntryRepository entryRepo;
+    private final OutboxRepository outboxRepo;
+    private final Cache<UUID, CachedTx> cache;
+
+    public LedgerTxCache(LedgerEntryRepository entryRepo,
+                         OutboxRepository outboxRepo,
+                         MeterRegistry meters,
+                         @Value("${ledger.tx-cache.max-size:100000}") long maxSize) {
+        this.entryRepo = entryRepo;
+        this.outboxRepo = outboxRepo;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        // cache.gets{cache=ledger.tx.cache,result=hit|miss}, cache.evictions, cache.size, ... (tag, not prefix)
+        CaffeineCacheMetrics.monitor(meters, cache, "ledger.tx.cache");
+    }
+
+    public Optional<CachedTx> get(UUID txId) {
+        CachedTx tx = cache.getIfPresent(txId);
+        if (tx != null && tx.fullyPublished()) return Optional.of(tx);
+
+        List<LedgerEntry> legs = tx != null ? tx.entries() : entryRepo.findByTxId(txId);
+        if (legs.isEmpty()) return Optional.empty();
+
+        tx = new CachedTx(List.copyOf(legs), publishStatus(legs, tx == null ? Map.of() : tx.published()));
+        cache.put(txId, tx);
+        return Optional.of(tx);
+    }
+
+    private Map<UUID, OffsetDateTime> publishStatus(List<LedgerEntry> legs, Map<UUID, OffsetDateTime> known) {
+        Map<UUID, OffsetDateTime> published = new HashMap<>(known);
+        List<UUID> open = legs.stream()
+                .map(LedgerEntry::getEntryId)
+                .filter(id -> !published.containsKey(id))
+                .toList();
+        // No outbox row → pre-entry_id row or pruned (fully published) partition: published, time unknown
+        open.forEach(id -> published.put(id, null));
+        for (OutboxRepository.PublishState s : outboxRepo.publishStates(open)) {
+            if (s.publishedAt() == null) {
+                published.remove(s.entryId());
+            } else {
+                published.put(s.entryId(), s.publishedAt());
+            }
+        }
+        return Collections.unmodifiableMap(published);
+    }
+}
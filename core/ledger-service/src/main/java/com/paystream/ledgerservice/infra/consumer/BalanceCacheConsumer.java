@@ -0,0 +1,52 @@
+package com.paystream.ledgerservice.infra.consumer;
+
+import com.paystream.common.events.LedgerEntryAppended;
+import com.paystream.ledgerservice.infra.cache.HotBalanceCache;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Keeps the local HotBalanceCache current. Every instance needs every event for the accounts it
+ * caches, so this listener is assigned all partitions without a consumer group (broadcast, see
+ * BalanceCacheConsumerConfig) and starts from latest: anything before startup is already in
+ * account_snapshots, which is what a miss loads. Partitions added while running are picked up on
+ * the next restart; until then the cache TTL bounds staleness for their accounts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "ledger.balance-cache.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCacheConsumer {
+
+    private final LedgerEventReader reader;
+    private final HotBalanceCache cache;
+
+    @KafkaListener(
+            id = "ledger-balance-cache",
+            idIsGroup = false,
+            topicPartitions = @TopicPartition(
+                    topic = "ledger.entry.appended",
+                    partitions = "#{@balanceCacheConsumerConfig.partitions('ledger.entry.appended')}"
+            ),
+            containerFactory = "balanceCacheListenerContainerFactory"
+    )
+    public void onMessages(List<ConsumerRecord<String, byte[]>> recs) {
+        for (ConsumerRecord<String, byte[]> rec : recs) {
+            try {
+                LedgerEntryAppended e = reader.read(rec);
+                cache.apply(new Key(e.accountId(), e.currency()), e.amountMinor(), e.ledgerOffset(), e.accountSeq());
+            } catch (Exception ex) {
+                // Cache only: skipping is safe, the entry simply reloads later (TTL / gap check)
+                log.warn("Balance cache event skipped. offset={}", rec.offset(), ex);
+            }
+        }
+    }
+}
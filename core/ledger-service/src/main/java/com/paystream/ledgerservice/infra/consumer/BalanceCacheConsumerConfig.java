@@ -0,0 +1,77 @@
+package com.paystream.ledgerservice.infra.consumer;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Group-less consumer for BalanceCacheConsumer.
+ * Every instance reads every partition of ledger.entry.appended by manual assignment: no group.id,
+ * no offset commits, position from auto.offset.reset=latest on each start. Nothing is registered
+ * on the broker, so restarts and scale-downs leave no consumer groups behind.
+ */
+@Configuration
+@ConditionalOnProperty(name = "ledger.balance-cache.consumer.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCacheConsumerConfig {
+
+    private final ConsumerFactory<String, byte[]> consumerFactory;
+    private final int configuredPartitions;
+
+    public BalanceCacheConsumerConfig(KafkaProperties kafkaProps,
+                                      ObjectProvider<SslBundles> sslBundlesProvider,
+                                      @Value("${ledger.events.partitions:6}") int configuredPartitions) {
+        Map<String, Object> props = new HashMap<>(
+                kafkaProps.buildConsumerProperties(sslBundlesProvider.getIfAvailable())
+        );
+        props.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        // Anything before startup is already in account_snapshots, which is what a cache miss loads
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        this.consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+        this.configuredPartitions = configuredPartitions;
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> balanceCacheListenerContainerFactory() {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, byte[]>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        // MANUAL and never acknowledged: the container must not commit for a null group
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Partitions of the topic as the broker reports them (SpEL in BalanceCacheConsumer). A topic that
+     * does not exist yet is about to be created by KafkaTopicsConfig with the configured count.
+     */
+    public String[] partitions(String topic) {
+        try (Consumer<String, byte[]> consumer = consumerFactory.createConsumer()) {
+            List<PartitionInfo> infos = consumer.partitionsFor(topic);
+            if (infos == null || infos.isEmpty()) {
+                return IntStream.range(0, configuredPartitions).mapToObj(String::valueOf).toArray(String[]::new);
+            }
+            return infos.stream().map(p -> String.valueOf(p.partition())).toArray(String[]::new);
+        }
+    }
+}
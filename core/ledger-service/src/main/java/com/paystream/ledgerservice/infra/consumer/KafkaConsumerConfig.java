@@ -1,13 +1,16 @@
 package com.paystream.ledgerservice.infra.consumer;
 
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.listener.ContainerProperties;
@@ -25,15 +28,21 @@ public class KafkaConsumerConfig {
 
     private final KafkaProperties kafkaProps;
     private final ObjectProvider<SslBundles> sslBundlesProvider;
+    private final int concurrency;
+    private final boolean virtualThreads;
 
     public KafkaConsumerConfig(KafkaProperties kafkaProps,
-                               ObjectProvider<SslBundles> sslBundlesProvider) {
+                               ObjectProvider<SslBundles> sslBundlesProvider,
+                               @Value("${ledger.snapshot.consumer.concurrency:1}") int concurrency,
+                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.kafkaProps = kafkaProps;
         this.sslBundlesProvider = sslBundlesProvider;
+        this.concurrency = concurrency;
+        this.virtualThreads = virtualThreads;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> ledgerKafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> ledgerKafkaListenerContainerFactory() {
         // Spring config’ini temel al (bootstrap.servers dahil)
         Map<String,Object> props = new HashMap<>(
                 kafkaProps.buildConsumerProperties(sslBundlesProvider.getIfAvailable())
@@ -41,14 +50,25 @@ public class KafkaConsumerConfig {
 
         // Ek ayarların
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // Raw bytes: LedgerEventReader picks JSON or binary by the content-type header
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 200);
 
-        var cf = new DefaultKafkaConsumerFactory<String, String>(props);
-        var factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
+        var cf = new DefaultKafkaConsumerFactory<String, byte[]>(props);
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, byte[]>();
         factory.setConsumerFactory(cf);
+        // Listener gets the whole poll and coalesces it into one DB write
+        factory.setBatchListener(true);
+        // Safe above 1: snapshots are applied in per-account seq order, not arrival order
+        factory.setConcurrency(concurrency);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        if (virtualThreads) {
+            // Boot only does this for its own factory; consumers block on JDBC most of the poll
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("ledger-snapshot-");
+            executor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(executor);
+        }
         return factory;
     }
 }
@@ -0,0 +1,31 @@
+package com.paystream.ledgerservice.infra.consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.common.events.LedgerEntryAppended;
+import com.paystream.common.events.LedgerEntryAppendedCodec;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes ledger.entry.appended by its content-type header: the compact binary encoding
+ * when flagged, JSON otherwise (including records published before the header existed).
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerEventReader {
+
+    private final ObjectMapper om;
+
+    public LedgerEntryAppended read(ConsumerRecord<String, byte[]> rec) throws IOException {
+        Header type = rec.headers().lastHeader(LedgerEntryAppendedCodec.HEADER);
+        if (type != null && LedgerEntryAppendedCodec.isBinary(new String(type.value(), StandardCharsets.UTF_8))) {
+            return LedgerEntryAppendedCodec.decode(rec.value());
+        }
+        return om.readValue(rec.value(), LedgerEntryAppended.class);
+    }
+}
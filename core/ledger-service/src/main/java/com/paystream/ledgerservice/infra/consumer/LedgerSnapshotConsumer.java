@@ -1,42 +1,153 @@
 package com.paystream.ledgerservice.infra.consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.common.events.LedgerEntryAppended;
 import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository;
-import lombok.RequiredArgsConstructor;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.SeqRun;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+/**
+ * Applies ledger.entry.appended events to account_snapshots, one coalesced write per poll.
+ *
+ * Events carrying accountSeq are applied strictly in per-account seq order: out-of-order events
+ * wait in {@link SnapshotSequencer} until the gap closes. Every poll is committed in full, so a
+ * gap never holds the partition back; instead the poll's transaction records each still-open gap
+ * in account_snapshot_gaps. A gap that stays open for {@code gap-reload-polls} polls or
+ * {@code gap-reload-ms} (e.g. after a restart or rebalance dropped the buffer) is closed by
+ * reloading the account from ledger_entries; so is every gap of a poll that leaves more than
+ * {@code gap-max-buffered} events in memory.
+ * Legacy events without accountSeq keep the offset-based path.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "ledger.snapshot.consumer.enabled", havingValue = "true", matchIfMissing = true)
-public class LedgerSnapshotConsumer {
+public class LedgerSnapshotConsumer implements ConsumerSeekAware {
 
-    private final ObjectMapper om;
+    private final LedgerEventReader reader;
     private final AccountSnapshotRepository snapshots;
+    private final TransactionTemplate tx;
+    private final SnapshotSequencer sequencer = new SnapshotSequencer();
+    private final Counter reloaded;
 
-    record Event(UUID accountId, String currency, long amountMinor, long ledgerOffset) {}
+    @Value("${ledger.snapshot.consumer.gap-reload-polls:5}")
+    private int gapReloadPolls = 5;
 
+    @Value("${ledger.snapshot.consumer.gap-reload-ms:30000}")
+    private long gapReloadMs = 30_000;
+
+    @Value("${ledger.snapshot.consumer.gap-max-buffered:100000}")
+    private int gapMaxBuffered = 100_000;
+
+    // Due gaps reloaded per poll
+    @Value("${ledger.snapshot.consumer.gap-reload-batch:500}")
+    private int gapReloadBatch = 500;
+
+    public LedgerSnapshotConsumer(LedgerEventReader reader,
+                                  AccountSnapshotRepository snapshots,
+                                  TransactionTemplate tx,
+                                  MeterRegistry meters) {
+        this.reader = reader;
+        this.snapshots = snapshots;
+        this.tx = tx;
+        this.reloaded = Counter.builder("ledger.snapshot.gap.reloaded")
+                .description("Accounts reloaded from ledger_entries because an account_seq gap stayed open")
+                .register(meters);
+        Gauge.builder("ledger.snapshot.gap.buffered", sequencer, SnapshotSequencer::size)
+                .description("Snapshot events waiting for an earlier account_seq")
+                .register(meters);
+    }
+
+    // Whole poll in, one coalesced snapshot write out, then a single ack
     @KafkaListener(
             topics = "ledger.entry.appended",
             groupId = "ledger-snapshot-consumer",
-            containerFactory = "ledgerKafkaListenerContainerFactory" // aşağıdaki config ile eşleşecek
+            containerFactory = "ledgerKafkaListenerContainerFactory" // batch mode, manual ack
     )
-    public void onMessage(ConsumerRecord<String, String> rec, Acknowledgment ack) throws Exception {
+    public void onMessages(List<ConsumerRecord<String, byte[]>> recs, Acknowledgment ack) throws Exception {
+        List<AccountSnapshotRepository.Delta> legacy = new ArrayList<>();
+        Map<Key, Long> upTo = new HashMap<>(); // highest seq taken off the topic per key
+        long now = System.currentTimeMillis();
+
+        for (ConsumerRecord<String, byte[]> rec : recs) {
+            LedgerEntryAppended e;
+            try {
+                e = reader.read(rec);
+            } catch (Exception ex) {
+                log.error("Snapshot event unreadable, batch will be retried. offset={}, bytes={}", rec.offset(), rec.value().length, ex);
+                throw ex; // ACK YOK → retry mekanizmasına bırak
+            }
+            Key key = new Key(e.accountId(), e.currency());
+            if (e.accountSeq() == null) {
+                legacy.add(new AccountSnapshotRepository.Delta(e.accountId(), e.currency(), e.amountMinor(), e.ledgerOffset()));
+            } else {
+                upTo.merge(key, e.accountSeq(), Math::max);
+                sequencer.offer(key, new SnapshotSequencer.Pending(
+                        e.accountSeq(), e.amountMinor(), e.ledgerOffset(), rec.partition(), now));
+            }
+        }
+
         try {
-            Event e = om.readValue(rec.value(), Event.class);
-            snapshots.applyDelta(e.accountId(), e.currency(), e.amountMinor(), e.ledgerOffset());
-            ack.acknowledge(); // idempotent olduğumuz için güvenle ACK
+            tx.executeWithoutResult(status -> {
+                snapshots.applyDeltas(legacy);
+                // Only keys of this poll: they belong to this thread's partitions
+                Set<Key> seqKeys = Set.copyOf(upTo.keySet());
+                Map<Key, Long> applied = snapshots.appliedSeqs(seqKeys);
+                snapshots.applyRuns(sequencer.drainContiguous(applied));
+
+                // Whatever is not in the snapshot now is recorded before the ack takes it off the
+                // topic; re-reading also catches a run that lost a race with another thread's reload
+                sequencer.highestBuffered(seqKeys).forEach((k, s) -> upTo.merge(k, s, Math::max));
+                Map<Key, Long> after = snapshots.appliedSeqs(seqKeys);
+                Map<Key, Long> open = new HashMap<>();
+                upTo.forEach((k, s) -> { if (s > after.get(k)) open.put(k, s); });
+                snapshots.openGaps(open);
+                snapshots.closeGaps(seqKeys);
+
+                Set<Key> reload = new LinkedHashSet<>(snapshots.lockDueGaps(gapReloadPolls, gapReloadMs, gapReloadBatch));
+                if (sequencer.size() > gapMaxBuffered) reload.addAll(open.keySet());
+                reloadFromLedger(reload);
+            });
         } catch (Exception ex) {
-            log.error("Snapshot apply failed, will be retried. offset={}, payload={}", rec.offset(), rec.value(), ex);
-            // ACK YOK → framework tekrar deneyecek / DLT politikasına bırakılabilir
-            throw ex; // retry mekanizmasına bırak
+            log.error("Snapshot batch apply failed, will be retried. records={}", recs.size(), ex);
+            throw ex;
         }
+        ack.acknowledge(); // açık boşluklar account_snapshot_gaps'te, güvenle ACK
+    }
+
+    // Catches the accounts up to everything committed in ledger_entries and drops their buffered events
+    private void reloadFromLedger(Set<Key> keys) {
+        if (keys.isEmpty()) return;
+        List<SeqRun> runs = snapshots.runsFromLedger(snapshots.appliedSeqs(keys));
+        snapshots.applyRuns(runs);
+        snapshots.closeGaps(keys);
+        snapshots.applyRuns(sequencer.drainContiguous(snapshots.appliedSeqs(keys)));
+        reloaded.increment(keys.size());
+        log.warn("Reloaded {} accounts with open account_seq gaps from ledger_entries ({} runs), buffered={}",
+                keys.size(), runs.size(), sequencer.size());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        sequencer.dropPartitions(partitions.stream().map(TopicPartition::partition).toList());
     }
 }
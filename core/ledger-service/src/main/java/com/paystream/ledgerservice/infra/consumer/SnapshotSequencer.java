@@ -0,0 +1,103 @@
+package com.paystream.ledgerservice.infra.consumer;
+
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.SeqRun;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Reorders snapshot events per (account, currency) by their gapless account_seq.
+ * Events are buffered in memory until every earlier seq has arrived; only contiguous runs
+ * starting right after the applied seq are handed out. Keys map to a single Kafka partition,
+ * so one key is only ever touched by one consumer thread.
+ * The buffer is only a fast path: the consumer records every open gap in account_snapshot_gaps
+ * and reloads the account from ledger_entries if the buffer is lost or the gap stays open.
+ */
+public class SnapshotSequencer {
+
+    public record Pending(long seq, long amountMinor, long ledgerOffset, int partition, long arrivedAtMs) {}
+
+    private final Map<Key, NavigableMap<Long, Pending>> buffers = new ConcurrentHashMap<>();
+
+    public void offer(Key key, Pending p) {
+        // Same seq twice (redelivery) keeps the first copy
+        buffers.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).putIfAbsent(p.seq(), p);
+    }
+
+    /**
+     * Drops everything at or below the applied seq and removes the contiguous run after it.
+     *
+     * @param appliedSeqs last applied seq for every key that has buffered events
+     */
+    public List<SeqRun> drainContiguous(Map<Key, Long> appliedSeqs) {
+        List<SeqRun> runs = new ArrayList<>();
+        for (Map.Entry<Key, Long> e : appliedSeqs.entrySet()) {
+            NavigableMap<Long, Pending> buf = buffers.get(e.getKey());
+            if (buf == null) continue;
+
+            long applied = e.getValue();
+            buf.headMap(applied, true).clear();
+
+            long next = applied + 1;
+            long sum = 0;
+            long maxOffset = Long.MIN_VALUE;
+            Pending p;
+            while ((p = buf.get(next)) != null) {
+                sum += p.amountMinor();
+                maxOffset = Math.max(maxOffset, p.ledgerOffset());
+                buf.remove(next);
+                next++;
+            }
+            if (next > applied + 1) {
+                runs.add(new SeqRun(e.getKey(), sum, maxOffset, applied + 1, next - 1));
+            }
+            if (buf.isEmpty()) buffers.remove(e.getKey());
+        }
+        return runs;
+    }
+
+    /** Highest buffered seq of each key that still has events waiting; keys without any are left out. */
+    public Map<Key, Long> highestBuffered(Collection<Key> keys) {
+        Map<Key, Long> highest = new HashMap<>();
+        for (Key k : keys) {
+            NavigableMap<Long, Pending> buf = buffers.get(k);
+            if (buf != null && !buf.isEmpty()) highest.put(k, buf.lastKey());
+        }
+        return highest;
+    }
+
+    public boolean isBuffered(Key key, long seq) {
+        NavigableMap<Long, Pending> buf = buffers.get(key);
+        return buf != null && buf.containsKey(seq);
+    }
+
+    public int size() {
+        return buffers.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /** Arrival time of the oldest event still waiting for a gap to close, or -1. */
+    public long oldestArrivalMs() {
+        return buffers.values().stream()
+                .flatMap(b -> b.values().stream())
+                .mapToLong(Pending::arrivedAtMs)
+                .min().orElse(-1);
+    }
+
+    // The new owner reloads these keys from ledger_entries once their persisted gap is due
+    public void dropPartitions(Collection<Integer> partitions) {
+        Iterator<NavigableMap<Long, Pending>> it = buffers.values().iterator();
+        while (it.hasNext()) {
+            NavigableMap<Long, Pending> buf = it.next();
+            buf.values().removeIf(p -> partitions.contains(p.partition()));
+            if (buf.isEmpty()) it.remove();
+        }
+    }
+}
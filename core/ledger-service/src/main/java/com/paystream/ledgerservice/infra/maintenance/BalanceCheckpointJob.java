@@ -0,0 +1,91 @@
+package com.paystream.ledgerservice.infra.maintenance;
+
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository.EntryRow;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository.Head;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository.Key;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository.NewCheckpoint;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Folds ledger_entries into per-account running totals in offset order and writes a
+ * checkpoint row every {@code every-entries} entries of an account.
+ *
+ * Offsets are assigned before commit, so a slow transaction can still commit a lower offset
+ * than rows we already see. The job therefore never reads past the committed watermark
+ * (CommittedWatermarkRepository); anything above it is left for a later chunk.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(value = "ledger.checkpoints.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceCheckpointJob {
+
+    private final BalanceCheckpointRepository repo;
+    private final CommittedWatermarkRepository watermarks;
+    private final TransactionTemplate tx;
+
+    @Value("${ledger.checkpoints.every-entries:1000}")
+    private int everyEntries = 1000;
+
+    @Value("${ledger.checkpoints.chunk-size:20000}")
+    private int chunkSize = 20_000;
+
+    @Scheduled(fixedDelayString = "${ledger.checkpoints.interval-ms:10000}")
+    public void run() {
+        int processed;
+        do {
+            processed = runChunk();
+        } while (processed == chunkSize);
+    }
+
+    /** @return number of entries folded in this chunk */
+    public int runChunk() {
+        Integer processed = tx.execute(status -> {
+            Optional<Long> watermark = repo.lockWatermark();
+            if (watermark.isEmpty()) return 0; // another instance holds the job
+
+            List<EntryRow> rows = repo.entriesAfter(watermark.get(), watermarks.safeOffset(), chunkSize);
+            if (rows.isEmpty()) return 0;
+
+            Set<Key> keys = new LinkedHashSet<>();
+            for (EntryRow r : rows) keys.add(new Key(r.accountId(), r.currency()));
+            Map<Key, Head> heads = new HashMap<>(repo.loadHeads(List.copyOf(keys)));
+
+            List<NewCheckpoint> checkpoints = new ArrayList<>();
+            for (EntryRow r : rows) {
+                Key key = new Key(r.accountId(), r.currency());
+                Head h = heads.getOrDefault(key, new Head(0, 0, 0));
+                long balance = h.balanceMinor() + r.amountMinor();
+                int since = h.entriesSince() + 1;
+                if (since >= everyEntries) {
+                    checkpoints.add(new NewCheckpoint(key, r.ledgerOffset(), balance, r.createdAt()));
+                    since = 0;
+                }
+                heads.put(key, new Head(balance, r.ledgerOffset(), since));
+            }
+
+            repo.saveHeads(heads);
+            repo.insertCheckpoints(checkpoints);
+            repo.saveWatermark(rows.get(rows.size() - 1).ledgerOffset());
+            log.debug("Folded {} ledger entries, wrote {} checkpoints", rows.size(), checkpoints.size());
+            return rows.size();
+        });
+        return processed == null ? 0 : processed;
+    }
+}
@@ -0,0 +1,96 @@
+package com.paystream.ledgerservice.infra.maintenance;
+
+import com.paystream.ledgerservice.domain.HashBlock;
+import com.paystream.ledgerservice.domain.MerkleTree;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import com.paystream.ledgerservice.infra.repo.HashChainRepository;
+import com.paystream.ledgerservice.infra.repo.HashChainRepository.EntryHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Extends the hash chain: seals the next committed offset range into a block holding the
+ * Merkle root of its entry hashes, linked to the previous block's hash.
+ *
+ * Booking only writes per-entry hashes, so the chain is built here, off the write path, by one
+ * instance at a time (the sealer position row is the lock). Like the checkpoint job it never
+ * seals past the committed watermark: an entry showing up inside an already sealed range is
+ * exactly what the verifier flags, so every offset of a block must be committed first.
+ * Entries booked before the hash column existed are hashed by the sealer as it reaches them,
+ * so the migration does not have to rewrite the table.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "ledger.hash-chain.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerHashSealer {
+
+    private final HashChainRepository repo;
+    private final CommittedWatermarkRepository watermarks;
+    private final TransactionTemplate tx;
+    private final Counter sealedEntries;
+
+    @Value("${ledger.hash-chain.block-size:10000}")
+    private int blockSize = 10_000;
+
+    public LedgerHashSealer(HashChainRepository repo, CommittedWatermarkRepository watermarks,
+                            TransactionTemplate tx, MeterRegistry meters) {
+        this.repo = repo;
+        this.watermarks = watermarks;
+        this.tx = tx;
+        this.sealedEntries = Counter.builder("ledger.hashchain.sealed.entries")
+                .description("Entries sealed into hash chain blocks")
+                .register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.hash-chain.seal-interval-ms:5000}")
+    public void run() {
+        int sealed;
+        do {
+            sealed = sealBlock();
+        } while (sealed == blockSize);
+    }
+
+    /** @return number of entries in the sealed block, 0 if there was nothing safe to seal */
+    public int sealBlock() {
+        Integer sealed = tx.execute(status -> {
+            Optional<Long> position = repo.lockPosition(HashChainRepository.SEALER);
+            if (position.isEmpty()) return 0;
+
+            long headNo = position.get();
+            HashBlock head = headNo == 0 ? null : repo.block(headNo).orElseThrow(
+                    () -> new IllegalStateException("Hash chain head block " + headNo + " is missing"));
+            long after = head == null ? 0 : head.toOffset();
+            byte[] prevHash = head == null ? HashBlock.GENESIS : head.blockHash();
+
+            long upTo = watermarks.chunkEnd(after, blockSize);
+            if (upTo <= after) return 0;
+
+            // Entries booked before V15 carry no hash yet: backfilled here, one block per transaction
+            int backfilled = repo.hashMissing(after + 1, upTo);
+            List<EntryHash> entries = repo.entryHashes(after + 1, upTo);
+            if (entries.isEmpty()) return 0;
+
+            byte[] root = MerkleTree.root(entries.stream().map(EntryHash::hash).toList());
+            long from = after + 1;
+            HashBlock block = new HashBlock(headNo + 1, from, upTo, entries.size(), root, prevHash,
+                    HashBlock.hash(prevHash, from, upTo, entries.size(), root), null, null);
+            repo.insertBlock(block);
+            repo.savePosition(HashChainRepository.SEALER, block.blockNo());
+            log.debug("Sealed hash block {} offsets [{}, {}] entries={} backfilled={}",
+                    block.blockNo(), from, upTo, entries.size(), backfilled);
+            return entries.size();
+        });
+        int n = sealed == null ? 0 : sealed;
+        sealedEntries.increment(n);
+        return n;
+    }
+}
@@ -0,0 +1,150 @@
+package com.paystream.ledgerservice.infra.maintenance;
+
+import com.paystream.ledgerservice.domain.HashBlock;
+import com.paystream.ledgerservice.domain.MerkleTree;
+import com.paystream.ledgerservice.infra.repo.HashChainRepository;
+import com.paystream.ledgerservice.infra.repo.HashChainRepository.EntryHash;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Re-verifies sealed hash chain blocks, oldest unverified first.
+ * - Per block: every entry's content still matches its entry_hash, the Merkle root of the
+ *   entry hashes (and their count) matches the block, and the block hash links to its predecessor.
+ * - Blocks are independent given their stored predecessor hash, so each round checks a batch
+ *   of blocks in parallel on virtual threads (bounded by {@code parallelism} DB connections).
+ * - The verifier position is persisted after every round: a restart resumes where it stopped,
+ *   and resetting it to 0 re-verifies the whole ledger the same way.
+ * Outcomes are stored per block (verified_at, verify_ok); failures are logged and counted.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "ledger.hash-chain.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerHashVerifier {
+
+    private final HashChainRepository repo;
+    private final TransactionTemplate tx;
+    private final Counter verifiedBlocks;
+    private final Counter failedBlocks;
+    private final AtomicLong lag = new AtomicLong();
+
+    @Value("${ledger.hash-chain.verify.batch:64}")
+    private int batch = 64;
+
+    @Value("${ledger.hash-chain.verify.parallelism:4}")
+    private int parallelism = 4;
+
+    public LedgerHashVerifier(HashChainRepository repo, TransactionTemplate tx, MeterRegistry meters) {
+        this.repo = repo;
+        this.tx = tx;
+        this.verifiedBlocks = Counter.builder("ledger.hashchain.verified").tag("result", "ok").register(meters);
+        this.failedBlocks = Counter.builder("ledger.hashchain.verified").tag("result", "failed").register(meters);
+        Gauge.builder("ledger.hashchain.verify.lag", lag, AtomicLong::get)
+                .description("Sealed blocks not verified yet")
+                .baseUnit("blocks")
+                .register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.hash-chain.verify.interval-ms:30000}")
+    public void run() {
+        int checked;
+        do {
+            checked = verifyRound();
+        } while (checked == batch);
+        lag.set(Math.max(0, repo.position(HashChainRepository.SEALER) - repo.position(HashChainRepository.VERIFIER)));
+    }
+
+    /** Verifies the next batch of blocks; @return blocks checked, 0 if caught up or locked elsewhere */
+    public int verifyRound() {
+        Integer checked = tx.execute(status -> {
+            Optional<Long> position = repo.lockPosition(HashChainRepository.VERIFIER);
+            if (position.isEmpty()) return 0;
+
+            long last = position.get();
+            List<HashBlock> blocks = repo.blocksAfter(last, batch);
+            if (blocks.isEmpty()) return 0;
+
+            byte[] prevHash = last == 0 ? HashBlock.GENESIS : repo.block(last).map(HashBlock::blockHash)
+                    .orElseThrow(() -> new IllegalStateException("Verified hash block " + last + " is missing"));
+            List<Boolean> results = verifyAll(blocks);
+
+            for (int i = 0; i < blocks.size(); i++) {
+                HashBlock b = blocks.get(i);
+                boolean ok = results.get(i)
+                        && b.blockNo() == (i == 0 ? last + 1 : blocks.get(i - 1).blockNo() + 1)
+                        && b.linksTo(prevHash);
+                if (!ok) {
+                    log.error("Hash chain verification FAILED for block {} offsets [{}, {}]",
+                            b.blockNo(), b.fromOffset(), b.toOffset());
+                    failedBlocks.increment();
+                } else {
+                    verifiedBlocks.increment();
+                }
+                repo.markVerified(b.blockNo(), ok);
+                prevHash = b.blockHash();
+            }
+            repo.savePosition(HashChainRepository.VERIFIER, blocks.get(blocks.size() - 1).blockNo());
+            return blocks.size();
+        });
+        return checked == null ? 0 : checked;
+    }
+
+    private List<Boolean> verifyAll(List<HashBlock> blocks) {
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> futures = new ArrayList<>(blocks.size());
+            for (HashBlock b : blocks) {
+                futures.add(pool.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return verifyContent(b);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<Boolean> results = new ArrayList<>(blocks.size());
+            for (Future<Boolean> f : futures) results.add(f.get());
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hash chain verification interrupted", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Hash chain verification failed", ex.getCause());
+        }
+    }
+
+    // Entry content vs entry_hash, then leaves vs merkle_root; runs on its own connection
+    private boolean verifyContent(HashBlock b) {
+        List<Long> altered = repo.contentMismatches(b.fromOffset(), b.toOffset());
+        if (!altered.isEmpty()) {
+            log.error("Hash block {}: entries changed after booking at offsets {}", b.blockNo(), altered);
+            return false;
+        }
+        List<EntryHash> entries = repo.entryHashes(b.fromOffset(), b.toOffset());
+        if (entries.size() != b.entryCount()) {
+            log.error("Hash block {}: {} entries sealed but {} present", b.blockNo(), b.entryCount(), entries.size());
+            return false;
+        }
+        return !entries.isEmpty()
+                && MessageDigest.isEqual(b.merkleRoot(), MerkleTree.root(entries.stream().map(EntryHash::hash).toList()));
+    }
+}
@@ -0,0 +1,230 @@
+package com.paystream.ledgerservice.infra.maintenance;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the partitioned ledger tables healthy (see V7/V8 migrations).
+ * - ledger_entries: creates offset-range partitions ahead of ledger_offset_seq.
+ * - ledger_outbox: creates daily partitions ahead of today, and detaches + drops days that are
+ *   past the retention window and fully published.
+ * - Both tables have a DEFAULT partition (V18), so a missed run does not fail bookings. Rows that
+ *   landed there are moved into their partition when it is created; the ledger.partitions.*
+ *   gauges show the headroom left and the rows waiting in DEFAULT.
+ * Every step is idempotent, so several instances may run it; losing a race is only logged.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "ledger.partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerPartitionMaintenance {
+
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE; // yyyyMMdd
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final AtomicLong entriesHeadroom = new AtomicLong();
+    private final AtomicLong outboxHeadroomDays = new AtomicLong();
+    private final AtomicLong entriesDefaultRows = new AtomicLong();
+    private final AtomicLong outboxDefaultRows = new AtomicLong();
+
+    // Must match the range used by V7__partition_ledger_entries.sql
+    @Value("${ledger.partitions.entries-offset-range:10000000}")
+    private long entriesOffsetRange = 10_000_000L;
+
+    @Value("${ledger.partitions.entries-ahead:2}")
+    private int entriesAhead = 2;
+
+    @Value("${ledger.partitions.outbox-days-ahead:3}")
+    private int outboxDaysAhead = 3;
+
+    @Value("${ledger.partitions.outbox-retention-days:7}")
+    private int outboxRetentionDays = 7;
+
+    public LedgerPartitionMaintenance(JdbcTemplate jdbc, TransactionTemplate tx, MeterRegistry meters) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+        Gauge.builder("ledger.partitions.entries.headroom", entriesHeadroom, AtomicLong::get)
+                .description("Offsets left before ledger_offset_seq passes the last ledger_entries range partition")
+                .baseUnit("offsets")
+                .register(meters);
+        Gauge.builder("ledger.partitions.outbox.headroom", outboxHeadroomDays, AtomicLong::get)
+                .description("Days after today covered by ledger_outbox day partitions")
+                .baseUnit("days")
+                .register(meters);
+        Gauge.builder("ledger.partitions.default.rows", entriesDefaultRows, AtomicLong::get)
+                .description("Rows in a DEFAULT partition waiting for their range partition (should be 0)")
+                .tag("table", "ledger_entries")
+                .register(meters);
+        Gauge.builder("ledger.partitions.default.rows", outboxDefaultRows, AtomicLong::get)
+                .description("Rows in a DEFAULT partition waiting for their range partition (should be 0)")
+                .tag("table", "ledger_outbox")
+                .register(meters);
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${ledger.partitions.maintenance.interval-ms:3600000}")
+    public void run() {
+        ensureEntryPartitions();
+        ensureOutboxPartitions();
+        dropExpiredOutboxPartitions();
+        updateHeadroom();
+    }
+
+    void ensureEntryPartitions() {
+        long current = lastOffset() / entriesOffsetRange;
+        for (long n = current; n <= current + entriesAhead; n++) {
+            long from = n * entriesOffsetRange;
+            long to = (n + 1) * entriesOffsetRange;
+            createPartition("ledger_entries", "ledger_entries_p" + n,
+                    "FROM (%d) TO (%d)".formatted(from, to),
+                    "ledger_offset >= %d AND ledger_offset < %d".formatted(from, to));
+        }
+    }
+
+    void ensureOutboxPartitions() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        for (int i = 0; i <= outboxDaysAhead; i++) {
+            LocalDate day = today.plusDays(i);
+            String from = "'%s 00:00:00+00'".formatted(day);
+            String to = "'%s 00:00:00+00'".formatted(day.plusDays(1));
+            createPartition("ledger_outbox", "ledger_outbox_p" + day.format(DAY),
+                    "FROM (%s) TO (%s)".formatted(from, to),
+                    "created_at >= %s AND created_at < %s".formatted(from, to));
+        }
+    }
+
+    /**
+     * Creates a range partition unless it exists. If rows of its range already sit in the DEFAULT
+     * partition a plain CREATE would fail, so the default is detached, the partition created, the
+     * rows moved and the default re-attached in one transaction. That blocks writes to the table
+     * while it runs, which only happens after maintenance has fallen behind.
+     */
+    private void createPartition(String table, String partition, String bounds, String range) {
+        if (Boolean.TRUE.equals(jdbc.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition))) {
+            return;
+        }
+        String ddl = "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES %s".formatted(partition, table, bounds);
+        String defaultPartition = table + "_default";
+        Boolean stray = jdbc.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM " + defaultPartition + " WHERE " + range + ")", Boolean.class);
+        if (!Boolean.TRUE.equals(stray)) {
+            execute(ddl);
+            return;
+        }
+
+        // Generated columns (ledger_outbox.bucket) cannot be inserted, so the rest is copied by name
+        String columns = jdbc.queryForObject("""
+            SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position)
+            FROM information_schema.columns
+            WHERE table_schema = current_schema() AND table_name = ? AND is_generated = 'NEVER'
+        """, String.class, table);
+        try {
+            Integer moved = tx.execute(status -> {
+                jdbc.execute("ALTER TABLE " + table + " DETACH PARTITION " + defaultPartition);
+                jdbc.execute(ddl);
+                int n = jdbc.update("""
+                    WITH moved AS (DELETE FROM %1$s WHERE %2$s RETURNING %3$s)
+                    INSERT INTO %4$s (%3$s) SELECT %3$s FROM moved
+                """.formatted(defaultPartition, range, columns, table));
+                jdbc.execute("ALTER TABLE " + table + " ATTACH PARTITION " + defaultPartition + " DEFAULT");
+                return n;
+            });
+            log.warn("Created partition {} and moved {} rows into it from {}", partition, moved, defaultPartition);
+        } catch (DataAccessException ex) {
+            log.warn("Creating partition {} from {} failed ({})",
+                    partition, defaultPartition, ex.getMostSpecificCause().getMessage());
+        }
+    }
+
+    void dropExpiredOutboxPartitions() {
+        // A day partition is expired once its whole range is older than the retention window
+        LocalDate lastExpiredDay = LocalDate.now(ZoneOffset.UTC).minusDays(outboxRetentionDays + 1L);
+
+        for (String name : partitionsOf("ledger_outbox")) {
+            if (!name.matches("ledger_outbox_p\\d{8}")) continue;
+            LocalDate day = LocalDate.parse(name.substring("ledger_outbox_p".length()), DAY);
+            if (day.isAfter(lastExpiredDay)) continue;
+
+            Boolean pending = jdbc.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + name + " WHERE published_at IS NULL)", Boolean.class);
+            if (Boolean.TRUE.equals(pending)) {
+                log.warn("Outbox partition {} is past retention but still has unpublished rows; keeping it", name);
+                continue;
+            }
+
+            if (execute("ALTER TABLE ledger_outbox DETACH PARTITION " + name)
+                    && execute("DROP TABLE " + name)) {
+                log.info("Dropped fully published outbox partition {}", name);
+            }
+        }
+    }
+
+    void updateHeadroom() {
+        long topRange = partitionsOf("ledger_entries").stream()
+                .filter(name -> name.matches("ledger_entries_p\\d+"))
+                .mapToLong(name -> Long.parseLong(name.substring("ledger_entries_p".length())))
+                .max().orElse(-1);
+        entriesHeadroom.set(Math.max(0, (topRange + 1) * entriesOffsetRange - lastOffset()));
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long lastDay = partitionsOf("ledger_outbox").stream()
+                .filter(name -> name.matches("ledger_outbox_p\\d{8}"))
+                .mapToLong(name -> ChronoUnit.DAYS.between(today,
+                        LocalDate.parse(name.substring("ledger_outbox_p".length()), DAY)))
+                .max().orElse(0);
+        outboxHeadroomDays.set(Math.max(0, lastDay));
+
+        entriesDefaultRows.set(countRows("ledger_entries_default"));
+        outboxDefaultRows.set(countRows("ledger_outbox_default"));
+        if (entriesDefaultRows.get() > 0 || outboxDefaultRows.get() > 0) {
+            log.error("Rows waiting in DEFAULT partitions: ledger_entries={}, ledger_outbox={}",
+                    entriesDefaultRows.get(), outboxDefaultRows.get());
+        }
+    }
+
+    private List<String> partitionsOf(String table) {
+        return jdbc.queryForList("""
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            JOIN pg_class p ON p.oid = i.inhparent
+            WHERE p.relname = ?
+            ORDER BY c.relname
+        """, String.class, table);
+    }
+
+    private long lastOffset() {
+        Long lastOffset = jdbc.queryForObject("SELECT last_value FROM ledger_offset_seq", Long.class);
+        return lastOffset == null ? 0 : lastOffset;
+    }
+
+    private long countRows(String partition) {
+        Long n = jdbc.queryForObject("SELECT count(*) FROM " + partition, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    private boolean execute(String ddl) {
+        try {
+            jdbc.execute(ddl);
+            return true;
+        } catch (DataAccessException ex) {
+            // Typically another instance created/dropped the same partition first
+            log.warn("Partition maintenance statement failed: {} ({})", ddl, ex.getMostSpecificCause().getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.paystream.ledgerservice.infra.maintenance;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.ledgerservice.domain.OutboxRecord;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import com.paystream.ledgerservice.infra.repo.OutboxRepository;
+import com.paystream.ledgerservice.infra.repo.ReconciliationRepository;
+import com.paystream.ledgerservice.infra.repo.ReconciliationRepository.BalanceCandidate;
+import com.paystream.ledgerservice.infra.repo.ReconciliationRepository.Key;
+import com.paystream.ledgerservice.infra.repo.ReconciliationRepository.SeqDelta;
+import com.paystream.ledgerservice.infra.repo.ReconciliationRepository.SnapshotCandidate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Continuously reconciles the ledger against its balance projections.
+ * - Folds new ledger_entries into per-account sums by offset range, never past the committed
+ *   watermark (like BalanceCheckpointJob), so each round reads only what was booked since the
+ *   last one and no lower offset can commit behind it.
+ * - Compares the touched accounts with account_snapshots at the snapshot's account_seq and
+ *   with account-service's account_balances at its as_of_ledger_offset, using small
+ *   index-range deltas to line both sides up. An account whose projection cannot be lined up
+ *   yet (still catching up) stays flagged and is retried next round.
+ * - Each mismatch is counted, measured and published as a ledger.reconciliation.mismatch event.
+ * Work per round is bounded by chunk-size and compare-batch; one instance runs at a time.
+ *
+ * The fold and the snapshot comparison commit together; the account_balances comparison reads
+ * another service's schema and runs in its own transaction afterwards. If that read fails
+ * (schema missing, no grant, separate database) the failure is counted and the comparison is
+ * skipped for the round, without holding back the fold or the snapshot checks.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(value = "ledger.reconciler.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerReconciler {
+
+    static final String MISMATCH_EVENT = "ledger.reconciliation.mismatch";
+    private static final Key START = new Key(new UUID(0L, 0L), "");
+
+    private final ReconciliationRepository repo;
+    private final CommittedWatermarkRepository watermarks;
+    private final BalanceCheckpointRepository ledger;
+    private final OutboxRepository outboxRepo;
+    private final TransactionTemplate tx;
+    private final ObjectMapper om;
+
+    @Value("${ledger.reconciler.chunk-size:50000}")
+    private int chunkSize = 50_000;
+
+    @Value("${ledger.reconciler.compare-batch:1000}")
+    private int compareBatch = 1000;
+
+    @Value("${ledger.reconciler.account-balances.enabled:true}")
+    private boolean accountBalancesEnabled = true;
+
+    // Schema of account-service's tables in the shared database
+    @Value("${ledger.reconciler.account-schema:account}")
+    private String accountSchema = "account";
+
+    private final Target snapshots;
+    private final Target balances;
+    private final AtomicLong watermarkLag = new AtomicLong();
+    private final Counter balanceErrors;
+
+    // Keyset cursors over flagged accounts, so waiting accounts cannot starve the rest
+    private Key snapshotCursor = START;
+    private Key balanceCursor = START;
+
+    private record Target(String name, Counter checked, Counter mismatches, DistributionSummary drift,
+                          AtomicLong pending) {}
+
+    public LedgerReconciler(ReconciliationRepository repo,
+                            CommittedWatermarkRepository watermarks,
+                            BalanceCheckpointRepository ledger,
+                            OutboxRepository outboxRepo,
+                            TransactionTemplate tx,
+                            ObjectMapper om,
+                            MeterRegistry meters) {
+        this.repo = repo;
+        this.watermarks = watermarks;
+        this.ledger = ledger;
+        this.outboxRepo = outboxRepo;
+        this.tx = tx;
+        this.om = om;
+        this.snapshots = target("account_snapshots", meters);
+        this.balances = target("account_balances", meters);
+        Gauge.builder("ledger.reconciler.watermark.lag", watermarkLag, AtomicLong::get)
+                .description("Offsets assigned but not yet folded by the reconciler")
+                .baseUnit("offsets")
+                .register(meters);
+        this.balanceErrors = Counter.builder("ledger.reconciler.errors")
+                .description("Rounds whose comparison failed and was skipped")
+                .tag("target", "account_balances")
+                .register(meters);
+    }
+
+    private static Target target(String name, MeterRegistry meters) {
+        AtomicLong pending = new AtomicLong();
+        Gauge.builder("ledger.reconciler.pending", pending, AtomicLong::get)
+                .description("Accounts waiting for the projection to reach a comparable point")
+                .tag("target", name)
+                .register(meters);
+        return new Target(name,
+                Counter.builder("ledger.reconciler.checked").tag("target", name).register(meters),
+                Counter.builder("ledger.reconciler.mismatches").tag("target", name).register(meters),
+                DistributionSummary.builder("ledger.reconciler.drift")
+                        .description("Absolute drift of a mismatched account")
+                        .baseUnit("minor")
+                        .tag("target", name)
+                        .register(meters),
+                pending);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.reconciler.interval-ms:10000}")
+    public void run() {
+        runRound();
+        snapshots.pending().set(repo.pending("check_snapshot"));
+        if (accountBalancesEnabled) {
+            balances.pending().set(repo.pending("check_balance"));
+        }
+    }
+
+    /** One fold + compare round; a no-op if another instance holds the watermark. */
+    public void runRound() {
+        Key nextSnapshotCursor = tx.execute(status -> {
+            Optional<Long> watermark = repo.lockWatermark();
+            if (watermark.isEmpty()) return null;
+
+            long from = watermark.get();
+            long upTo = watermarks.chunkEnd(from, chunkSize);
+            if (upTo > from) {
+                int accounts = repo.fold(from, upTo);
+                repo.saveWatermark(upTo);
+                log.debug("Reconciler folded offsets ({}, {}] into {} account sums", from, upTo, accounts);
+            }
+            watermarkLag.set(Math.max(0, watermarks.lastAssignedOffset() - upTo));
+
+            List<OutboxRecord> events = new ArrayList<>();
+            Key next = compareSnapshots(upTo, events);
+            outboxRepo.insertAll(events);
+            return next;
+        });
+        if (nextSnapshotCursor == null) return;
+        // Cursors move only once the round they belong to has committed
+        snapshotCursor = nextSnapshotCursor;
+
+        if (accountBalancesEnabled) {
+            try {
+                Key nextBalanceCursor = tx.execute(status -> {
+                    // Same single-instance guard; the folded watermark is what the sums cover
+                    Optional<Long> watermark = repo.lockWatermark();
+                    if (watermark.isEmpty()) return null;
+
+                    List<OutboxRecord> events = new ArrayList<>();
+                    Key next = compareBalances(watermark.get(), events);
+                    outboxRepo.insertAll(events);
+                    return next;
+                });
+                if (nextBalanceCursor != null) balanceCursor = nextBalanceCursor;
+            } catch (RuntimeException ex) {
+                balanceErrors.increment();
+                log.warn("Reconciler account_balances comparison skipped ({}.account_balances): {}",
+                        accountSchema, ex.getMessage());
+            }
+        }
+    }
+
+    /** @return the cursor for the next round */
+    private Key compareSnapshots(long watermark, List<OutboxRecord> events) {
+        List<SnapshotCandidate> candidates = repo.snapshotCandidates(snapshotCursor, compareBatch);
+
+        List<Key> compared = new ArrayList<>(candidates.size());
+        for (SnapshotCandidate c : candidates) {
+            long ledgerSeq = c.lastSeq() == null ? 0 : c.lastSeq();
+            long snapshotSeq = c.snapshotSeq() == null ? 0 : c.snapshotSeq();
+            // Snapshot has not caught up with the folded entries yet
+            if (snapshotSeq < ledgerSeq || (c.snapshotBalance() == null && ledgerSeq > 0)) continue;
+
+            // Line the ledger up with the snapshot: add the account's seqs the fold has not seen
+            // yet (all of them are above the watermark); wait if some are not visible yet
+            long expected = c.sumMinor();
+            long missing = snapshotSeq - c.seqCount();
+            if (missing > 0) {
+                SeqDelta d = repo.seqDeltaAfter(c.key(), watermark, snapshotSeq);
+                if (d.count() != missing) continue;
+                expected += d.sumMinor();
+            }
+
+            long actual = c.snapshotBalance() == null ? 0 : c.snapshotBalance();
+            check(snapshots, c.key(), expected, actual, "asOfAccountSeq", snapshotSeq, events);
+            compared.add(c.key());
+        }
+        repo.clearSnapshotCheck(compared);
+        return candidates.size() < compareBatch ? START : candidates.get(candidates.size() - 1).key();
+    }
+
+    /** @return the cursor for the next round */
+    private Key compareBalances(long watermark, List<OutboxRecord> events) {
+        List<BalanceCandidate> candidates = repo.balanceCandidates(accountSchema, balanceCursor, compareBatch);
+
+        List<Key> compared = new ArrayList<>(candidates.size());
+        for (BalanceCandidate c : candidates) {
+            // Internal / treasury accounts have no account-service row: nothing to compare
+            if (!c.accountKnown()) {
+                compared.add(c.key());
+                continue;
+            }
+            long asOfOffset = c.balanceOffset() == null ? 0 : c.balanceOffset();
+            // Past the committed watermark a lower offset may still be committing → compare later
+            if (asOfOffset > watermark) continue;
+
+            long expected = c.sumMinor()
+                    - ledger.deltaAfter(c.key().accountId(), c.key().currency(), asOfOffset, watermark).sumMinor();
+            long actual = c.balanceMinor() == null ? 0 : c.balanceMinor();
+            check(balances, c.key(), expected, actual, "asOfLedgerOffset", asOfOffset, events);
+            compared.add(c.key());
+        }
+        repo.clearBalanceCheck(compared);
+        return candidates.size() < compareBatch ? START : candidates.get(candidates.size() - 1).key();
+    }
+
+    private void check(Target target, Key key, long expected, long actual,
+                       String positionName, long position, List<OutboxRecord> events) {
+        target.checked().increment();
+        if (expected == actual) return;
+
+        target.mismatches().increment();
+        target.drift().record(Math.abs(actual - expected));
+        log.warn("Reconciliation mismatch target={} account={} currency={} ledger={} projected={} {}={}",
+                target.name(), key.accountId(), key.currency(), expected, actual, positionName, position);
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventId", UUID.randomUUID().toString());
+        payload.put("target", target.name());
+        payload.put("accountId", key.accountId().toString());
+        payload.put("currency", key.currency());
+        payload.put("ledgerMinor", expected);
+        payload.put("projectedMinor", actual);
+        payload.put("driftMinor", actual - expected);
+        payload.put(positionName, position);
+        payload.put("detectedAt", OffsetDateTime.now().toString());
+        try {
+            events.add(OutboxRecord.builder()
+                    .id(UUID.randomUUID())
+                    .eventType(MISMATCH_EVENT)
+                    .keyAccountId(key.accountId())
+                    .payload(om.writeValueAsString(payload))
+                    .build());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize mismatch event", ex);
+        }
+    }
+}
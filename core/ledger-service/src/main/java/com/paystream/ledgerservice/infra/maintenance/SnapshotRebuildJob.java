@@ -0,0 +1,210 @@
+package com.paystream.ledgerservice.infra.maintenance;
+
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import com.paystream.ledgerservice.infra.repo.SnapshotRebuildRepository;
+import com.paystream.ledgerservice.infra.repo.SnapshotRebuildRepository.RangeResult;
+import com.paystream.ledgerservice.infra.repo.SnapshotRebuildRepository.RebuildLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Admin-triggered rebuild of account_snapshots straight from ledger_entries (no Kafka replay).
+ * 1) Take the committed watermark as high watermark H: every offset up to H is committed.
+ * 2) Split the account-id space into ranges (UUIDs are random, so this is a uniform hash split)
+ *    and aggregate every range up to H in parallel into account_snapshots_rebuild.
+ * 3) In one REPEATABLE READ transaction: lock account_snapshots, fold in the entries after H,
+ *    verify against account_sequences (balance and last account_seq, maintained by the booking
+ *    transaction itself) and the double-entry zero-sum per currency, then swap tables.
+ * One run at a time across all instances: the run holds a Postgres advisory lock from before
+ * the work table is created until it finishes; a start on an instance that does not get the
+ * lock is refused (FAILED). A failed run leaves account_snapshots untouched.
+ */
+@Slf4j
+@Component
+public class SnapshotRebuildJob {
+
+    public enum State { RUNNING, VERIFYING, SWAPPING, COMPLETED, FAILED }
+
+    public record Status(
+            UUID jobId,
+            State state,
+            long highWatermark,
+            int rangesDone,
+            int rangesTotal,
+            long entriesScanned,
+            long accounts,
+            long entriesPerSecond,
+            OffsetDateTime startedAt,
+            OffsetDateTime finishedAt,
+            String error
+    ) {}
+
+    private final SnapshotRebuildRepository repo;
+    private final CommittedWatermarkRepository watermarks;
+    private final TransactionTemplate swapTx;
+
+    @Value("${ledger.snapshot-rebuild.ranges:64}")
+    private int ranges = 64;
+
+    // Concurrent range queries; each holds one DB connection
+    @Value("${ledger.snapshot-rebuild.parallelism:4}")
+    private int parallelism = 4;
+
+    private final AtomicReference<Status> current = new AtomicReference<>();
+    private final AtomicInteger rangesDone = new AtomicInteger();
+    private final AtomicLong entriesScanned = new AtomicLong();
+    private final AtomicLong accounts = new AtomicLong();
+
+    public SnapshotRebuildJob(SnapshotRebuildRepository repo, CommittedWatermarkRepository watermarks,
+                              TransactionTemplate tx) {
+        this.repo = repo;
+        this.watermarks = watermarks;
+        // Catch-up and verification must read ledger_entries and account_sequences at one point
+        this.swapTx = new TransactionTemplate(tx.getTransactionManager());
+        this.swapTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Starts a rebuild in the background; if one is already running here its status is returned
+     * instead, if one is running on another instance the returned status is FAILED.
+     */
+    public synchronized Status start() {
+        Status running = status();
+        if (running != null && running.finishedAt() == null) {
+            return running;
+        }
+        RebuildLock lock;
+        try {
+            lock = repo.tryLock();
+        } catch (Exception ex) {
+            log.error("Snapshot rebuild could not take the rebuild lock", ex);
+            return refused("Rebuild lock unavailable: " + ex.getMessage());
+        }
+        if (lock == null) {
+            return refused("Another snapshot rebuild is running");
+        }
+        rangesDone.set(0);
+        entriesScanned.set(0);
+        accounts.set(0);
+        Status started = new Status(UUID.randomUUID(), State.RUNNING, 0, 0, ranges, 0, 0, 0,
+                OffsetDateTime.now(), null, null);
+        current.set(started);
+        Thread.ofVirtual().name("snapshot-rebuild").start(() -> {
+            try (lock) {
+                run(started);
+            } catch (Exception ex) {
+                log.warn("Snapshot rebuild {} could not release the rebuild lock", started.jobId(), ex);
+            }
+        });
+        return started;
+    }
+
+    private Status refused(String error) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Status s = new Status(UUID.randomUUID(), State.FAILED, 0, 0, ranges, 0, 0, 0, now, now, error);
+        current.set(s);
+        return s;
+    }
+
+    /** Latest run with live counters, or null if none has been started. */
+    public Status status() {
+        Status s = current.get();
+        if (s == null || s.finishedAt() != null) return s;
+        return withProgress(s, s.state(), null, null);
+    }
+
+    private void run(Status started) {
+        try {
+            repo.createWorkTable();
+            long h = watermarks.safeOffset();
+            Status s = new Status(started.jobId(), State.RUNNING, h, 0, ranges, 0, 0, 0, started.startedAt(), null, null);
+            current.set(s);
+            log.info("Snapshot rebuild {} started, highWatermark={}, ranges={}", s.jobId(), h, ranges);
+
+            forEachRange(range -> {
+                RangeResult r = repo.aggregateRange(range[0], range[1], h);
+                entriesScanned.addAndGet(r.entries());
+                accounts.addAndGet(r.accounts());
+                rangesDone.incrementAndGet();
+            });
+
+            current.set(s = withProgress(s, State.VERIFYING, null, null));
+            Status verifying = s;
+            Long caughtUp = swapTx.execute(st -> {
+                long n = repo.lockAndCatchUp(h);
+                long mismatches = repo.mismatchesAgainstSequences();
+                long unbalanced = repo.unbalancedCurrencies();
+                if (mismatches > 0 || unbalanced > 0) {
+                    throw new IllegalStateException("Rebuilt snapshots failed verification: " + mismatches
+                            + " accounts differ from account_sequences, " + unbalanced + " unbalanced currencies");
+                }
+                current.set(withProgress(verifying, State.SWAPPING, null, null));
+                repo.swap();
+                return n;
+            });
+
+            current.set(s = withProgress(current.get(), State.COMPLETED, OffsetDateTime.now(), null));
+            log.info("Snapshot rebuild {} completed: {} entries, {} accounts, {} entries/s, {} caught up after swap lock",
+                    s.jobId(), s.entriesScanned(), s.accounts(), s.entriesPerSecond(), caughtUp);
+        } catch (Exception ex) {
+            log.error("Snapshot rebuild {} failed", started.jobId(), ex);
+            Status s = current.get();
+            current.set(withProgress(s, State.FAILED, OffsetDateTime.now(), ex.getMessage()));
+        }
+    }
+
+    private interface RangeTask {
+        void run(UUID[] range) throws Exception;
+    }
+
+    // Virtual thread per range, at most `parallelism` of them talking to the DB at once
+    private void forEachRange(RangeTask task) throws Exception {
+        Semaphore permits = new Semaphore(parallelism);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(ranges);
+            for (int i = 0; i < ranges; i++) {
+                UUID[] range = {rangeStart(i, ranges), i + 1 < ranges ? rangeStart(i + 1, ranges) : null};
+                futures.add(pool.submit(() -> {
+                    permits.acquire();
+                    try {
+                        task.run(range);
+                    } finally {
+                        permits.release();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+        }
+    }
+
+    // Splits the UUID space on its first 32 bits (Postgres compares uuids bytewise, unsigned)
+    static UUID rangeStart(int i, int n) {
+        long prefix = (0x1_0000_0000L * i) / n;
+        return new UUID(prefix << 32, 0L);
+    }
+
+    private Status withProgress(Status s, State state, OffsetDateTime finishedAt, String error) {
+        long scanned = entriesScanned.get();
+        long elapsedMs = Math.max(1, Duration.between(s.startedAt(),
+                finishedAt != null ? finishedAt : OffsetDateTime.now()).toMillis());
+        return new Status(s.jobId(), state, s.highWatermark(), rangesDone.get(), s.rangesTotal(),
+                scanned, accounts.get(), scanned * 1000 / elapsedMs, s.startedAt(), finishedAt, error);
+    }
+}
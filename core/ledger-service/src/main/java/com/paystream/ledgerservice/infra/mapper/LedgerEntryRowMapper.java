@@ -22,6 +22,7 @@ public class LedgerEntryRowMapper implements RowMapper<LedgerEntry> {
                 .currency(rs.getString("currency"))              // currency code
                 .amountMinor(rs.getLong("amount_minor"))         // signed minor units
                 .ledgerOffset(rs.getLong("ledger_offset"))       // global ordering offset
+                .accountSeq((Long) rs.getObject("account_seq"))   // per-account sequence (null for legacy rows)
                 .createdAt(rs.getObject("created_at", OffsetDateTime.class)) // server timestamp
                 .build();
     }
@@ -18,7 +18,10 @@ public class OutboxRecordRowMapper implements RowMapper<OutboxRecord> {
                 .id((UUID) rs.getObject("id"))                               // outbox row id
                 .eventType(rs.getString("event_type"))                       // event discriminator
                 .keyAccountId((UUID) rs.getObject("key_account_id"))         // Kafka partition key
+                .entryId((UUID) rs.getObject("entry_id"))                    // source ledger entry, if any
                 .payload(rs.getString("payload"))                            // JSON payload as string
+                .payloadBytes(rs.getBytes("payload_bin"))                    // binary payload, null for JSON
+                .contentType(rs.getString("content_type"))                   // Kafka content-type header
                 .createdAt(rs.getObject("created_at", OffsetDateTime.class)) // creation time
                 .publishedAt(rs.getObject("published_at", OffsetDateTime.class)) // null if unpublished
                 .build();
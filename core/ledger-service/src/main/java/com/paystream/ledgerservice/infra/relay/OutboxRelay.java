@@ -1,33 +1,181 @@
 package com.paystream.ledgerservice.infra.relay;
 
+import com.paystream.common.events.LedgerEntryAppendedCodec;
 import com.paystream.ledgerservice.domain.OutboxRecord;
 import com.paystream.ledgerservice.infra.repo.OutboxRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Publishes ledger_outbox rows to Kafka.
+ * - Sends a whole batch asynchronously and waits for all broker acks together.
+ * - Only acked rows are marked published, with a single UPDATE per batch.
+ * - Values are raw bytes (JSON text or the compact binary encoding); the row's content_type
+ *   goes into the content-type header so consumers can read both.
+ * - Drains back-to-back while batches keep getting acked; otherwise waits idle-delay-ms.
+ * - Safe to run on N instances: each publish round claims a few key buckets with
+ *   FOR UPDATE SKIP LOCKED and holds them until the round commits, so a key is only
+ *   ever published by one relay at a time and in insertion order.
+ */
+@Slf4j
 @EnableScheduling
 @Component
-@RequiredArgsConstructor
 @ConditionalOnProperty(value = "ledger.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
 public class OutboxRelay {
 
     private final OutboxRepository outboxRepo;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaTemplate<String, byte[]> kafkaTemplate;
+    private final TransactionTemplate tx;
 
-    @Scheduled(fixedDelay = 250)
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong oldestUnpublishedAgeMs = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+    private final Timer publishLag;
+
+    @Value("${ledger.outbox.relay.batch-size:500}")
+    private int batchSize = 500;
+
+    // Out of 64; lower values spread the backlog over more instances
+    @Value("${ledger.outbox.relay.buckets-per-claim:16}")
+    private int bucketsPerClaim = 16;
+
+    @Value("${ledger.outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs = 10_000;
+
+    public OutboxRelay(OutboxRepository outboxRepo,
+                       KafkaTemplate<String, byte[]> kafkaTemplate,
+                       MeterRegistry meters,
+                       TransactionTemplate tx) {
+        this.outboxRepo = outboxRepo;
+        this.kafkaTemplate = kafkaTemplate;
+        this.tx = tx;
+
+        Gauge.builder("ledger.outbox.backlog", backlog, AtomicLong::get)
+                .description("Unpublished ledger_outbox rows")
+                .register(meters);
+        Gauge.builder("ledger.outbox.relay.lag", oldestUnpublishedAgeMs, AtomicLong::get)
+                .description("Age of the oldest unpublished ledger_outbox row")
+                .baseUnit("milliseconds")
+                .register(meters);
+        this.published = Counter.builder("ledger.outbox.relay.published").register(meters);
+        this.failed = Counter.builder("ledger.outbox.relay.failed").register(meters);
+        this.publishLag = Timer.builder("ledger.outbox.relay.publish.lag")
+                .description("Time from outbox insert to broker ack")
+                .register(meters);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.outbox.relay.idle-delay-ms:250}")
     public void pump() {
-        List<OutboxRecord> batch = outboxRepo.fetchUnpublishedBatch(100);
+        // Keep draining while rounds make progress; stop on an empty or fully failed round
+        int acked;
+        do {
+            acked = publishBatch();
+        } while (acked > 0);
+
+        refreshBacklog();
+    }
+
+    /**
+     * One claim → send → mark round. The bucket claim lives as long as this transaction,
+     * i.e. until the acked rows are marked published and committed.
+     *
+     * @return number of rows acked by Kafka and marked published
+     */
+    public int publishBatch() {
+        Integer acked = tx.execute(status -> {
+            List<Integer> buckets = outboxRepo.claimBuckets(bucketsPerClaim);
+            return publish(outboxRepo.fetchUnpublishedBatch(buckets, batchSize));
+        });
+        return acked == null ? 0 : acked;
+    }
+
+    private int publish(List<OutboxRecord> batch) {
+        if (batch.isEmpty()) return 0;
+
+        List<CompletableFuture<SendResult<String, byte[]>>> futures = new ArrayList<>(batch.size());
         for (OutboxRecord rec : batch) {
-            kafkaTemplate.send("ledger.entry.appended",
-                    rec.getKeyAccountId().toString(),
-                    rec.getPayload());
-            outboxRepo.markPublished(rec.getId());
+            // event_type doubles as the topic (ledger.entry.appended, ledger.reconciliation.mismatch)
+            ProducerRecord<String, byte[]> msg = new ProducerRecord<>(
+                    rec.getEventType(), rec.getKeyAccountId().toString(), value(rec));
+            msg.headers().add(LedgerEntryAppendedCodec.HEADER, rec.getContentType().getBytes(StandardCharsets.UTF_8));
+            futures.add(kafkaTemplate.send(msg));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // Individual failures are handled below; acked rows are still marked
+            log.warn("Some outbox sends failed: {}", ex.getCause().toString());
+        } catch (TimeoutException ex) {
+            log.warn("Outbox sends not acked within {} ms; unacked rows will be retried", sendTimeoutMs);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        // Per key, only the acked prefix is marked: once a row of a key fails, its later
+        // rows are re-sent after it on the next round instead of overtaking it
+        OffsetDateTime now = OffsetDateTime.now();
+        List<UUID> ackedIds = new ArrayList<>(batch.size());
+        Set<UUID> failedKeys = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            CompletableFuture<?> f = futures.get(i);
+            OutboxRecord rec = batch.get(i);
+            if (!f.isDone() || f.isCompletedExceptionally()) {
+                failedKeys.add(rec.getKeyAccountId());
+            } else if (!failedKeys.contains(rec.getKeyAccountId())) {
+                ackedIds.add(rec.getId());
+                if (rec.getCreatedAt() != null) {
+                    publishLag.record(Duration.between(rec.getCreatedAt(), now));
+                }
+            }
         }
+
+        outboxRepo.markPublished(ackedIds);
+        published.increment(ackedIds.size());
+        failed.increment(batch.size() - ackedIds.size());
+        return ackedIds.size();
+    }
+
+    // JSON rows go out as their UTF-8 text, byte-identical to what the String serializer sent
+    private static byte[] value(OutboxRecord rec) {
+        return rec.getPayloadBytes() != null
+                ? rec.getPayloadBytes()
+                : rec.getPayload().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void refreshBacklog() {
+        OutboxRepository.BacklogStats stats = outboxRepo.backlogStats();
+        backlog.set(stats.size());
+        oldestUnpublishedAgeMs.set(stats.oldestCreatedAt() == null
+                ? 0
+                : Math.max(0, Duration.between(stats.oldestCreatedAt(), OffsetDateTime.now()).toMillis()));
     }
 }
@@ -4,6 +4,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -38,4 +44,201 @@ public class AccountSnapshotRepository {
 
         jdbc.update(sql, accountId, currency, deltaMinor, ledgerOffset);
     }
+
+    public static record Delta(UUID accountId, String currency, long deltaMinor, long ledgerOffset) {}
+
+    /**
+     * Applies a whole poll with one statement: events are grouped per (account, currency),
+     * deltas summed and the max offset kept. Events at or below the stored offset are left out
+     * of the sum, so a redelivered poll is still a NO-OP for what was already applied.
+     */
+    public int applyDeltas(List<Delta> deltas) {
+        if (deltas.isEmpty()) return 0;
+
+        final String sql = """
+            WITH ev AS (
+                SELECT * FROM unnest(?::uuid[], ?::text[], ?::bigint[], ?::bigint[])
+                       AS e(account_id, currency, delta_minor, ledger_offset)
+            ), agg AS (
+                SELECT ev.account_id, ev.currency,
+                       sum(ev.delta_minor) AS delta_minor, max(ev.ledger_offset) AS ledger_offset
+                FROM ev
+                LEFT JOIN account_snapshots s
+                       ON s.account_id = ev.account_id AND s.currency = ev.currency
+                WHERE s.as_of_ledger_offset IS NULL OR ev.ledger_offset > s.as_of_ledger_offset
+                GROUP BY ev.account_id, ev.currency
+            )
+            INSERT INTO account_snapshots(account_id, currency, balance_minor, as_of_ledger_offset)
+            SELECT account_id, currency, delta_minor, ledger_offset FROM agg
+            ON CONFLICT (account_id, currency)
+            DO UPDATE SET
+                balance_minor       = account_snapshots.balance_minor + EXCLUDED.balance_minor,
+                as_of_ledger_offset = EXCLUDED.as_of_ledger_offset
+            WHERE account_snapshots.as_of_ledger_offset IS NULL
+               OR account_snapshots.as_of_ledger_offset < EXCLUDED.as_of_ledger_offset
+            """;
+
+        return jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", deltas.stream().map(Delta::accountId).toArray()));
+            ps.setArray(2, con.createArrayOf("text", deltas.stream().map(Delta::currency).toArray()));
+            ps.setArray(3, con.createArrayOf("int8", deltas.stream().map(Delta::deltaMinor).toArray()));
+            ps.setArray(4, con.createArrayOf("int8", deltas.stream().map(Delta::ledgerOffset).toArray()));
+            return ps;
+        });
+    }
+
+    public static record Key(UUID accountId, String currency) {}
+
+    public static record Snapshot(long balanceMinor, Long asOfLedgerOffset, Long asOfAccountSeq) {}
+
+    public Optional<Snapshot> find(Key key) {
+        return jdbc.query("""
+            SELECT balance_minor, as_of_ledger_offset, as_of_account_seq
+            FROM account_snapshots
+            WHERE account_id = ? AND currency = ?
+        """, (rs, i) -> new Snapshot(rs.getLong(1), (Long) rs.getObject(2), (Long) rs.getObject(3)),
+                key.accountId(), key.currency()).stream().findFirst();
+    }
+
+    /** A contiguous account_seq range [fromSeq, toSeq] of one account, already summed. */
+    public static record SeqRun(Key key, long deltaMinor, long maxLedgerOffset, long fromSeq, long toSeq) {}
+
+    /** Last applied account_seq per key; 0 when there is no snapshot or no seq-based event yet. */
+    public Map<Key, Long> appliedSeqs(Collection<Key> keys) {
+        Map<Key, Long> seqs = new HashMap<>();
+        for (Key k : keys) seqs.put(k, 0L);
+        if (keys.isEmpty()) return seqs;
+
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                SELECT s.account_id, s.currency, coalesce(s.as_of_account_seq, 0)
+                FROM account_snapshots s
+                JOIN unnest(?::uuid[], ?::text[]) AS k(account_id, currency)
+                  ON k.account_id = s.account_id AND k.currency = s.currency
+            """);
+            ps.setArray(1, con.createArrayOf("uuid", keys.stream().map(Key::accountId).toArray()));
+            ps.setArray(2, con.createArrayOf("text", keys.stream().map(Key::currency).toArray()));
+            return ps;
+        }, rs -> {
+            seqs.put(new Key((UUID) rs.getObject(1), rs.getString(2)), rs.getLong(3));
+        });
+        return seqs;
+    }
+
+    /**
+     * Applies contiguous runs in one JDBC batch. On an existing snapshot a run only lands if it is
+     * exactly at fromSeq - 1, so a stale or duplicate run is a NO-OP instead of a double count.
+     * (Runs are built from {@link #appliedSeqs}, so a missing snapshot always gets fromSeq = 1.)
+     * as_of_ledger_offset only moves forward (seq order and offset order may differ per account).
+     */
+    public void applyRuns(List<SeqRun> runs) {
+        if (runs.isEmpty()) return;
+
+        final String sql = """
+            INSERT INTO account_snapshots(account_id, currency, balance_minor, as_of_ledger_offset, as_of_account_seq)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (account_id, currency)
+            DO UPDATE SET
+                balance_minor       = account_snapshots.balance_minor + EXCLUDED.balance_minor,
+                as_of_ledger_offset = greatest(account_snapshots.as_of_ledger_offset, EXCLUDED.as_of_ledger_offset),
+                as_of_account_seq   = EXCLUDED.as_of_account_seq
+            WHERE coalesce(account_snapshots.as_of_account_seq, 0) = ? - 1
+            """;
+
+        jdbc.batchUpdate(sql, runs, runs.size(), (ps, r) -> {
+            ps.setObject(1, r.key().accountId());
+            ps.setString(2, r.key().currency());
+            ps.setLong(3, r.deltaMinor());
+            ps.setLong(4, r.maxLedgerOffset());
+            ps.setLong(5, r.toSeq());
+            ps.setLong(6, r.fromSeq());
+        });
+    }
+
+    /**
+     * Everything booked for each key after its applied seq, summed from ledger_entries.
+     * Committed seqs of an account are gapless, so the result is one contiguous run per key;
+     * apply it with {@link #applyRuns} like any other run.
+     */
+    public List<SeqRun> runsFromLedger(Map<Key, Long> appliedSeqs) {
+        if (appliedSeqs.isEmpty()) return List.of();
+        List<Key> keys = List.copyOf(appliedSeqs.keySet());
+
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                SELECT k.account_id, k.currency, k.applied,
+                       sum(e.amount_minor), max(e.ledger_offset), max(e.account_seq), count(*)
+                FROM unnest(?::uuid[], ?::text[], ?::bigint[]) AS k(account_id, currency, applied)
+                JOIN ledger_entries e
+                  ON e.account_id = k.account_id AND e.currency = k.currency AND e.account_seq > k.applied
+                GROUP BY k.account_id, k.currency, k.applied
+            """);
+            ps.setArray(1, con.createArrayOf("uuid", keys.stream().map(Key::accountId).toArray()));
+            ps.setArray(2, con.createArrayOf("text", keys.stream().map(Key::currency).toArray()));
+            ps.setArray(3, con.createArrayOf("int8", keys.stream().map(appliedSeqs::get).toArray()));
+            return ps;
+        }, (rs, i) -> {
+            long applied = rs.getLong(3);
+            long toSeq = rs.getLong(6);
+            if (rs.getLong(7) != toSeq - applied) {
+                throw new IllegalStateException("account_seq gap in ledger_entries for account "
+                        + rs.getObject(1) + " " + rs.getString(2) + " after seq " + applied);
+            }
+            return new SeqRun(new Key((UUID) rs.getObject(1), rs.getString(2)),
+                    rs.getLong(4), rs.getLong(5), applied + 1, toSeq);
+        });
+    }
+
+    /** Records (or extends) an open gap per key; polls counts the polls it has stayed open. */
+    public void openGaps(Map<Key, Long> upToSeqs) {
+        if (upToSeqs.isEmpty()) return;
+        List<Map.Entry<Key, Long>> gaps = List.copyOf(upToSeqs.entrySet());
+
+        jdbc.batchUpdate("""
+            INSERT INTO account_snapshot_gaps(account_id, currency, up_to_seq)
+            VALUES (?, ?, ?)
+            ON CONFLICT (account_id, currency)
+            DO UPDATE SET
+                up_to_seq = greatest(account_snapshot_gaps.up_to_seq, EXCLUDED.up_to_seq),
+                polls     = account_snapshot_gaps.polls + 1
+            """, gaps, gaps.size(), (ps, g) -> {
+            ps.setObject(1, g.getKey().accountId());
+            ps.setString(2, g.getKey().currency());
+            ps.setLong(3, g.getValue());
+        });
+    }
+
+    /** Removes the gaps of these keys whose snapshot has reached up_to_seq. */
+    public int closeGaps(Collection<Key> keys) {
+        if (keys.isEmpty()) return 0;
+
+        return jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                DELETE FROM account_snapshot_gaps g
+                USING unnest(?::uuid[], ?::text[]) AS k(account_id, currency), account_snapshots s
+                WHERE g.account_id = k.account_id AND g.currency = k.currency
+                  AND s.account_id = g.account_id AND s.currency = g.currency
+                  AND coalesce(s.as_of_account_seq, 0) >= g.up_to_seq
+            """);
+            ps.setArray(1, con.createArrayOf("uuid", keys.stream().map(Key::accountId).toArray()));
+            ps.setArray(2, con.createArrayOf("text", keys.stream().map(Key::currency).toArray()));
+            return ps;
+        });
+    }
+
+    /**
+     * Gaps open for at least minPolls polls or older than minAgeMs, locked for the caller's
+     * transaction. Gaps another consumer thread is touching right now are skipped.
+     */
+    public List<Key> lockDueGaps(int minPolls, long minAgeMs, int limit) {
+        return jdbc.query("""
+            SELECT account_id, currency
+            FROM account_snapshot_gaps
+            WHERE polls >= ? OR opened_at < now() - ? * interval '1 millisecond'
+            ORDER BY opened_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+        """, (rs, i) -> new Key((UUID) rs.getObject(1), rs.getString(2)), minPolls, minAgeMs, limit);
+    }
 }
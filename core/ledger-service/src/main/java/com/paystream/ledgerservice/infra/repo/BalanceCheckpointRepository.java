@@ -0,0 +1,173 @@
+package com.paystream.ledgerservice.infra.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Checkpoint rows + the job state behind point-in-time balance queries (see V9 migration).
+ */
+@Repository
+@RequiredArgsConstructor
+public class BalanceCheckpointRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public static record Checkpoint(long ledgerOffset, long balanceMinor, OffsetDateTime checkpointAt) {}
+
+    public static record Delta(long sumMinor, Long lastOffset, int entries) {}
+
+    public static record Key(UUID accountId, String currency) {}
+
+    public static record Head(long balanceMinor, long lastOffset, int entriesSince) {}
+
+    public static record EntryRow(long ledgerOffset, UUID accountId, String currency,
+                                  long amountMinor, OffsetDateTime createdAt) {}
+
+    public static record NewCheckpoint(Key key, long ledgerOffset, long balanceMinor, OffsetDateTime checkpointAt) {}
+
+    // ---------- query side ----------
+
+    public Optional<Checkpoint> latestAtOrBefore(UUID accountId, String currency, long ledgerOffset) {
+        return jdbc.query("""
+            SELECT ledger_offset, balance_minor, checkpoint_at
+            FROM account_balance_checkpoints
+            WHERE account_id = ? AND currency = ? AND ledger_offset <= ?
+            ORDER BY ledger_offset DESC
+            LIMIT 1
+        """, (rs, i) -> new Checkpoint(rs.getLong(1), rs.getLong(2), rs.getObject(3, OffsetDateTime.class)),
+                accountId, currency, ledgerOffset).stream().findFirst();
+    }
+
+    public Optional<Checkpoint> latestAtOrBefore(UUID accountId, String currency, OffsetDateTime at) {
+        return jdbc.query("""
+            SELECT ledger_offset, balance_minor, checkpoint_at
+            FROM account_balance_checkpoints
+            WHERE account_id = ? AND currency = ? AND checkpoint_at <= ?
+            ORDER BY checkpoint_at DESC, ledger_offset DESC
+            LIMIT 1
+        """, (rs, i) -> new Checkpoint(rs.getLong(1), rs.getLong(2), rs.getObject(3, OffsetDateTime.class)),
+                accountId, currency, at).stream().findFirst();
+    }
+
+    // Index-only range scan on ix_ledger_account_currency(account_id, currency, ledger_offset)
+    public Delta deltaAfter(UUID accountId, String currency, long afterOffset, long upToOffset) {
+        return jdbc.queryForObject("""
+            SELECT coalesce(sum(amount_minor), 0), max(ledger_offset), count(*)
+            FROM ledger_entries
+            WHERE account_id = ? AND currency = ? AND ledger_offset > ? AND ledger_offset <= ?
+        """, (rs, i) -> new Delta(rs.getLong(1), (Long) rs.getObject(2), rs.getInt(3)),
+                accountId, currency, afterOffset, upToOffset);
+    }
+
+    /**
+     * Time-based delta, bounded above by the account's first checkpoint after {@code upTo} so the
+     * scan never runs to the head of a busy account's history.
+     *
+     * created_at is the transaction start, which is not monotonic in ledger_offset: an entry
+     * beyond that checkpoint can still carry a created_at at or before {@code upTo} if its
+     * transaction started earlier and committed later. Such an entry is left out. The window is
+     * the skew between start and commit of one booking (milliseconds), the same granularity the
+     * time-based query already has.
+     */
+    public Delta deltaAfter(UUID accountId, String currency, long afterOffset, OffsetDateTime upTo) {
+        return jdbc.queryForObject("""
+            SELECT coalesce(sum(e.amount_minor), 0), max(e.ledger_offset), count(*)
+            FROM ledger_entries e
+            WHERE e.account_id = ? AND e.currency = ? AND e.ledger_offset > ?
+              AND e.ledger_offset <= coalesce((
+                    SELECT c.ledger_offset
+                    FROM account_balance_checkpoints c
+                    WHERE c.account_id = ? AND c.currency = ? AND c.checkpoint_at > ?   -- one-off InitPlan
+                    ORDER BY c.checkpoint_at, c.ledger_offset
+                    LIMIT 1
+                  ), 9223372036854775807)
+              AND e.created_at <= ?
+        """, (rs, i) -> new Delta(rs.getLong(1), (Long) rs.getObject(2), rs.getInt(3)),
+                accountId, currency, afterOffset, accountId, currency, upTo, upTo);
+    }
+
+    // ---------- job side (call inside one transaction) ----------
+
+    /** Locks the watermark row; empty if another instance is running the job right now. */
+    public Optional<Long> lockWatermark() {
+        return jdbc.queryForList(
+                "SELECT last_offset FROM ledger_checkpoint_state WHERE id = 1 FOR UPDATE SKIP LOCKED",
+                Long.class).stream().findFirst();
+    }
+
+    public void saveWatermark(long lastOffset) {
+        jdbc.update("UPDATE ledger_checkpoint_state SET last_offset = ? WHERE id = 1", lastOffset);
+    }
+
+    public List<EntryRow> entriesAfter(long afterOffset, long upToOffset, int limit) {
+        return jdbc.query("""
+            SELECT ledger_offset, account_id, currency, amount_minor, created_at
+            FROM ledger_entries
+            WHERE ledger_offset > ? AND ledger_offset <= ?
+            ORDER BY ledger_offset
+            LIMIT ?
+        """, (rs, i) -> new EntryRow(rs.getLong(1), (UUID) rs.getObject(2), rs.getString(3),
+                rs.getLong(4), rs.getObject(5, OffsetDateTime.class)), afterOffset, upToOffset, limit);
+    }
+
+    public Map<Key, Head> loadHeads(List<Key> keys) {
+        Map<Key, Head> heads = new HashMap<>();
+        if (keys.isEmpty()) return heads;
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                SELECT h.account_id, h.currency, h.balance_minor, h.last_offset, h.entries_since
+                FROM account_checkpoint_heads h
+                JOIN unnest(?::uuid[], ?::text[]) AS k(account_id, currency)
+                  ON k.account_id = h.account_id AND k.currency = h.currency
+            """);
+            ps.setArray(1, con.createArrayOf("uuid", keys.stream().map(Key::accountId).toArray()));
+            ps.setArray(2, con.createArrayOf("text", keys.stream().map(Key::currency).toArray()));
+            return ps;
+        }, rs -> {
+            heads.put(new Key((UUID) rs.getObject(1), rs.getString(2)),
+                    new Head(rs.getLong(3), rs.getLong(4), rs.getInt(5)));
+        });
+        return heads;
+    }
+
+    public void saveHeads(Map<Key, Head> heads) {
+        jdbc.batchUpdate("""
+            INSERT INTO account_checkpoint_heads(account_id, currency, balance_minor, last_offset, entries_since)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (account_id, currency) DO UPDATE SET
+                balance_minor = EXCLUDED.balance_minor,
+                last_offset   = EXCLUDED.last_offset,
+                entries_since = EXCLUDED.entries_since
+        """, List.copyOf(heads.entrySet()), heads.size(), (ps, e) -> {
+            ps.setObject(1, e.getKey().accountId());
+            ps.setString(2, e.getKey().currency());
+            ps.setLong(3, e.getValue().balanceMinor());
+            ps.setLong(4, e.getValue().lastOffset());
+            ps.setInt(5, e.getValue().entriesSince());
+        });
+    }
+
+    public void insertCheckpoints(List<NewCheckpoint> checkpoints) {
+        jdbc.batchUpdate("""
+            INSERT INTO account_balance_checkpoints(account_id, currency, ledger_offset, balance_minor, checkpoint_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT DO NOTHING
+        """, checkpoints, checkpoints.size(), (ps, c) -> {
+            ps.setObject(1, c.key().accountId());
+            ps.setString(2, c.key().currency());
+            ps.setLong(3, c.ledgerOffset());
+            ps.setLong(4, c.balanceMinor());
+            ps.setTimestamp(5, Timestamp.from(c.checkpointAt().toInstant()));
+        });
+    }
+}
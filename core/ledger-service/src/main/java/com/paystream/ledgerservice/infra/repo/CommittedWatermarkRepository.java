@@ -0,0 +1,82 @@
+package com.paystream.ledgerservice.infra.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Commit-ordered watermark over ledger_offset (see V16 migration).
+ * Every job that walks ledger_entries by offset reads its upper bound from here instead of
+ * guessing from created_at: an offset at or below {@link #safeOffset()} is committed or will
+ * never commit, so nothing below it can show up later.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CommittedWatermarkRepository {
+
+    private final JdbcTemplate jdbc;
+
+    /**
+     * Promotes the pending offset if every transaction that could have drawn it has finished,
+     * then records a new pending offset. Returns the (possibly unchanged) safe offset.
+     *
+     * The sequence must be read before the snapshot the UPDATE runs on, so this needs two
+     * statements and must not join a caller's transaction (a REPEATABLE READ snapshot would
+     * predate the read).
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public long advance() {
+        long assigned = lastAssignedOffset();
+        Long safe = jdbc.queryForObject("""
+            WITH snap AS (
+                SELECT pg_current_snapshot() AS s
+            ), adv AS (
+                UPDATE ledger_committed_watermark w SET
+                    safe_offset    = greatest(w.safe_offset, w.pending_offset),
+                    pending_offset = ?,
+                    pending_xmax   = pg_snapshot_xmax(snap.s)
+                FROM snap
+                WHERE w.id = 1 AND pg_snapshot_xmin(snap.s) >= w.pending_xmax
+                RETURNING w.safe_offset
+            )
+            SELECT coalesce((SELECT safe_offset FROM adv),
+                            (SELECT safe_offset FROM ledger_committed_watermark WHERE id = 1))
+        """, Long.class, assigned);
+        return safe == null ? 0 : safe;
+    }
+
+    public long safeOffset() {
+        Long safe = jdbc.queryForObject("SELECT safe_offset FROM ledger_committed_watermark WHERE id = 1", Long.class);
+        return safe == null ? 0 : safe;
+    }
+
+    /**
+     * End of the next chunk after afterOffset: the offset of the limit-th entry, or the safe
+     * offset if fewer entries are below it. Returns afterOffset when there is nothing to take.
+     */
+    public long chunkEnd(long afterOffset, int limit) {
+        long safe = safeOffset();
+        if (safe <= afterOffset) return afterOffset;
+        Long end = jdbc.queryForObject("""
+            SELECT CASE WHEN count(*) < ? THEN ? ELSE max(ledger_offset) END
+            FROM (
+                SELECT ledger_offset
+                FROM ledger_entries
+                WHERE ledger_offset > ? AND ledger_offset <= ?
+                ORDER BY ledger_offset
+                LIMIT ?
+            ) w
+        """, Long.class, limit, safe, afterOffset, safe, limit);
+        return end == null ? afterOffset : Math.max(afterOffset, end);
+    }
+
+    /** Last offset handed out by ledger_offset_seq (exact with CACHE 1). */
+    public long lastAssignedOffset() {
+        Long n = jdbc.queryForObject(
+                "SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM ledger_offset_seq",
+                Long.class);
+        return n == null ? 0 : n;
+    }
+}
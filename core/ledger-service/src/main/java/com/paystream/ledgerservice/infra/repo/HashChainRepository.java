@@ -0,0 +1,149 @@
+package com.paystream.ledgerservice.infra.repo;
+
+import com.paystream.ledgerservice.domain.HashBlock;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hash chain tables (see V15 migration). Entry reads are primary-key range scans over one
+ * block; block reads go through block_no or ux_hash_blocks_to_offset.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HashChainRepository {
+
+    public static final String SEALER = "sealer";
+    public static final String VERIFIER = "verifier";
+
+    private final JdbcTemplate jdbc;
+
+    public static record EntryHash(long ledgerOffset, byte[] hash) {}
+
+    private static final RowMapper<HashBlock> BLOCK = (rs, i) -> new HashBlock(
+            rs.getLong("block_no"),
+            rs.getLong("from_offset"),
+            rs.getLong("to_offset"),
+            rs.getInt("entry_count"),
+            rs.getBytes("merkle_root"),
+            rs.getBytes("prev_hash"),
+            rs.getBytes("block_hash"),
+            rs.getObject("sealed_at", OffsetDateTime.class),
+            (Boolean) rs.getObject("verify_ok"));
+
+    private static final String BLOCK_COLUMNS = """
+        block_no, from_offset, to_offset, entry_count, merkle_root, prev_hash, block_hash, sealed_at, verify_ok
+        """;
+
+    // ---------- job positions (call inside one transaction) ----------
+
+    /** Locks the job's position row; empty if another instance is running that job right now. */
+    public Optional<Long> lockPosition(String job) {
+        return jdbc.queryForList(
+                "SELECT position FROM ledger_hash_chain_state WHERE name = ? FOR UPDATE SKIP LOCKED",
+                Long.class, job).stream().findFirst();
+    }
+
+    public long position(String job) {
+        return jdbc.queryForObject("SELECT position FROM ledger_hash_chain_state WHERE name = ?", Long.class, job);
+    }
+
+    public void savePosition(String job, long position) {
+        jdbc.update("UPDATE ledger_hash_chain_state SET position = ? WHERE name = ?", position, job);
+    }
+
+    // ---------- entries ----------
+
+    /**
+     * Hashes the entries of [fromOffset, toOffset] booked before V15 (entry_hash NULL); a primary-key
+     * range scan that updates nothing once the sealer is past the pre-V15 offsets.
+     */
+    public int hashMissing(long fromOffset, long toOffset) {
+        return jdbc.update("""
+            UPDATE ledger_entries
+            SET entry_hash = ledger_entry_hash(entry_id, tx_id, tx_seq, account_id, currency, amount_minor,
+                                               ledger_offset, account_seq, created_at)
+            WHERE ledger_offset BETWEEN ? AND ?
+              AND entry_hash IS NULL
+        """, fromOffset, toOffset);
+    }
+
+    /** Stored entry hashes of [fromOffset, toOffset] in offset order (the Merkle leaves). */
+    public List<EntryHash> entryHashes(long fromOffset, long toOffset) {
+        return jdbc.query("""
+            SELECT ledger_offset, entry_hash
+            FROM ledger_entries
+            WHERE ledger_offset BETWEEN ? AND ?
+            ORDER BY ledger_offset
+        """, (rs, i) -> new EntryHash(rs.getLong(1), rs.getBytes(2)), fromOffset, toOffset);
+    }
+
+    /** Offsets in [fromOffset, toOffset] whose content no longer matches their stored hash. */
+    public List<Long> contentMismatches(long fromOffset, long toOffset) {
+        return jdbc.queryForList("""
+            SELECT ledger_offset
+            FROM ledger_entries
+            WHERE ledger_offset BETWEEN ? AND ?
+              AND entry_hash IS DISTINCT FROM ledger_entry_hash(entry_id, tx_id, tx_seq, account_id, currency,
+                                                                amount_minor, ledger_offset, account_seq, created_at)
+            ORDER BY ledger_offset
+        """, Long.class, fromOffset, toOffset);
+    }
+
+    // ---------- blocks ----------
+
+    public void insertBlock(HashBlock b) {
+        jdbc.update("""
+            INSERT INTO ledger_hash_blocks(block_no, from_offset, to_offset, entry_count, merkle_root, prev_hash, block_hash)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+        """, b.blockNo(), b.fromOffset(), b.toOffset(), b.entryCount(), b.merkleRoot(), b.prevHash(), b.blockHash());
+    }
+
+    public Optional<HashBlock> block(long blockNo) {
+        return jdbc.query("SELECT " + BLOCK_COLUMNS + " FROM ledger_hash_blocks WHERE block_no = ?", BLOCK, blockNo)
+                .stream().findFirst();
+    }
+
+    /** Sealed block containing the offset; empty if the offset is not sealed yet. */
+    public Optional<HashBlock> blockContaining(long ledgerOffset) {
+        return jdbc.query("""
+            SELECT %s FROM ledger_hash_blocks
+            WHERE to_offset >= ?
+            ORDER BY to_offset
+            LIMIT 1
+        """.formatted(BLOCK_COLUMNS), BLOCK, ledgerOffset)
+                .stream().filter(b -> b.fromOffset() <= ledgerOffset).findFirst();
+    }
+
+    public List<HashBlock> blocksAfter(long blockNo, int limit) {
+        return jdbc.query("""
+            SELECT %s FROM ledger_hash_blocks
+            WHERE block_no > ?
+            ORDER BY block_no
+            LIMIT ?
+        """.formatted(BLOCK_COLUMNS), BLOCK, blockNo, limit);
+    }
+
+    /** Blocks overlapping [fromOffset, toOffset], in chain order. */
+    public List<HashBlock> blocksCovering(long fromOffset, long toOffset, int limit) {
+        return jdbc.query("""
+            SELECT %s FROM ledger_hash_blocks
+            WHERE to_offset >= ? AND from_offset <= ?
+            ORDER BY to_offset
+            LIMIT ?
+        """.formatted(BLOCK_COLUMNS), BLOCK, fromOffset, toOffset, limit);
+    }
+
+    public void markVerified(long blockNo, boolean ok) {
+        jdbc.update("UPDATE ledger_hash_blocks SET verified_at = now(), verify_ok = ? WHERE block_no = ?", ok, blockNo);
+    }
+
+    public long failedBlocks() {
+        return jdbc.queryForObject("SELECT count(*) FROM ledger_hash_blocks WHERE verify_ok = false", Long.class);
+    }
+}
@@ -2,12 +2,21 @@ package com.paystream.ledgerservice.infra.repo;
 
 import com.paystream.ledgerservice.domain.LedgerEntry;
 import com.paystream.ledgerservice.infra.mapper.LedgerEntryRowMapper;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
 import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
 
 @Repository
 @RequiredArgsConstructor
@@ -19,28 +28,8 @@ public class LedgerEntryRepository {
     public static record InsertResult(long offset, boolean inserted, OffsetDateTime createdAt) {}
 
     public InsertResult upsert(LedgerEntry e) {
-        final String sql = """
-            INSERT INTO ledger_entries(
-                entry_id, tx_id, tx_seq, account_id, currency, amount_minor, created_at, ledger_offset
-            ) VALUES (?, ?, ?, ?, ?, ?, now(), nextval('ledger_offset_seq'))
-            ON CONFLICT (tx_id, tx_seq) DO NOTHING
-            RETURNING ledger_offset, created_at
-        """;
-
-        var list = jdbc.query(sql,
-                rs -> {
-                    if (!rs.next()) return List.<InsertResult>of();
-                    var created = rs.getObject("created_at", OffsetDateTime.class);
-                    return List.of(new InsertResult(rs.getLong("ledger_offset"), true, created));
-                },
-                e.getEntryId(), e.getTxId(), e.getTxSeq(), e.getAccountId(), e.getCurrency(), e.getAmountMinor()
-        );
-
-        if (!list.isEmpty()) {
-            var r = list.get(0);
-            e.setLedgerOffset(r.offset());
-            e.setCreatedAt(r.createdAt());
-            return r;
+        if (!insertAll(List.of(e)).isEmpty()) {
+            return new InsertResult(e.getLedgerOffset(), true, e.getCreatedAt());
         }
 
         // Kayıt zaten var → mevcut offset/created_at değerini çek
@@ -59,4 +48,214 @@ public class LedgerEntryRepository {
         e.setCreatedAt(existing.createdAt());
         return existing;
     }
-}
\ No newline at end of file
+
+    /**
+     * Inserts all lines of a transaction with a single statement.
+     * Offsets are drawn from ledger_offset_seq in input order inside the same statement (through
+     * ledger_next_offset(), which gives the transaction its xid first; the committed watermark
+     * relies on that), and each new line gets the next gapless account_seq of its (account, currency).
+     * Lines that already exist (same tx_id, tx_seq in ledger_tx_keys) are skipped.
+     *
+     * @return only the newly inserted entries, with ledgerOffset/createdAt filled in place
+     */
+    public List<LedgerEntry> insertAll(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) return List.of();
+
+        // ledger_entries is partitioned by ledger_offset, so (tx_id, tx_seq) and entry_id uniqueness
+        // live in ledger_tx_keys: only lines whose key could be claimed are inserted as entries
+        // (a reused entry_id fails the statement instead of being skipped)
+        final String sql = """
+            WITH input AS (
+                SELECT t.*, ledger_next_offset() AS ledger_offset
+                FROM unnest(?::uuid[], ?::uuid[], ?::int[], ?::uuid[], ?::text[], ?::bigint[])
+                     WITH ORDINALITY AS t(entry_id, tx_id, tx_seq, account_id, currency, amount_minor, ord)
+                ORDER BY t.ord
+            ), claimed AS (
+                INSERT INTO ledger_tx_keys(tx_id, tx_seq, ledger_offset, entry_id)
+                SELECT tx_id, tx_seq, ledger_offset, entry_id FROM input
+                ON CONFLICT (tx_id, tx_seq) DO NOTHING
+                RETURNING ledger_offset
+            ), fresh AS (
+                SELECT i.* FROM input i JOIN claimed c ON c.ledger_offset = i.ledger_offset
+            ), seqs AS (
+                -- Reserves a contiguous account_seq range per account and moves the running
+                -- balance; rows are locked in (account_id, currency) order so concurrent
+                -- bookings cannot deadlock
+                INSERT INTO account_sequences(account_id, currency, last_seq, balance_minor)
+                SELECT account_id, currency, count(*), sum(amount_minor) FROM fresh
+                GROUP BY account_id, currency
+                ORDER BY account_id, currency
+                ON CONFLICT (account_id, currency)
+                DO UPDATE SET last_seq = account_sequences.last_seq + EXCLUDED.last_seq,
+                              balance_minor = account_sequences.balance_minor + EXCLUDED.balance_minor
+                RETURNING account_id, currency, last_seq
+            )
+            INSERT INTO ledger_entries(
+                entry_id, tx_id, tx_seq, account_id, currency, amount_minor, created_at, ledger_offset, account_seq,
+                entry_hash
+            )
+            -- entry_hash is per row (no chaining here); LedgerHashSealer chains committed ranges later
+            SELECT n.*,
+                   ledger_entry_hash(n.entry_id, n.tx_id, n.tx_seq, n.account_id, n.currency, n.amount_minor,
+                                     n.ledger_offset, n.account_seq, n.created_at)
+            FROM (
+                SELECT f.entry_id, f.tx_id, f.tx_seq, f.account_id, f.currency, f.amount_minor,
+                       now() AS created_at, f.ledger_offset,
+                       s.last_seq
+                         - count(*) OVER (PARTITION BY f.account_id, f.currency)
+                         + row_number() OVER (PARTITION BY f.account_id, f.currency ORDER BY f.ledger_offset)
+                         AS account_seq
+                FROM fresh f
+                JOIN seqs s ON s.account_id = f.account_id AND s.currency = f.currency
+            ) n
+            RETURNING entry_id, ledger_offset, created_at, account_seq
+        """;
+
+        int n = entries.size();
+        UUID[] entryIds = new UUID[n];
+        UUID[] txIds = new UUID[n];
+        Integer[] txSeqs = new Integer[n];
+        UUID[] accountIds = new UUID[n];
+        String[] currencies = new String[n];
+        Long[] amounts = new Long[n];
+        Map<UUID, LedgerEntry> byId = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            LedgerEntry e = entries.get(i);
+            entryIds[i] = e.getEntryId();
+            txIds[i] = e.getTxId();
+            txSeqs[i] = e.getTxSeq();
+            accountIds[i] = e.getAccountId();
+            currencies[i] = e.getCurrency();
+            amounts[i] = e.getAmountMinor();
+            byId.put(e.getEntryId(), e);
+        }
+
+        List<LedgerEntry> inserted = jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("uuid", entryIds));
+            ps.setArray(2, con.createArrayOf("uuid", txIds));
+            ps.setArray(3, con.createArrayOf("int4", txSeqs));
+            ps.setArray(4, con.createArrayOf("uuid", accountIds));
+            ps.setArray(5, con.createArrayOf("text", currencies));
+            ps.setArray(6, con.createArrayOf("int8", amounts));
+            return ps;
+        }, (rs, rowNum) -> {
+            LedgerEntry e = byId.get((UUID) rs.getObject("entry_id"));
+            e.setLedgerOffset(rs.getLong("ledger_offset"));
+            e.setCreatedAt(rs.getObject("created_at", OffsetDateTime.class));
+            e.setAccountSeq(rs.getLong("account_seq"));
+            return e;
+        });
+
+        // RETURNING order is not guaranteed; keep callers on global offset order
+        inserted.sort((a, b) -> Long.compare(a.getLedgerOffset(), b.getLedgerOffset()));
+        return inserted;
+    }
+
+    /**
+     * Locks the account_sequences rows of the given keys FOR UPDATE, always in
+     * (account_id, currency) order (the same order insertAll upserts them in), and returns
+     * their running balances. Keys without a row are absent from the map (balance 0).
+     * Must be called inside the booking transaction.
+     */
+    public Map<Key, Long> lockBalances(Collection<Key> keys) {
+        if (keys.isEmpty()) return Map.of();
+
+        UUID[] accountIds = keys.stream().map(Key::accountId).toArray(UUID[]::new);
+        String[] currencies = keys.stream().map(Key::currency).toArray(String[]::new);
+
+        Map<Key, Long> balances = new HashMap<>(keys.size() * 2);
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                SELECT s.account_id, s.currency, s.balance_minor
+                FROM account_sequences s
+                JOIN unnest(?::uuid[], ?::text[]) AS k(account_id, currency)
+                  ON k.account_id = s.account_id AND k.currency = s.currency
+                ORDER BY s.account_id, s.currency
+                FOR UPDATE OF s
+            """);
+            ps.setArray(1, con.createArrayOf("uuid", accountIds));
+            ps.setArray(2, con.createArrayOf("text", currencies));
+            return ps;
+        }, rs -> {
+            balances.put(new Key((UUID) rs.getObject(1), rs.getString(2)), rs.getLong(3));
+        });
+        return balances;
+    }
+
+    /**
+     * Keyset scan of entries with ledger_offset > afterOffset, in offset order; never uses OFFSET.
+     * - accountId / currency narrow the scan through ix_ledger_account_currency.
+     * - limit <= 0 means unbounded; rows are pulled through a server-side cursor of fetchSize
+     *   rows, so the caller must be inside a transaction (pgjdbc only streams without autocommit).
+     * - Stops at upToOffset (the committed watermark): a lower offset may still commit above it,
+     *   so anything past that point is left for the next call instead of being skipped.
+     */
+    public void scanAfter(long afterOffset, UUID accountId, String currency, long upToOffset,
+                          int limit, int fetchSize, Consumer<LedgerEntry> sink) {
+        StringBuilder sql = new StringBuilder("""
+            SELECT entry_id, tx_id, tx_seq, account_id, currency, amount_minor,
+                   ledger_offset, account_seq, created_at
+            FROM ledger_entries
+            WHERE ledger_offset > ? AND ledger_offset <= ?
+            """);
+        List<Object> args = new ArrayList<>();
+        args.add(afterOffset);
+        args.add(upToOffset);
+        if (accountId != null) {
+            sql.append(" AND account_id = ?");
+            args.add(accountId);
+        }
+        if (currency != null) {
+            sql.append(" AND currency = ?");
+            args.add(currency);
+        }
+        sql.append(" ORDER BY ledger_offset");
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            args.add(limit);
+        }
+
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString());
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, (ResultSetExtractor<Void>) rs -> {
+            int row = 0;
+            while (rs.next()) {
+                sink.accept(rowMapper.mapRow(rs, row++));
+            }
+            return null;
+        });
+    }
+
+    // All legs of one transaction (ix_ledger_tx); empty if the tx was never booked
+    public List<LedgerEntry> findByTxId(UUID txId) {
+        return jdbc.query("""
+            SELECT entry_id, tx_id, tx_seq, account_id, currency, amount_minor,
+                   ledger_offset, account_seq, created_at
+            FROM ledger_entries
+            WHERE tx_id = ?
+            ORDER BY tx_seq
+            """, rowMapper, txId);
+    }
+
+    // Legs of several transactions, each in tx_seq order
+    public List<LedgerEntry> findByTxIds(Collection<UUID> txIds) {
+        if (txIds.isEmpty()) return List.of();
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                SELECT entry_id, tx_id, tx_seq, account_id, currency, amount_minor,
+                       ledger_offset, account_seq, created_at
+                FROM ledger_entries
+                WHERE tx_id = ANY (?::uuid[])
+                ORDER BY tx_id, tx_seq
+                """);
+            ps.setArray(1, con.createArrayOf("uuid", txIds.toArray()));
+            return ps;
+        }, rowMapper);
+    }
+}
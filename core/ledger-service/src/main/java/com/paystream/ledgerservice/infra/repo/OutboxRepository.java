@@ -7,7 +7,10 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.OffsetDateTime;   // <<< eklendi
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -20,23 +23,50 @@ public class OutboxRepository {
 
     public void insert(OutboxRecord rec) {
         final String sql = """
-            INSERT INTO ledger_outbox(id, event_type, key_account_id, payload, created_at, published_at)
-            VALUES (?, ?, ?, ?::jsonb, now(), NULL)
+            INSERT INTO ledger_outbox(id, event_type, key_account_id, payload, payload_bin, content_type, entry_id, created_at, published_at)
+            VALUES (?, ?, ?, ?::jsonb, ?, ?, ?, now(), NULL)
             RETURNING created_at
         """;
-        OffsetDateTime createdAt = jdbc.queryForObject(
-                sql,
-                OffsetDateTime.class,
-                rec.getId(), rec.getEventType(), rec.getKeyAccountId(), rec.getPayload()
-        );
+        OffsetDateTime createdAt = jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            bind(ps, rec);
+            return ps;
+        }, rs -> {
+            rs.next();
+            return rs.getObject(1, OffsetDateTime.class);
+        });
         // testin beklediği alanı dolduruyoruz
         rec.setCreatedAt(createdAt);
         rec.setPublishedAt(null);
     }
 
+    /**
+     * Writes all records with one JDBC batch (a single multi-row INSERT when the
+     * driver runs with reWriteBatchedInserts=true).
+     */
+    public void insertAll(List<OutboxRecord> records) {
+        if (records.isEmpty()) return;
+
+        final String sql = """
+            INSERT INTO ledger_outbox(id, event_type, key_account_id, payload, payload_bin, content_type, entry_id, created_at, published_at)
+            VALUES (?, ?, ?, ?::jsonb, ?, ?, ?, now(), NULL)
+        """;
+        jdbc.batchUpdate(sql, records, records.size(), OutboxRepository::bind);
+    }
+
+    private static void bind(PreparedStatement ps, OutboxRecord rec) throws SQLException {
+        ps.setObject(1, rec.getId());
+        ps.setString(2, rec.getEventType());
+        ps.setObject(3, rec.getKeyAccountId());
+        ps.setString(4, rec.getPayload());
+        ps.setBytes(5, rec.getPayloadBytes());
+        ps.setString(6, rec.getContentType());
+        ps.setObject(7, rec.getEntryId());
+    }
+
     public List<OutboxRecord> fetchUnpublishedBatch(int limit) {
         final String sql = """
-            SELECT id, event_type, key_account_id, payload, created_at, published_at
+            SELECT id, event_type, key_account_id, entry_id, payload, payload_bin, content_type, created_at, published_at
             FROM ledger_outbox
             WHERE published_at IS NULL
             ORDER BY created_at ASC
@@ -45,7 +75,84 @@ public class OutboxRepository {
         return jdbc.query(sql, rowMapper, limit);
     }
 
+    /**
+     * Claims up to {@code max} buckets that currently have unpublished rows.
+     * Must run inside a transaction: the row locks are the claim and last until commit.
+     * Buckets held by other relays are skipped, not waited on.
+     */
+    public List<Integer> claimBuckets(int max) {
+        final String sql = """
+            SELECT b.bucket
+            FROM ledger_outbox_buckets b
+            WHERE EXISTS (
+                SELECT 1 FROM ledger_outbox o
+                WHERE o.bucket = b.bucket AND o.published_at IS NULL
+            )
+            ORDER BY random()
+            LIMIT ?
+            FOR UPDATE OF b SKIP LOCKED
+        """;
+        return jdbc.queryForList(sql, Integer.class, max);
+    }
+
+    // Unpublished rows of the claimed buckets, oldest first (per-key order is preserved)
+    public List<OutboxRecord> fetchUnpublishedBatch(List<Integer> buckets, int limit) {
+        if (buckets.isEmpty()) return List.of();
+        final String sql = """
+            SELECT id, event_type, key_account_id, entry_id, payload, payload_bin, content_type, created_at, published_at
+            FROM ledger_outbox
+            WHERE published_at IS NULL AND bucket = ANY(?)
+            ORDER BY relay_seq ASC
+            LIMIT ?
+        """;
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("int4", buckets.toArray()));
+            ps.setInt(2, limit);
+            return ps;
+        }, rowMapper);
+    }
+
     public void markPublished(UUID id) {
         jdbc.update("UPDATE ledger_outbox SET published_at = now() WHERE id = ?", id);
     }
+
+    // Marks a whole acked batch in one round trip
+    public int markPublished(List<UUID> ids) {
+        if (ids.isEmpty()) return 0;
+        return jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "UPDATE ledger_outbox SET published_at = now() WHERE id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("uuid", ids.toArray()));
+            return ps;
+        });
+    }
+
+    public static record PublishState(UUID entryId, OffsetDateTime publishedAt) {}
+
+    /**
+     * Outbox state of the given entries (ix_outbox_entry). Entries without a row are either
+     * older than the entry_id column or sit in a pruned partition, which only ever holds
+     * fully published days.
+     */
+    public List<PublishState> publishStates(Collection<UUID> entryIds) {
+        if (entryIds.isEmpty()) return List.of();
+        return jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "SELECT entry_id, published_at FROM ledger_outbox WHERE entry_id = ANY(?)");
+            ps.setArray(1, con.createArrayOf("uuid", entryIds.toArray()));
+            return ps;
+        }, (rs, i) -> new PublishState((UUID) rs.getObject("entry_id"), rs.getObject("published_at", OffsetDateTime.class)));
+    }
+
+    public static record BacklogStats(long size, OffsetDateTime oldestCreatedAt) {}
+
+    // Served by ix_outbox_unpublished (partial index on published_at IS NULL)
+    public BacklogStats backlogStats() {
+        return jdbc.queryForObject("""
+            SELECT count(*) AS size, min(created_at) AS oldest
+            FROM ledger_outbox
+            WHERE published_at IS NULL
+        """, (rs, rowNum) -> new BacklogStats(rs.getLong("size"), rs.getObject("oldest", OffsetDateTime.class)));
+    }
 }
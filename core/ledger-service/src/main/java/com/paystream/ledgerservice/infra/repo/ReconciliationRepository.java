@@ -0,0 +1,140 @@
+package com.paystream.ledgerservice.infra.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * State and queries of the continuous reconciler (see V12 migration).
+ * Everything here is an offset-range or index lookup; nothing scans a whole table.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReconciliationRepository {
+
+    private final JdbcTemplate jdbc;
+
+    public static record Key(UUID accountId, String currency) {}
+
+    /** Ledger side (folded up to the watermark) next to the snapshot row, if any. */
+    public static record SnapshotCandidate(Key key, long sumMinor, Long lastSeq, long seqCount,
+                                           Long snapshotBalance, Long snapshotSeq, Long snapshotOffset) {}
+
+    /** Ledger side next to account-service's balance row; accountKnown=false for non-customer accounts. */
+    public static record BalanceCandidate(Key key, long sumMinor, boolean accountKnown,
+                                          Long balanceMinor, Long balanceOffset) {}
+
+    public static record SeqDelta(long sumMinor, long count) {}
+
+    // ---------- watermark (call inside one transaction) ----------
+
+    /** Locks the watermark row; empty if another instance is reconciling right now. */
+    public Optional<Long> lockWatermark() {
+        return jdbc.queryForList(
+                "SELECT last_offset FROM ledger_reconcile_state WHERE id = 1 FOR UPDATE SKIP LOCKED",
+                Long.class).stream().findFirst();
+    }
+
+    public void saveWatermark(long lastOffset) {
+        jdbc.update("UPDATE ledger_reconcile_state SET last_offset = ? WHERE id = 1", lastOffset);
+    }
+
+    /** Folds entries in (afterOffset, upToOffset] into the sums and flags the touched accounts. */
+    public int fold(long afterOffset, long upToOffset) {
+        return jdbc.update("""
+            INSERT INTO ledger_reconcile_sums(account_id, currency, sum_minor, last_seq, seq_count)
+            SELECT account_id, currency, sum(amount_minor), max(account_seq), count(account_seq)
+            FROM ledger_entries
+            WHERE ledger_offset > ? AND ledger_offset <= ?
+            GROUP BY account_id, currency
+            ON CONFLICT (account_id, currency) DO UPDATE SET
+                sum_minor      = ledger_reconcile_sums.sum_minor + EXCLUDED.sum_minor,
+                last_seq       = greatest(ledger_reconcile_sums.last_seq, EXCLUDED.last_seq),
+                seq_count      = ledger_reconcile_sums.seq_count + EXCLUDED.seq_count,
+                check_snapshot = true,
+                check_balance  = true
+        """, afterOffset, upToOffset);
+    }
+
+    // ---------- comparisons ----------
+
+    /** Flagged accounts after the (account, currency) cursor, joined with account_snapshots. */
+    public List<SnapshotCandidate> snapshotCandidates(Key after, int limit) {
+        return jdbc.query("""
+            SELECT r.account_id, r.currency, r.sum_minor, r.last_seq, r.seq_count,
+                   s.balance_minor, s.as_of_account_seq, s.as_of_ledger_offset
+            FROM ledger_reconcile_sums r
+            LEFT JOIN account_snapshots s ON s.account_id = r.account_id AND s.currency = r.currency
+            WHERE r.check_snapshot AND (r.account_id, r.currency) > (?, ?)
+            ORDER BY r.account_id, r.currency
+            LIMIT ?
+        """, (rs, i) -> new SnapshotCandidate(
+                new Key((UUID) rs.getObject(1), rs.getString(2)), rs.getLong(3),
+                (Long) rs.getObject(4), rs.getLong(5),
+                (Long) rs.getObject(6), (Long) rs.getObject(7), (Long) rs.getObject(8)),
+                after.accountId(), after.currency(), limit);
+    }
+
+    /**
+     * Same for account-service's projection. account_balances has no currency column, so the
+     * account's own currency (accounts.currency) selects the matching ledger sum.
+     */
+    public List<BalanceCandidate> balanceCandidates(String accountSchema, Key after, int limit) {
+        return jdbc.query("""
+            SELECT r.account_id, r.currency, r.sum_minor, a.id IS NOT NULL,
+                   b.balance_minor, b.as_of_ledger_offset
+            FROM ledger_reconcile_sums r
+            LEFT JOIN %1$s.accounts a ON a.id = r.account_id AND a.currency = r.currency
+            LEFT JOIN %1$s.account_balances b ON b.account_id = a.id
+            WHERE r.check_balance AND (r.account_id, r.currency) > (?, ?)
+            ORDER BY r.account_id, r.currency
+            LIMIT ?
+        """.formatted(accountSchema), (rs, i) -> new BalanceCandidate(
+                new Key((UUID) rs.getObject(1), rs.getString(2)), rs.getLong(3), rs.getBoolean(4),
+                (Long) rs.getObject(5), (Long) rs.getObject(6)),
+                after.accountId(), after.currency(), limit);
+    }
+
+    /** Entries of the account after the watermark whose account_seq is at most upToSeq. */
+    public SeqDelta seqDeltaAfter(Key key, long afterOffset, long upToSeq) {
+        return jdbc.queryForObject("""
+            SELECT coalesce(sum(amount_minor), 0), count(*)
+            FROM ledger_entries
+            WHERE account_id = ? AND currency = ? AND ledger_offset > ? AND account_seq <= ?
+        """, (rs, i) -> new SeqDelta(rs.getLong(1), rs.getLong(2)),
+                key.accountId(), key.currency(), afterOffset, upToSeq);
+    }
+
+    public void clearSnapshotCheck(List<Key> keys) {
+        clear("check_snapshot", keys);
+    }
+
+    public void clearBalanceCheck(List<Key> keys) {
+        clear("check_balance", keys);
+    }
+
+    private void clear(String flag, List<Key> keys) {
+        if (keys.isEmpty()) return;
+        jdbc.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                UPDATE ledger_reconcile_sums r SET %s = false
+                FROM unnest(?::uuid[], ?::text[]) AS k(account_id, currency)
+                WHERE r.account_id = k.account_id AND r.currency = k.currency
+            """.formatted(flag));
+            ps.setArray(1, con.createArrayOf("uuid", keys.stream().map(Key::accountId).toArray()));
+            ps.setArray(2, con.createArrayOf("text", keys.stream().map(Key::currency).toArray()));
+            return ps;
+        });
+    }
+
+    public long pending(String flag) {
+        Long n = jdbc.queryForObject(
+                "SELECT count(*) FROM ledger_reconcile_sums WHERE %s".formatted(flag), Long.class);
+        return n == null ? 0 : n;
+    }
+}
@@ -0,0 +1,161 @@
+package com.paystream.ledgerservice.infra.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.UUID;
+
+/**
+ * SQL side of the account_snapshots rebuild.
+ * Work goes into account_snapshots_rebuild; account ranges are disjoint, so ranges can be
+ * aggregated in parallel without conflicts. Ranges are scanned through ix_ledger_account_currency.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SnapshotRebuildRepository {
+
+    private final JdbcTemplate jdbc;
+
+    // pg_advisory_lock key of the rebuild (any bigint unique to this job; "snapshot" in ASCII)
+    static final long REBUILD_LOCK_KEY = 0x736e617073686f74L;
+
+    public static record RangeResult(long entries, long accounts) {}
+
+    /**
+     * Session-level advisory lock on a connection of its own, held until {@link #close()}.
+     * The rebuild spans many transactions and connections (parallel ranges, the swap), so a
+     * row lock would have to keep one transaction open for the whole run; the advisory lock
+     * needs no transaction and goes away with the session if the instance dies.
+     */
+    public static final class RebuildLock implements AutoCloseable {
+        private final Connection connection;
+
+        private RebuildLock(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            // Pooled connections are not reset on return: unlock before handing it back
+            try (connection; PreparedStatement ps = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+                ps.setLong(1, REBUILD_LOCK_KEY);
+                ps.execute();
+            }
+        }
+    }
+
+    /**
+     * DB-wide guard against concurrent rebuilds (other instances included): they would drop
+     * each other's account_snapshots_rebuild. Returns null if another session holds the lock.
+     */
+    public RebuildLock tryLock() throws SQLException {
+        Connection c = jdbc.getDataSource().getConnection();
+        try (PreparedStatement ps = c.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            ps.setLong(1, REBUILD_LOCK_KEY);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getBoolean(1)) {
+                    return new RebuildLock(c);
+                }
+            }
+        } catch (SQLException | RuntimeException ex) {
+            c.close();
+            throw ex;
+        }
+        c.close();
+        return null;
+    }
+
+    /**
+     * Drops leftovers of an aborted run and creates an empty copy of account_snapshots.
+     * Only call it while holding {@link #tryLock()}.
+     */
+    public void createWorkTable() {
+        jdbc.execute("DROP TABLE IF EXISTS account_snapshots_rebuild");
+        jdbc.execute("CREATE TABLE account_snapshots_rebuild (LIKE account_snapshots INCLUDING ALL)");
+    }
+
+    /** Aggregates every entry up to highWatermark of accounts in [fromInclusive, toExclusive). */
+    public RangeResult aggregateRange(UUID fromInclusive, UUID toExclusive, long highWatermark) {
+        return jdbc.queryForObject("""
+            WITH agg AS (
+                SELECT account_id, currency, sum(amount_minor) AS balance_minor,
+                       max(ledger_offset) AS as_of_ledger_offset, max(account_seq) AS as_of_account_seq,
+                       count(*) AS n
+                FROM ledger_entries
+                WHERE account_id >= ? AND (?::uuid IS NULL OR account_id < ?::uuid)
+                  AND ledger_offset <= ?
+                GROUP BY account_id, currency
+            ), ins AS (
+                INSERT INTO account_snapshots_rebuild(account_id, currency, balance_minor, as_of_ledger_offset, as_of_account_seq)
+                SELECT account_id, currency, balance_minor, as_of_ledger_offset, as_of_account_seq FROM agg
+                RETURNING 1
+            )
+            SELECT coalesce(sum(n), 0), count(*) FROM agg
+        """, (rs, i) -> new RangeResult(rs.getLong(1), rs.getLong(2)),
+                fromInclusive, toExclusive, toExclusive, highWatermark);
+    }
+
+    /** Double-entry check on the rebuilt table: currencies whose balances do not sum to zero. */
+    public long unbalancedCurrencies() {
+        Long n = jdbc.queryForObject("""
+            SELECT count(*) FROM (
+                SELECT currency FROM account_snapshots_rebuild
+                GROUP BY currency HAVING sum(balance_minor) <> 0
+            ) t
+        """, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    /**
+     * Independent check of the rebuilt table against account_sequences, which the booking
+     * transaction itself keeps next to the entries: (account, currency) rows whose balance or
+     * last account_seq differ. Run it in the swap transaction after {@link #lockAndCatchUp} so
+     * both sides are read from the same snapshot.
+     */
+    public long mismatchesAgainstSequences() {
+        Long n = jdbc.queryForObject("""
+            SELECT count(*)
+            FROM account_snapshots_rebuild r
+            FULL JOIN account_sequences s USING (account_id, currency)
+            WHERE r.balance_minor IS DISTINCT FROM s.balance_minor
+               OR coalesce(r.as_of_account_seq, 0) <> coalesce(s.last_seq, 0)
+        """, Long.class);
+        return n == null ? 0 : n;
+    }
+
+    /**
+     * First step of the swap transaction (REPEATABLE READ, so the catch-up and the checks see
+     * one snapshot). Blocks snapshot writers and folds in every entry the bulk phase did not
+     * take: the bulk phase read all offsets up to highWatermark, which was the committed
+     * watermark, so nothing at or below it can have committed since.
+     */
+    public long lockAndCatchUp(long highWatermark) {
+        jdbc.execute("LOCK TABLE account_snapshots IN ACCESS EXCLUSIVE MODE");
+        return jdbc.update("""
+            INSERT INTO account_snapshots_rebuild(account_id, currency, balance_minor, as_of_ledger_offset, as_of_account_seq)
+            SELECT account_id, currency, sum(amount_minor), max(ledger_offset), max(account_seq)
+            FROM ledger_entries
+            WHERE ledger_offset > ?
+            GROUP BY account_id, currency
+            ON CONFLICT (account_id, currency) DO UPDATE SET
+                balance_minor       = account_snapshots_rebuild.balance_minor + EXCLUDED.balance_minor,
+                as_of_ledger_offset = greatest(account_snapshots_rebuild.as_of_ledger_offset, EXCLUDED.as_of_ledger_offset),
+                as_of_account_seq   = greatest(account_snapshots_rebuild.as_of_account_seq, EXCLUDED.as_of_account_seq)
+        """, highWatermark);
+    }
+
+    /**
+     * Last step of the swap transaction: puts the rebuilt table in place. The consumer re-reads
+     * as_of_account_seq on its next poll and carries on from there.
+     */
+    public void swap() {
+        jdbc.execute("ALTER TABLE account_snapshots RENAME TO account_snapshots_replaced");
+        jdbc.execute("ALTER TABLE account_snapshots_rebuild RENAME TO account_snapshots");
+        jdbc.execute("DROP TABLE account_snapshots_replaced");
+    }
+}
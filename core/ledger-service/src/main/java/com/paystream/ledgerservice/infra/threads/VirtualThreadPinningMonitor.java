@@ -0,0 +1,96 @@
+package com.paystream.ledgerservice.infra.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Surfaces virtual thread pinning (virtual-thread mode only).
+ *
+ * A virtual thread that blocks inside a synchronized block or a native frame keeps its carrier
+ * thread; enough of those at once and the few carriers are all stuck, which looks like a stall
+ * rather than an error. The JDK reports each such park longer than the threshold as a
+ * jdk.VirtualThreadPinned JFR event; this streams them in-process into:
+ * - jvm.threads.virtual.pinned{site}: pinned durations, site = innermost com.paystream frame
+ *   (the repository/relay method that led into the driver), "library" if there is none
+ * - jvm.threads.virtual.submit.failed: virtual threads that could not be scheduled at all
+ * The first event per site is logged with its stack trace.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+    private static final String APP_PACKAGE = "com.paystream.";
+
+    private final MeterRegistry meters;
+    private final Counter submitFailed;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    @Value("${ledger.threads.pinned-threshold-ms:20}")
+    private long thresholdMs = 20;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meters) {
+        this.meters = meters;
+        this.submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+                .description("Virtual threads that could not be started or unparked")
+                .register(meters);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.enable(SUBMIT_FAILED);
+        stream.onEvent(PINNED, this::onPinned);
+        stream.onEvent(SUBMIT_FAILED, e -> submitFailed.increment());
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent e) {
+        String site = site(e);
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads blocked while pinned to their carrier")
+                .tag("site", site)
+                .register(meters)
+                .record(e.getDuration());
+        if (loggedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at {} (logged once per site):\n{}",
+                    e.getDuration().toMillis(), site, e.getStackTrace());
+        }
+    }
+
+    private static String site(RecordedEvent e) {
+        if (e.getStackTrace() == null) return "library";
+        for (RecordedFrame f : e.getStackTrace().getFrames()) {
+            if (!f.isJavaFrame()) continue;
+            String type = f.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) {
+                return type.substring(type.lastIndexOf('.') + 1) + "." + f.getMethod().getName();
+            }
+        }
+        return "library";
+    }
+}
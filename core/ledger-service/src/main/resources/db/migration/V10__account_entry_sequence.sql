@@ -0,0 +1,18 @@
+-- Per-account, gapless entry sequence assigned at booking time.
+-- The counter row is bumped in the booking transaction, so a rollback also rolls the
+-- sequence back (unlike a SEQUENCE). Snapshot consumers apply events strictly in
+-- account_seq order and can therefore detect and wait out gaps instead of dropping
+-- events that arrive after a later one.
+
+CREATE TABLE IF NOT EXISTS account_sequences (
+    account_id  UUID    NOT NULL,
+    currency    TEXT    NOT NULL,
+    last_seq    BIGINT  NOT NULL,
+    PRIMARY KEY (account_id, currency)
+);
+
+-- NULL for entries booked before this migration
+ALTER TABLE ledger_entries ADD COLUMN IF NOT EXISTS account_seq BIGINT;
+
+-- Last account_seq folded into the snapshot (NULL: only offset-based events so far)
+ALTER TABLE account_snapshots ADD COLUMN IF NOT EXISTS as_of_account_seq BIGINT;
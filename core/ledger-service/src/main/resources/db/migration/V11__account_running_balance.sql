@@ -0,0 +1,13 @@
+-- Synchronous running balance per (account, currency), maintained in the booking
+-- transaction next to last_seq. account_snapshots is fed asynchronously from Kafka and
+-- can lag, so the optional funds check locks and reads these rows instead.
+
+ALTER TABLE account_sequences ADD COLUMN IF NOT EXISTS balance_minor BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from the ledger itself; accounts booked before V10 get a row with last_seq = 0
+INSERT INTO account_sequences(account_id, currency, last_seq, balance_minor)
+SELECT account_id, currency, 0, sum(amount_minor)
+FROM ledger_entries
+GROUP BY account_id, currency
+ON CONFLICT (account_id, currency)
+DO UPDATE SET balance_minor = EXCLUDED.balance_minor;
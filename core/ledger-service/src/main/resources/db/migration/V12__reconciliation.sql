@@ -0,0 +1,28 @@
+-- Continuous reconciliation (LedgerReconciler).
+-- ledger_reconcile_sums holds per-account ledger sums up to the reconciler watermark, folded
+-- incrementally by offset range. A fold marks the account for checking against
+-- account_snapshots and account-service's account_balances; the flags are cleared once the
+-- projection could be compared at an exact point.
+
+CREATE TABLE IF NOT EXISTS ledger_reconcile_sums (
+    account_id      UUID     NOT NULL,
+    currency        TEXT     NOT NULL,
+    sum_minor       BIGINT   NOT NULL,
+    last_seq        BIGINT,                     -- highest account_seq folded (NULL: legacy only)
+    seq_count       BIGINT   NOT NULL,          -- number of folded entries that carry an account_seq
+    check_snapshot  BOOLEAN  NOT NULL DEFAULT true,
+    check_balance   BOOLEAN  NOT NULL DEFAULT true,
+    PRIMARY KEY (account_id, currency)
+);
+
+CREATE INDEX IF NOT EXISTS ix_reconcile_check_snapshot
+    ON ledger_reconcile_sums(account_id, currency) WHERE check_snapshot;
+CREATE INDEX IF NOT EXISTS ix_reconcile_check_balance
+    ON ledger_reconcile_sums(account_id, currency) WHERE check_balance;
+
+-- Single-row watermark: ledger_offset up to which entries are folded into the sums
+CREATE TABLE IF NOT EXISTS ledger_reconcile_state (
+    id              SMALLINT     PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    last_offset     BIGINT       NOT NULL
+);
+INSERT INTO ledger_reconcile_state(id, last_offset) VALUES (1, 0) ON CONFLICT DO NOTHING;
@@ -0,0 +1,9 @@
+-- Outbox rows can carry a binary payload (compact ledger.entry.appended encoding) next to
+-- the JSON one. content_type is what the relay puts in the Kafka content-type header so
+-- consumers can read both formats during the migration; existing rows stay JSON.
+
+ALTER TABLE ledger_outbox ADD COLUMN content_type TEXT NOT NULL DEFAULT 'application/json';
+ALTER TABLE ledger_outbox ADD COLUMN payload_bin BYTEA NULL;
+ALTER TABLE ledger_outbox ALTER COLUMN payload DROP NOT NULL;
+ALTER TABLE ledger_outbox ADD CONSTRAINT ck_outbox_payload
+    CHECK (payload IS NOT NULL OR payload_bin IS NOT NULL);
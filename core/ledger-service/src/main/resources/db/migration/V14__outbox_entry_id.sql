@@ -0,0 +1,7 @@
+-- Links ledger.entry.appended outbox rows to their ledger entry so the transaction read API
+-- (GET /v1/ledger/transactions/{txId}) can report per-leg publish status with an index lookup.
+-- Older rows and non-entry events (reconciliation mismatches) keep entry_id NULL.
+
+ALTER TABLE ledger_outbox ADD COLUMN entry_id UUID NULL;
+
+CREATE INDEX IF NOT EXISTS ix_outbox_entry ON ledger_outbox(entry_id) WHERE entry_id IS NOT NULL;
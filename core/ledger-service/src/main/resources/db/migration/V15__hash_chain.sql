@@ -0,0 +1,51 @@
+-- Tamper evidence for ledger_entries.
+-- Every entry stores entry_hash = sha256 of its canonical content, computed by
+-- ledger_entry_hash() inside the booking INSERT. No shared state is touched on the write path,
+-- so booking concurrency is unchanged.
+-- LedgerHashSealer later seals committed offset ranges into blocks: a block stores the Merkle
+-- root of its entries' hashes and is chained to the previous block's hash. LedgerHashVerifier
+-- re-checks sealed blocks incrementally and records the outcome per block.
+
+CREATE OR REPLACE FUNCTION ledger_entry_hash(
+    entry_id UUID, tx_id UUID, tx_seq INT, account_id UUID, currency TEXT, amount_minor BIGINT,
+    ledger_offset BIGINT, account_seq BIGINT, created_at TIMESTAMPTZ)
+RETURNS BYTEA
+LANGUAGE sql STABLE PARALLEL SAFE AS $$
+    SELECT sha256(convert_to(concat_ws('|',
+        entry_id, tx_id, tx_seq, account_id, currency, amount_minor, ledger_offset,
+        coalesce(account_seq::text, ''),
+        (extract(epoch FROM created_at) * 1000000)::bigint), 'UTF8'))
+$$;
+
+-- Nullable and without a default, so this is a catalog-only change. Flyway runs the migration
+-- in one transaction, and a full-table UPDATE + SET NOT NULL here would hold ACCESS EXCLUSIVE on
+-- ledger_entries (blocking every booking) for a pass over the whole table. Rows booked before
+-- this migration stay NULL until LedgerHashSealer reaches their offsets: it hashes them one
+-- block at a time, in the transaction that seals the block.
+ALTER TABLE ledger_entries ADD COLUMN IF NOT EXISTS entry_hash BYTEA;
+
+-- Block n covers entries with from_offset <= ledger_offset <= to_offset;
+-- block_hash = sha256(prev_hash || from_offset || to_offset || entry_count || merkle_root)
+CREATE TABLE IF NOT EXISTS ledger_hash_blocks (
+    block_no      BIGINT       PRIMARY KEY,
+    from_offset   BIGINT       NOT NULL,
+    to_offset     BIGINT       NOT NULL,
+    entry_count   INT          NOT NULL,
+    merkle_root   BYTEA        NOT NULL,
+    prev_hash     BYTEA        NOT NULL,
+    block_hash    BYTEA        NOT NULL,
+    sealed_at     TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    verified_at   TIMESTAMPTZ,
+    verify_ok     BOOLEAN
+);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_hash_blocks_to_offset ON ledger_hash_blocks(to_offset);
+CREATE INDEX IF NOT EXISTS ix_hash_blocks_failed ON ledger_hash_blocks(block_no) WHERE verify_ok = false;
+
+-- Resumable positions (last sealed / last verified block_no); each row is also the
+-- single-instance lock of its job
+CREATE TABLE IF NOT EXISTS ledger_hash_chain_state (
+    name      TEXT    PRIMARY KEY,
+    position  BIGINT  NOT NULL
+);
+INSERT INTO ledger_hash_chain_state(name, position) VALUES ('sealer', 0), ('verifier', 0)
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,20 @@
+-- Open account_seq gaps of the snapshot consumer.
+-- The consumer commits Kafka offsets past events that wait for an earlier seq; the wait itself
+-- lives in memory. One row per (account, currency) records that events up to up_to_seq were
+-- taken off the topic but not applied yet, so a restart or rebalance that drops the in-memory
+-- buffer cannot lose them: once a row is old enough (or has stayed open for enough polls) the
+-- account is reloaded from ledger_entries.
+--
+-- Reloading is always possible: account_seq is assigned under the account_sequences row lock,
+-- so an event for seq n means every seq below n is already committed in ledger_entries.
+
+CREATE TABLE IF NOT EXISTS account_snapshot_gaps (
+    account_id  UUID         NOT NULL,
+    currency    TEXT         NOT NULL,
+    up_to_seq   BIGINT       NOT NULL,            -- highest seq taken off the topic while open
+    polls       INT          NOT NULL DEFAULT 1,  -- polls that ended with the gap still open
+    opened_at   TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    PRIMARY KEY (account_id, currency)
+);
+
+CREATE INDEX IF NOT EXISTS ix_account_snapshot_gaps_opened ON account_snapshot_gaps (opened_at);
@@ -0,0 +1,20 @@
+-- Catch-all partitions for ledger_entries (V7) and ledger_outbox (V8).
+-- Without them a booking whose offset (or an outbox row whose day) has no partition yet fails
+-- outright, e.g. when LedgerPartitionMaintenance has not run for a while. Rows that land here
+-- are moved into their proper partition by the maintenance job once it creates it, and
+-- ledger.partitions.default.rows reports them until then (it should always be 0).
+CREATE TABLE IF NOT EXISTS ledger_entries_default PARTITION OF ledger_entries DEFAULT;
+CREATE TABLE IF NOT EXISTS ledger_outbox_default PARTITION OF ledger_outbox DEFAULT;
+
+-- entry_id was the primary key before V7. A partitioned table can only enforce unique keys that
+-- contain ledger_offset, so uniqueness moves to ledger_tx_keys (like (tx_id, tx_seq)):
+-- bookings claim the entry_id there in the same statement that inserts the entry.
+ALTER TABLE ledger_tx_keys ADD COLUMN IF NOT EXISTS entry_id UUID;
+
+UPDATE ledger_tx_keys k
+SET entry_id = e.entry_id
+FROM ledger_entries e
+WHERE e.ledger_offset = k.ledger_offset
+  AND k.entry_id IS NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ledger_tx_keys_entry ON ledger_tx_keys(entry_id);
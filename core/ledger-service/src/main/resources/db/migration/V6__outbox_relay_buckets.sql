@@ -0,0 +1,24 @@
+-- Lets several OutboxRelay instances share the backlog without double-publishing.
+-- Every outbox row belongs to one of 64 buckets derived from its Kafka key, so all
+-- events of an account land in the same bucket. A relay claims buckets with
+-- SELECT ... FOR UPDATE SKIP LOCKED for the duration of its publish transaction;
+-- other relays skip claimed buckets, which keeps per-key ordering intact.
+-- Locks are released on commit/rollback or when the connection dies, so no lease cleanup is needed.
+
+-- Insertion order within a bucket (created_at is the tx start time and is shared by all rows of a tx)
+ALTER TABLE ledger_outbox ADD COLUMN IF NOT EXISTS relay_seq BIGSERIAL;
+
+-- hashtext(...) & 63 keeps the value in 0..63 even for negative hashes
+ALTER TABLE ledger_outbox ADD COLUMN IF NOT EXISTS bucket SMALLINT
+    GENERATED ALWAYS AS ((hashtext(key_account_id::text) & 63)) STORED;
+
+CREATE INDEX IF NOT EXISTS ix_outbox_unpublished_bucket
+    ON ledger_outbox(bucket, relay_seq) WHERE published_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS ledger_outbox_buckets (
+    bucket SMALLINT PRIMARY KEY
+);
+
+INSERT INTO ledger_outbox_buckets(bucket)
+SELECT g FROM generate_series(0, 63) AS g
+ON CONFLICT DO NOTHING;
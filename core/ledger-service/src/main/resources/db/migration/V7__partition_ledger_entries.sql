@@ -0,0 +1,67 @@
+-- Range-partitions ledger_entries by ledger_offset (10,000,000 offsets per partition,
+-- partition n covers [n * 10M, (n + 1) * 10M) and is named ledger_entries_p<n>).
+-- LedgerPartitionMaintenance creates the next partitions ahead of the sequence;
+-- ledger.partitions.entries-offset-range must stay equal to the range used here.
+--
+-- A partitioned table can only enforce unique keys that contain the partition key,
+-- so (tx_id, tx_seq) idempotency moves to the narrow, unpartitioned ledger_tx_keys table.
+-- Bookings claim their keys there and insert entries in the same statement.
+
+CREATE TABLE IF NOT EXISTS ledger_tx_keys (
+    tx_id          UUID    NOT NULL,
+    tx_seq         INT     NOT NULL,
+    ledger_offset  BIGINT  NOT NULL,
+    PRIMARY KEY (tx_id, tx_seq)
+);
+
+CREATE TABLE ledger_entries_partitioned (
+    entry_id         UUID         NOT NULL,
+    tx_id            UUID         NOT NULL,
+    tx_seq           INT          NOT NULL,
+    account_id       UUID         NOT NULL,
+    currency         TEXT         NOT NULL,
+    amount_minor     BIGINT       NOT NULL,
+    created_at       TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    ledger_offset    BIGINT       NOT NULL,
+    CONSTRAINT ck_amount_nonzero CHECK (amount_minor <> 0)
+) PARTITION BY RANGE (ledger_offset);
+
+-- Partitions for existing rows plus two ranges of headroom
+DO $$
+DECLARE
+    range_size CONSTANT BIGINT := 10000000;
+    top_offset BIGINT;
+    n BIGINT;
+BEGIN
+    SELECT greatest(
+               (SELECT coalesce(max(ledger_offset), 0) FROM ledger_entries),
+               (SELECT last_value FROM ledger_offset_seq))
+      INTO top_offset;
+
+    FOR n IN 0 .. (top_offset / range_size) + 2 LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS ledger_entries_p%s PARTITION OF ledger_entries_partitioned '
+            'FOR VALUES FROM (%s) TO (%s)',
+            n, n * range_size, (n + 1) * range_size);
+    END LOOP;
+END $$;
+
+INSERT INTO ledger_entries_partitioned(
+    entry_id, tx_id, tx_seq, account_id, currency, amount_minor, created_at, ledger_offset)
+SELECT entry_id, tx_id, tx_seq, account_id, currency, amount_minor, created_at, ledger_offset
+FROM ledger_entries;
+
+INSERT INTO ledger_tx_keys(tx_id, tx_seq, ledger_offset)
+SELECT tx_id, tx_seq, ledger_offset
+FROM ledger_entries
+ON CONFLICT DO NOTHING;
+
+DROP TABLE ledger_entries;
+ALTER TABLE ledger_entries_partitioned RENAME TO ledger_entries;
+
+-- Global ordering stays unique (the partition key is part of the key)
+ALTER TABLE ledger_entries ADD CONSTRAINT uq_ledger_offset PRIMARY KEY (ledger_offset);
+
+-- Same access paths as before, now as partitioned indexes
+CREATE INDEX IF NOT EXISTS ix_ledger_account_currency ON ledger_entries(account_id, currency);
+CREATE INDEX IF NOT EXISTS ix_ledger_tx ON ledger_entries(tx_id);
@@ -0,0 +1,58 @@
+-- Range-partitions ledger_outbox by created_at, one partition per UTC day named
+-- ledger_outbox_p<yyyyMMdd>. Published rows are never deleted one by one; instead
+-- LedgerPartitionMaintenance detaches and drops whole days once they are past the
+-- retention window and contain no unpublished rows.
+--
+-- Existing rows go into a catch-all partition ending at today 00:00 UTC; it is named
+-- after yesterday so the retention job treats it like any other finished day.
+
+CREATE SEQUENCE IF NOT EXISTS ledger_outbox_relay_seq AS BIGINT;
+
+CREATE TABLE ledger_outbox_partitioned (
+    id              UUID         NOT NULL,
+    event_type      TEXT         NOT NULL,
+    key_account_id  UUID         NOT NULL,
+    payload         JSONB        NOT NULL,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT now(),
+    published_at    TIMESTAMPTZ  NULL,
+    relay_seq       BIGINT       NOT NULL DEFAULT nextval('ledger_outbox_relay_seq'),
+    bucket          SMALLINT     GENERATED ALWAYS AS ((hashtext(key_account_id::text) & 63)) STORED,
+    CONSTRAINT pk_ledger_outbox PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+DO $$
+DECLARE
+    today DATE := (now() AT TIME ZONE 'UTC')::date;
+    d DATE;
+BEGIN
+    EXECUTE format(
+        'CREATE TABLE ledger_outbox_p%s PARTITION OF ledger_outbox_partitioned '
+        'FOR VALUES FROM (MINVALUE) TO (%L)',
+        to_char(today - 1, 'YYYYMMDD'), today::timestamp AT TIME ZONE 'UTC');
+
+    FOR d IN SELECT generate_series(today, today + 3, interval '1 day')::date LOOP
+        EXECUTE format(
+            'CREATE TABLE ledger_outbox_p%s PARTITION OF ledger_outbox_partitioned '
+            'FOR VALUES FROM (%L) TO (%L)',
+            to_char(d, 'YYYYMMDD'), d::timestamp AT TIME ZONE 'UTC', (d + 1)::timestamp AT TIME ZONE 'UTC');
+    END LOOP;
+END $$;
+
+INSERT INTO ledger_outbox_partitioned(
+    id, event_type, key_account_id, payload, created_at, published_at, relay_seq)
+SELECT id, event_type, key_account_id, payload, created_at, published_at, relay_seq
+FROM ledger_outbox;
+
+SELECT setval('ledger_outbox_relay_seq',
+              greatest((SELECT coalesce(max(relay_seq), 0) FROM ledger_outbox_partitioned), 1));
+
+-- Also drops the old BIGSERIAL sequence owned by ledger_outbox.relay_seq
+DROP TABLE ledger_outbox;
+ALTER TABLE ledger_outbox_partitioned RENAME TO ledger_outbox;
+ALTER SEQUENCE ledger_outbox_relay_seq OWNED BY ledger_outbox.relay_seq;
+
+CREATE INDEX IF NOT EXISTS ix_outbox_unpublished
+    ON ledger_outbox(published_at) WHERE published_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS ix_outbox_unpublished_bucket
+    ON ledger_outbox(bucket, relay_seq) WHERE published_at IS NULL;
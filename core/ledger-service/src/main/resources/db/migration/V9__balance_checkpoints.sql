@@ -0,0 +1,38 @@
+-- Point-in-time balances: balance(account, currency, N) = latest checkpoint at or before N
+-- + SUM(amount_minor) of the account's entries after that checkpoint up to N.
+-- BalanceCheckpointJob walks ledger_entries in offset order and writes a checkpoint
+-- every ledger.checkpoints.every-entries entries per account, so the delta scan stays bounded.
+
+CREATE TABLE IF NOT EXISTS account_balance_checkpoints (
+    account_id      UUID         NOT NULL,
+    currency        TEXT         NOT NULL,
+    ledger_offset   BIGINT       NOT NULL,   -- balance includes every entry of the account up to here
+    balance_minor   BIGINT       NOT NULL,
+    checkpoint_at   TIMESTAMPTZ  NOT NULL,   -- created_at of the entry at ledger_offset
+    PRIMARY KEY (account_id, currency, ledger_offset)
+);
+
+CREATE INDEX IF NOT EXISTS ix_checkpoints_account_time
+    ON account_balance_checkpoints(account_id, currency, checkpoint_at);
+
+-- Running totals of the job, one row per account/currency it has seen
+CREATE TABLE IF NOT EXISTS account_checkpoint_heads (
+    account_id      UUID         NOT NULL,
+    currency        TEXT         NOT NULL,
+    balance_minor   BIGINT       NOT NULL,
+    last_offset     BIGINT       NOT NULL,
+    entries_since   INT          NOT NULL,   -- entries applied since the last checkpoint row
+    PRIMARY KEY (account_id, currency)
+);
+
+-- Single-row watermark: ledger_offset up to which entries are folded into the heads
+CREATE TABLE IF NOT EXISTS ledger_checkpoint_state (
+    id              SMALLINT     PRIMARY KEY DEFAULT 1 CHECK (id = 1),
+    last_offset     BIGINT       NOT NULL
+);
+INSERT INTO ledger_checkpoint_state(id, last_offset) VALUES (1, 0) ON CONFLICT DO NOTHING;
+
+-- Delta scans read (account, currency, offset range) straight from the index
+DROP INDEX IF EXISTS ix_ledger_account_currency;
+CREATE INDEX IF NOT EXISTS ix_ledger_account_currency
+    ON ledger_entries(account_id, currency, ledger_offset) INCLUDE (amount_minor, created_at);
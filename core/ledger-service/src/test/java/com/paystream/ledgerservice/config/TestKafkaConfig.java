@@ -11,7 +11,7 @@ public class TestKafkaConfig {
 
     @Bean
     @SuppressWarnings("unchecked")
-    public KafkaTemplate<String, String> kafkaTemplate() {
+    public KafkaTemplate<String, byte[]> kafkaTemplate() {
         return mock(KafkaTemplate.class);
     }
 }
@@ -0,0 +1,176 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.api.BalanceAsOfResponse;
+import com.paystream.ledgerservice.app.BalanceQueryAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.domain.LedgerEntry;
+import com.paystream.ledgerservice.infra.maintenance.BalanceCheckpointJob;
+import com.paystream.ledgerservice.infra.repo.BalanceCheckpointRepository;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import com.paystream.ledgerservice.infra.repo.LedgerEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.awaitCommittedWatermark;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class BalanceAsOfIT extends PostgresContainerSupport {
+
+    @Autowired LedgerEntryRepository ledgerRepo;
+    @Autowired BalanceCheckpointRepository checkpointRepo;
+    @Autowired CommittedWatermarkRepository watermarks;
+    @Autowired BalanceQueryAppService balances;
+    @Autowired TransactionTemplate tx;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void cleanDb() {
+        jdbc.update("TRUNCATE TABLE ledger_entries");
+        jdbc.update("TRUNCATE TABLE account_balance_checkpoints");
+        jdbc.update("TRUNCATE TABLE account_checkpoint_heads");
+        jdbc.update("UPDATE ledger_checkpoint_state SET last_offset = 0");
+    }
+
+    @Test
+    void balanceAsOfOffset_matchesFullLedgerSum_withAndWithoutCheckpoints() throws Exception {
+        UUID acc = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        List<Long> offsets = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            offsets.add(insert(acc, i * 10L));
+            insert(other, -i * 10L);
+        }
+
+        // Checkpoint yokken: baştan toplam
+        long mid = offsets.get(11);
+        assertThat(balances.balanceAsOf(acc, "TRY", mid, null).balanceMinor()).isEqualTo(fullSum(acc, mid));
+
+        // Job: her 5 entry'de bir checkpoint
+        BalanceCheckpointJob job = new BalanceCheckpointJob(checkpointRepo, watermarks, tx);
+        ReflectionTestUtils.setField(job, "everyEntries", 5);
+        awaitCommittedWatermark(watermarks);
+        job.run();
+
+        for (long off : offsets) {
+            BalanceAsOfResponse r = balances.balanceAsOf(acc, "TRY", off, null);
+            assertThat(r.balanceMinor()).isEqualTo(fullSum(acc, off));
+            assertThat(r.lastEntryOffset()).isEqualTo(off);
+            assertThat(r.scannedEntries()).isLessThan(5);
+        }
+
+        // Son durum (asOfOffset yok) ve job sonrası yazılan entry'ler
+        long late = insert(acc, 7L);
+        BalanceAsOfResponse latest = balances.balanceAsOf(acc, "TRY", null, null);
+        assertThat(latest.balanceMinor()).isEqualTo(fullSum(acc, late));
+        assertThat(latest.checkpointOffset()).isEqualTo(offsets.get(24));
+    }
+
+    @Test
+    void lowerOffsetCommittedAfterHigherOne_isFoldedBeforeTheHigherOne() throws Exception {
+        UUID acc = UUID.randomUUID();
+        BalanceCheckpointJob job = new BalanceCheckpointJob(checkpointRepo, watermarks, tx);
+        ReflectionTestUtils.setField(job, "everyEntries", 2);
+
+        // Yavaş booking: offset'i alır ama commit etmeden bekler
+        CountDownLatch drawn = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Long> slow = CompletableFuture.supplyAsync(() -> tx.execute(status -> {
+            long offset = insert(acc, 100L);
+            drawn.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return offset;
+        }));
+        assertThat(drawn.await(10, TimeUnit.SECONDS)).isTrue();
+
+        long fast = insert(acc, 5L);   // daha yüksek offset, önce commit
+        for (int i = 0; i < 5; i++) watermarks.advance();
+        job.run();
+        assertThat(watermarks.safeOffset()).isLessThan(fast);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM account_checkpoint_heads WHERE account_id = ?",
+                Long.class, acc)).isZero();
+
+        release.countDown();
+        long low = slow.get(10, TimeUnit.SECONDS);
+        assertThat(low).isLessThan(fast);
+
+        awaitCommittedWatermark(watermarks);
+        job.run();
+
+        assertThat(jdbc.queryForObject("SELECT balance_minor FROM account_checkpoint_heads WHERE account_id = ?",
+                Long.class, acc)).isEqualTo(105L);
+        assertThat(balances.balanceAsOf(acc, "TRY", low, null).balanceMinor()).isEqualTo(100L);
+        BalanceAsOfResponse atFast = balances.balanceAsOf(acc, "TRY", fast, null);
+        assertThat(atFast.balanceMinor()).isEqualTo(105L);
+        assertThat(atFast.checkpointOffset()).isEqualTo(fast);
+    }
+
+    @Test
+    void balanceAsOfTime_matchesLedgerSum_andStopsAtNextCheckpoint() throws Exception {
+        UUID acc = UUID.randomUUID();
+        List<Long> offsets = new ArrayList<>();
+        for (int i = 1; i <= 10; i++) offsets.add(insert(acc, i * 10L));
+
+        BalanceCheckpointJob job = new BalanceCheckpointJob(checkpointRepo, watermarks, tx);
+        ReflectionTestUtils.setField(job, "everyEntries", 2);
+        awaitCommittedWatermark(watermarks);
+        job.run();
+
+        for (long off : offsets) {
+            OffsetDateTime at = createdAt(off);
+            assertThat(balances.balanceAsOf(acc, "TRY", null, at).balanceMinor()).isEqualTo(fullSum(acc, off));
+        }
+
+        // Entry far past the next checkpoint whose created_at lies in the past (start/commit skew):
+        // the scan is bounded by that checkpoint's offset, so it is not counted
+        OffsetDateTime at = createdAt(offsets.get(4));
+        long skewed = insert(acc, 1_000L);
+        jdbc.update("UPDATE ledger_entries SET created_at = ? WHERE ledger_offset = ?", at, skewed);
+        assertThat(balances.balanceAsOf(acc, "TRY", null, at).balanceMinor()).isEqualTo(fullSum(acc, offsets.get(4)));
+    }
+
+    private OffsetDateTime createdAt(long offset) {
+        return jdbc.queryForObject("SELECT created_at FROM ledger_entries WHERE ledger_offset = ?",
+                OffsetDateTime.class, offset);
+    }
+
+    private long fullSum(UUID acc, long upTo) {
+        return jdbc.queryForObject("""
+            SELECT coalesce(sum(amount_minor), 0) FROM ledger_entries
+            WHERE account_id = ? AND currency = 'TRY' AND ledger_offset <= ?
+        """, Long.class, acc, upTo);
+    }
+
+    private long insert(UUID accountId, long amountMinor) {
+        LedgerEntry e = LedgerEntry.builder()
+                .entryId(UUID.randomUUID())
+                .txId(UUID.randomUUID())
+                .txSeq(0)
+                .accountId(accountId)
+                .currency("TRY")
+                .amountMinor(amountMinor)
+                .build();
+        return ledgerRepo.upsert(e).offset();
+    }
+}
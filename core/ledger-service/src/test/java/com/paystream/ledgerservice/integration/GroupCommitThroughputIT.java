@@ -0,0 +1,101 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.app.GroupCommitSequencer;
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Single-writer group commit under concurrent load: every booking is durable exactly once.
+ * The comparison against per-request commit logs tx/s for both; it is tagged "benchmark" and
+ * left out of the default build.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class GroupCommitThroughputIT extends PostgresContainerSupport {
+
+    private static final int CALLERS = 64;
+
+    @Autowired LedgerTransactionAppService app;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void cleanDb() {
+        truncateLedger(jdbc);
+    }
+
+    @Test
+    void groupCommit_booksEverythingOnce() throws Exception {
+        runGrouped(10);
+        assertBookedOnce(10);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void groupCommit_logsThroughputAgainstPerRequest() throws Exception {
+        double perRequest = run(app::bookTransaction, 50);
+
+        truncateLedger(jdbc);
+        double grouped = runGrouped(50);
+        assertBookedOnce(50);
+
+        log.info("per-request commit: {} tx/s, group commit: {} tx/s ({} callers)",
+                Math.round(perRequest), Math.round(grouped), CALLERS);
+    }
+
+    private double runGrouped(int txPerCaller) throws Exception {
+        GroupCommitSequencer sequencer = new GroupCommitSequencer(app, new SimpleMeterRegistry(), 10_000, 500, 10_000);
+        sequencer.start();
+        try {
+            return run(sequencer::book, txPerCaller);
+        } finally {
+            sequencer.stop();
+        }
+    }
+
+    private void assertBookedOnce(int txPerCaller) {
+        int expected = CALLERS * txPerCaller * 2;
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM ledger_entries", Integer.class)).isEqualTo(expected);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM ledger_outbox", Integer.class)).isEqualTo(expected);
+    }
+
+    private static double run(Consumer<BookTransactionRequest> book, int txPerCaller) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        long started = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>();
+        for (int c = 0; c < CALLERS; c++) {
+            running.add(pool.submit(() -> {
+                for (int i = 0; i < txPerCaller; i++) {
+                    book.accept(transfer(UUID.randomUUID(), UUID.randomUUID(), 100));
+                }
+            }));
+        }
+        for (Future<?> f : running) f.get();
+        pool.shutdown();
+        return CALLERS * txPerCaller / ((System.nanoTime() - started) / 1e9);
+    }
+}
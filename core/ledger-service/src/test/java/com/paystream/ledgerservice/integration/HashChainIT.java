@@ -0,0 +1,187 @@
+package com.paystream.ledgerservice.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.domain.MerkleTree;
+import com.paystream.ledgerservice.infra.maintenance.LedgerHashSealer;
+import com.paystream.ledgerservice.infra.maintenance.LedgerHashVerifier;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.awaitCommittedWatermark;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "ledger.hash-chain.enabled=true",
+        "ledger.hash-chain.block-size=3",
+        "ledger.hash-chain.seal-interval-ms=3600000",
+        "ledger.hash-chain.verify.interval-ms=3600000",
+        "ledger.hash-chain.verify.batch=2"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class HashChainIT extends PostgresContainerSupport {
+
+    @Autowired MockMvc mvc;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired LedgerTransactionAppService app;
+    @Autowired LedgerHashSealer sealer;
+    @Autowired LedgerHashVerifier verifier;
+    @Autowired CommittedWatermarkRepository watermarks;
+    @Autowired TransactionTemplate tx;
+
+    @BeforeEach
+    void cleanDb() {
+        truncateLedger(jdbc, "ledger_hash_blocks");
+        jdbc.update("UPDATE ledger_hash_chain_state SET position = 0");
+    }
+
+    @Test
+    void committedEntries_areSealedIntoChainedBlocks_andProvable() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            app.bookTransaction(transfer(UUID.randomUUID(), UUID.randomUUID(), 100 + i));
+        }
+        // 8 entry, blok boyu 3 → 3 + 3 + 2
+        awaitCommittedWatermark(watermarks);
+        sealer.run();
+        assertThat(jdbc.queryForList("SELECT entry_count FROM ledger_hash_blocks ORDER BY block_no", Integer.class))
+                .containsExactly(3, 3, 2);
+        assertThat(jdbc.queryForObject("""
+            SELECT count(*) FROM ledger_hash_blocks b
+            JOIN ledger_hash_blocks p ON p.block_no = b.block_no - 1
+            WHERE b.prev_hash = p.block_hash
+        """, Integer.class)).isEqualTo(2);
+
+        long offset = jdbc.queryForObject("SELECT min(ledger_offset) + 4 FROM ledger_entries", Long.class);
+        JsonNode proof = getJson("/v1/ledger/proofs/entries/" + offset);
+        assertThat(proof.get("block").get("blockNo").asLong()).isEqualTo(2);
+
+        // Kanıt istemci tarafında yeniden hesaplanır
+        HexFormat hex = HexFormat.of();
+        List<MerkleTree.Step> path = new ArrayList<>();
+        proof.get("path").forEach(s -> path.add(
+                new MerkleTree.Step(hex.parseHex(s.get("sibling").asText()), "left".equals(s.get("side").asText()))));
+        byte[] root = MerkleTree.rootFromProof(hex.parseHex(proof.get("entryHash").asText()), path);
+        assertThat(hex.formatHex(root)).isEqualTo(proof.get("block").get("merkleRoot").asText());
+
+        JsonNode blocks = getJson("/v1/ledger/proofs/blocks?fromOffset=0&toOffset=" + offset);
+        assertThat(blocks).hasSize(2);
+    }
+
+    @Test
+    void verifier_passesIntactChain_andFlagsTamperedEntry() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            app.bookTransaction(transfer(UUID.randomUUID(), UUID.randomUUID(), 50));
+        }
+        awaitCommittedWatermark(watermarks);
+        sealer.run();
+
+        verifier.run();
+        assertThat(getJson("/v1/ledger/admin/hash-chain").get("verifiedBlocks").asLong()).isEqualTo(3);
+        assertThat(jdbc.queryForObject("SELECT bool_and(verify_ok) FROM ledger_hash_blocks", Boolean.class)).isTrue();
+
+        // Mühürlenmiş bir entry sessizce değiştirilir
+        jdbc.update("""
+            UPDATE ledger_entries SET amount_minor = amount_minor + 1
+            WHERE ledger_offset = (SELECT max(ledger_offset) FROM ledger_entries)
+        """);
+        mvc.perform(post("/v1/ledger/admin/hash-chain:reverify")).andExpect(status().isAccepted());
+        verifier.run();
+
+        JsonNode state = getJson("/v1/ledger/admin/hash-chain");
+        assertThat(state.get("verifiedBlocks").asLong()).isEqualTo(3);
+        assertThat(state.get("failedBlocks").asLong()).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT verify_ok FROM ledger_hash_blocks WHERE block_no = 3", Boolean.class))
+                .isFalse();
+    }
+
+    @Test
+    void lowerOffsetCommittingLate_isNotSealedAround_andVerifiesClean() throws Exception {
+        // Yavaş booking: offset'lerini alır ama commit etmeden bekler
+        CountDownLatch drawn = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> slow = CompletableFuture.runAsync(() -> tx.executeWithoutResult(status -> {
+            app.bookTransaction(transfer(UUID.randomUUID(), UUID.randomUUID(), 70));
+            drawn.countDown();
+            try {
+                release.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(drawn.await(10, TimeUnit.SECONDS)).isTrue();
+
+        for (int i = 0; i < 3; i++) {
+            app.bookTransaction(transfer(UUID.randomUUID(), UUID.randomUUID(), 80));
+        }
+        for (int i = 0; i < 5; i++) watermarks.advance();
+        sealer.run();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM ledger_hash_blocks", Long.class)).isZero();
+
+        release.countDown();
+        slow.get(10, TimeUnit.SECONDS);
+        awaitCommittedWatermark(watermarks);
+        sealer.run();
+        verifier.run();
+
+        assertThat(jdbc.queryForObject("SELECT sum(entry_count) FROM ledger_hash_blocks", Long.class)).isEqualTo(8L);
+        assertThat(jdbc.queryForObject("SELECT bool_and(verify_ok) FROM ledger_hash_blocks", Boolean.class)).isTrue();
+    }
+
+    @Test
+    void entriesBookedBeforeTheHashColumn_areHashedWhenSealed_andVerifyClean() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            app.bookTransaction(transfer(UUID.randomUUID(), UUID.randomUUID(), 60));
+        }
+        // V15 öncesi satırlar: migration hash'lemez, NULL kalır
+        jdbc.update("UPDATE ledger_entries SET entry_hash = NULL");
+        awaitCommittedWatermark(watermarks);
+
+        sealer.run();
+        verifier.run();
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM ledger_entries WHERE entry_hash IS NULL", Long.class)).isZero();
+        assertThat(jdbc.queryForObject("SELECT sum(entry_count) FROM ledger_hash_blocks", Long.class)).isEqualTo(4L);
+        assertThat(jdbc.queryForObject("SELECT bool_and(verify_ok) FROM ledger_hash_blocks", Boolean.class)).isTrue();
+    }
+
+    @Test
+    void unsealedEntry_is404_andBadRange_is400() throws Exception {
+        app.bookTransaction(transfer(UUID.randomUUID(), UUID.randomUUID(), 10));
+        long offset = jdbc.queryForObject("SELECT min(ledger_offset) FROM ledger_entries", Long.class);
+
+        mvc.perform(get("/v1/ledger/proofs/entries/" + offset)).andExpect(status().isNotFound());
+        mvc.perform(get("/v1/ledger/proofs/blocks?fromOffset=10&toOffset=5")).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String body = mvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return om.readTree(body);
+    }
+}
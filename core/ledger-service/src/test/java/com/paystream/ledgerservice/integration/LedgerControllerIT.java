@@ -26,7 +26,7 @@ class LedgerControllerIT extends PostgresContainerSupport {
     @Autowired JdbcTemplate jdbc;
 
     // Kafka’ya gerçek bağlanmak istemiyorsak:
-    @MockBean KafkaTemplate<String, String> kafkaTemplate;
+    @MockBean KafkaTemplate<String, byte[]> kafkaTemplate;
 
     @Test
     void postTransaction_returns202_andWritesRows() throws Exception {
@@ -0,0 +1,116 @@
+package com.paystream.ledgerservice.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.awaitCommittedWatermark;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class LedgerEntryExportIT extends PostgresContainerSupport {
+
+    @Autowired MockMvc mvc;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ObjectMapper om;
+    @Autowired LedgerTransactionAppService app;
+    @Autowired CommittedWatermarkRepository watermarks;
+
+    private final UUID acc = UUID.randomUUID();
+
+    @BeforeEach
+    void cleanDb() throws Exception {
+        truncateLedger(jdbc);
+        for (int i = 0; i < 3; i++) {
+            app.bookTransaction(transfer(acc, UUID.randomUUID(), 100 + i));
+        }
+        awaitCommittedWatermark(watermarks);
+    }
+
+    @Test
+    void pages_followNextAfterOffset_untilEmpty() throws Exception {
+        JsonNode first = getJson("/v1/ledger/entries?limit=4");
+        assertThat(first.get("entries")).hasSize(4);
+
+        long next = first.get("nextAfterOffset").asLong();
+        JsonNode second = getJson("/v1/ledger/entries?limit=4&afterOffset=" + next);
+        assertThat(second.get("entries")).hasSize(2);
+        assertThat(second.get("entries").get(0).get("ledgerOffset").asLong()).isGreaterThan(next);
+
+        JsonNode last = getJson("/v1/ledger/entries?limit=4&afterOffset=" + second.get("nextAfterOffset").asLong());
+        assertThat(last.get("entries")).isEmpty();
+        assertThat(last.get("nextAfterOffset").asLong()).isEqualTo(second.get("nextAfterOffset").asLong());
+    }
+
+    @Test
+    void accountFilter_returnsOnlyThatAccount() throws Exception {
+        JsonNode page = getJson("/v1/ledger/entries?accountId=" + acc + "&currency=TRY");
+
+        assertThat(page.get("entries")).hasSize(3);
+        page.get("entries").forEach(e -> assertThat(e.get("accountId").asText()).isEqualTo(acc.toString()));
+    }
+
+    @Test
+    void ndjsonExport_writesOneEntryPerLine() throws Exception {
+        MvcResult started = mvc.perform(get("/v1/ledger/entries:export"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult done = mvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+
+        List<String> lines = done.getResponse().getContentAsString().lines().toList();
+        assertThat(lines).hasSize(6);
+        long previous = 0;
+        for (String line : lines) {
+            long offset = om.readTree(line).get("ledgerOffset").asLong();
+            assertThat(offset).isGreaterThan(previous);
+            previous = offset;
+        }
+    }
+
+    @Test
+    void entriesAboveCommittedWatermark_areHeldBack_untilItMoves() throws Exception {
+        JsonNode before = getJson("/v1/ledger/entries?limit=100");
+        long next = before.get("nextAfterOffset").asLong();
+
+        app.bookTransaction(transfer(acc, UUID.randomUUID(), 500));
+        JsonNode held = getJson("/v1/ledger/entries?limit=100&afterOffset=" + next);
+        assertThat(held.get("entries")).isEmpty();
+        assertThat(held.get("nextAfterOffset").asLong()).isEqualTo(next);
+
+        awaitCommittedWatermark(watermarks);
+        assertThat(getJson("/v1/ledger/entries?limit=100&afterOffset=" + next).get("entries")).hasSize(2);
+    }
+
+    @Test
+    void tooLargeLimit_is400() throws Exception {
+        mvc.perform(get("/v1/ledger/entries?limit=10001")).andExpect(status().isBadRequest());
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String body = mvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return om.readTree(body);
+    }
+}
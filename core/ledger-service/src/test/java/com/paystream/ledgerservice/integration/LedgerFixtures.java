@@ -0,0 +1,59 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared helpers for the ledger integration tests.
+ */
+final class LedgerFixtures {
+
+    private LedgerFixtures() {}
+
+    /**
+     * Advances the committed watermark until it covers every offset handed out so far.
+     * Only call it when no booking is in flight; it takes two steps when nothing else is running.
+     */
+    static long awaitCommittedWatermark(CommittedWatermarkRepository watermarks) throws InterruptedException {
+        long target = watermarks.lastAssignedOffset();
+        for (int i = 0; i < 100; i++) {
+            long safe = watermarks.advance();
+            if (safe >= target) return safe;
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Committed watermark did not reach offset " + target);
+    }
+
+    /** Empties the booking tables, plus whatever projection tables the test also writes. */
+    static void truncateLedger(JdbcTemplate jdbc, String... extraTables) {
+        StringBuilder tables = new StringBuilder("ledger_entries, ledger_tx_keys, ledger_outbox, account_sequences");
+        for (String table : extraTables) tables.append(", ").append(table);
+        jdbc.update("TRUNCATE TABLE " + tables);
+    }
+
+    /** Two-leg TRY transfer under a fresh txId. */
+    static BookTransactionRequest transfer(UUID from, UUID to, long amountMinor) {
+        return transfer(UUID.randomUUID(), from, to, amountMinor);
+    }
+
+    static BookTransactionRequest transfer(UUID txId, UUID from, UUID to, long amountMinor) {
+        BookTransactionRequest.Entry debit = new BookTransactionRequest.Entry();
+        debit.setAccountId(from);
+        debit.setCurrency("TRY");
+        debit.setAmountMinor(-amountMinor);
+
+        BookTransactionRequest.Entry credit = new BookTransactionRequest.Entry();
+        credit.setAccountId(to);
+        credit.setCurrency("TRY");
+        credit.setAmountMinor(amountMinor);
+
+        BookTransactionRequest req = new BookTransactionRequest();
+        req.setTxId(txId);
+        req.setEntries(List.of(debit, credit));
+        return req;
+    }
+}
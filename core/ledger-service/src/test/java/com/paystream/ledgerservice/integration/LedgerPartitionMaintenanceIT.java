@@ -0,0 +1,81 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.infra.maintenance.LedgerPartitionMaintenance;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class LedgerPartitionMaintenanceIT extends PostgresContainerSupport {
+
+    private static final long RANGE = 10_000_000L;
+
+    @Autowired LedgerPartitionMaintenance maintenance;
+    @Autowired MeterRegistry meters;
+    @Autowired JdbcTemplate jdbc;
+
+    @AfterEach
+    void cleanDb() {
+        jdbc.update("TRUNCATE TABLE ledger_entries, ledger_outbox");
+    }
+
+    @Test
+    void rowsWithoutRangePartition_landInDefault_andAreMovedWhenItIsCreated() {
+        long last = jdbc.queryForObject("SELECT last_value FROM ledger_offset_seq", Long.class);
+        long far = (last / RANGE + 5) * RANGE + 42;   // beyond the ranges created so far
+        LocalDate farDay = LocalDate.now(ZoneOffset.UTC).plusDays(20);
+        String farPartition = "ledger_outbox_p" + farDay.format(DateTimeFormatter.BASIC_ISO_DATE);
+
+        jdbc.update("""
+            INSERT INTO ledger_entries(entry_id, tx_id, tx_seq, account_id, currency, amount_minor, ledger_offset, entry_hash)
+            VALUES (gen_random_uuid(), gen_random_uuid(), 0, ?, 'TRY', 7, ?, '\\x00')
+        """, UUID.randomUUID(), far);
+        jdbc.update("""
+            INSERT INTO ledger_outbox(id, event_type, key_account_id, payload, created_at)
+            VALUES (gen_random_uuid(), 'ledger.entry.appended', ?, '{}'::jsonb, ?::timestamptz)
+        """, UUID.randomUUID(), farDay + " 12:00:00+00");
+        assertThat(count("ledger_entries_default")).isEqualTo(1);
+        assertThat(count("ledger_outbox_default")).isEqualTo(1);
+
+        maintenance.run();   // ranges in reach only: the rows stay where they are
+        assertThat(meters.get("ledger.partitions.default.rows").tag("table", "ledger_entries").gauge().value()).isEqualTo(1.0);
+
+        // Next run reaches those ranges: partitions are created and the rows move out of DEFAULT
+        ReflectionTestUtils.setField(maintenance, "entriesAhead", 6);
+        ReflectionTestUtils.setField(maintenance, "outboxDaysAhead", 21);
+        maintenance.run();
+
+        assertThat(count("ledger_entries_default")).isZero();
+        assertThat(count("ledger_outbox_default")).isZero();
+        assertThat(count("ledger_entries_p" + far / RANGE)).isEqualTo(1);
+        assertThat(count(farPartition)).isEqualTo(1);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM ledger_outbox WHERE bucket IS NOT NULL", Integer.class)).isEqualTo(1);
+
+        assertThat(meters.get("ledger.partitions.default.rows").tag("table", "ledger_entries").gauge().value()).isZero();
+        assertThat(meters.get("ledger.partitions.entries.headroom").gauge().value()).isGreaterThan(0);
+        assertThat(meters.get("ledger.partitions.outbox.headroom").gauge().value()).isEqualTo(21.0);
+
+        ReflectionTestUtils.setField(maintenance, "entriesAhead", 2);
+        ReflectionTestUtils.setField(maintenance, "outboxDaysAhead", 3);
+    }
+
+    private int count(String table) {
+        return jdbc.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+}
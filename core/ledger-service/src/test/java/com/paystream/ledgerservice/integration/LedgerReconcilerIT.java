@@ -0,0 +1,170 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.infra.maintenance.LedgerReconciler;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.awaitCommittedWatermark;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "ledger.reconciler.enabled=true",
+        "ledger.reconciler.interval-ms=3600000",
+        "ledger.reconciler.account-schema=recon_account"
+})
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class LedgerReconcilerIT extends PostgresContainerSupport {
+
+    @Autowired LedgerTransactionAppService app;
+    @Autowired LedgerReconciler reconciler;
+    @Autowired CommittedWatermarkRepository watermarks;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired MeterRegistry meters;
+
+    @BeforeEach
+    void cleanDb() {
+        // account-service tablolarının küçük bir kopyası (aynı DB, ayrı şema)
+        jdbc.execute("CREATE SCHEMA IF NOT EXISTS recon_account");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS recon_account.accounts (id UUID PRIMARY KEY, currency VARCHAR(3) NOT NULL)");
+        jdbc.execute("""
+            CREATE TABLE IF NOT EXISTS recon_account.account_balances (
+                account_id UUID PRIMARY KEY, balance_minor BIGINT NOT NULL DEFAULT 0, as_of_ledger_offset BIGINT)
+        """);
+        jdbc.update("TRUNCATE TABLE recon_account.accounts, recon_account.account_balances");
+        truncateLedger(jdbc, "account_snapshots", "ledger_reconcile_sums");
+        jdbc.update("UPDATE ledger_reconcile_state SET last_offset = 0");
+    }
+
+    @Test
+    void driftedSnapshot_isReported_andWaitingSnapshot_staysFlagged() throws Exception {
+        UUID ok = UUID.randomUUID();
+        UUID drifted = UUID.randomUUID();
+        UUID behind = UUID.randomUUID();
+        app.bookTransaction(transfer(ok, drifted, 300));
+        app.bookTransaction(transfer(ok, behind, 200));
+
+        snapshot(ok, -500, 2);       // doğru
+        snapshot(drifted, 290, 1);   // 10 eksik
+        // behind: snapshot henüz yok → karşılaştırılamaz, bekler
+
+        awaitCommittedWatermark(watermarks);
+        reconciler.runRound();
+
+        assertThat(mismatchEvents()).hasSize(1);
+        assertThat(mismatchEvents().get(0)).contains(drifted.toString()).contains("\"driftMinor\": -10");
+        assertThat(meters.get("ledger.reconciler.mismatches").tag("target", "account_snapshots").counter().count())
+                .isEqualTo(1.0);
+        assertThat(flagged("check_snapshot")).containsExactly(behind);
+
+        // Snapshot yetişince tekrar denenir ve eşleşir
+        snapshot(behind, 200, 1);
+        reconciler.runRound();
+        assertThat(flagged("check_snapshot")).isEmpty();
+        assertThat(mismatchEvents()).hasSize(1);
+    }
+
+    @Test
+    void snapshotAheadOfWatermark_isLinedUpWithLaterEntries() throws Exception {
+        UUID acc = UUID.randomUUID();
+        app.bookTransaction(transfer(UUID.randomUUID(), acc, 100));
+        awaitCommittedWatermark(watermarks);
+        reconciler.runRound();   // seq 1 fold edildi, snapshot yok → bekler
+
+        app.bookTransaction(transfer(UUID.randomUUID(), acc, 50));
+        // Snapshot consumer reconciler'ın watermark'ından ileride: committed watermark
+        // ilerletilmediği için seq 2 henüz fold edilmez
+        snapshot(acc, 150, 2);
+        reconciler.runRound();
+
+        assertThat(mismatchEvents()).isEmpty();
+        assertThat(flagged("check_snapshot")).doesNotContain(acc);
+    }
+
+    @Test
+    void accountBalanceBehindWatermark_isComparedAtItsOwnOffset() throws Exception {
+        UUID acc = UUID.randomUUID();
+        jdbc.update("INSERT INTO recon_account.accounts(id, currency) VALUES (?, 'TRY')", acc);
+        app.bookTransaction(transfer(UUID.randomUUID(), acc, 100));
+        Long firstOffset = jdbc.queryForObject(
+                "SELECT max(ledger_offset) FROM ledger_entries WHERE account_id = ?", Long.class, acc);
+        app.bookTransaction(transfer(UUID.randomUUID(), acc, 40));
+
+        // account-service yalnızca ilk event'i uygulamış: o offset'teki ledger toplamı 100
+        jdbc.update("INSERT INTO recon_account.account_balances(account_id, balance_minor, as_of_ledger_offset) VALUES (?, 100, ?)",
+                acc, firstOffset);
+
+        awaitCommittedWatermark(watermarks);
+        reconciler.runRound();
+
+        assertThat(mismatchEvents()).noneMatch(e -> e.contains("account_balances"));
+        assertThat(flagged("check_balance")).doesNotContain(acc);
+
+        // Offset ilerlemiş ama bakiye eksik (40'lık event atlanmış) → drift
+        jdbc.update("UPDATE recon_account.account_balances SET as_of_ledger_offset = "
+                + "(SELECT max(ledger_offset) FROM ledger_entries WHERE account_id = ?) WHERE account_id = ?", acc, acc);
+        jdbc.update("UPDATE ledger_reconcile_sums SET check_balance = true WHERE account_id = ?", acc);
+        reconciler.runRound();
+
+        assertThat(mismatchEvents()).anyMatch(e -> e.contains("account_balances") && e.contains(acc.toString()));
+    }
+
+    @Test
+    void missingAccountSchema_skipsBalanceComparison_butFoldAndSnapshotChecksCommit() throws Exception {
+        UUID ok = UUID.randomUUID();
+        UUID drifted = UUID.randomUUID();
+        app.bookTransaction(transfer(ok, drifted, 300));
+        snapshot(ok, -300, 1);
+        snapshot(drifted, 290, 1);
+
+        ReflectionTestUtils.setField(reconciler, "accountSchema", "no_such_schema");
+        try {
+            awaitCommittedWatermark(watermarks);
+            reconciler.runRound();
+        } finally {
+            ReflectionTestUtils.setField(reconciler, "accountSchema", "recon_account");
+        }
+
+        assertThat(jdbc.queryForObject("SELECT last_offset FROM ledger_reconcile_state", Long.class))
+                .isEqualTo(watermarks.safeOffset());
+        assertThat(mismatchEvents()).singleElement().asString().contains(drifted.toString());
+        assertThat(flagged("check_snapshot")).isEmpty();
+        // Still flagged for the balance comparison, which is retried next round
+        assertThat(flagged("check_balance")).containsExactlyInAnyOrder(ok, drifted);
+        assertThat(meters.get("ledger.reconciler.errors").tag("target", "account_balances").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private void snapshot(UUID account, long balance, long seq) {
+        jdbc.update("""
+            INSERT INTO account_snapshots(account_id, currency, balance_minor, as_of_ledger_offset, as_of_account_seq)
+            VALUES (?, 'TRY', ?, 0, ?)
+            ON CONFLICT (account_id, currency) DO UPDATE SET balance_minor = EXCLUDED.balance_minor,
+                as_of_account_seq = EXCLUDED.as_of_account_seq
+        """, account, balance, seq);
+    }
+
+    private List<String> mismatchEvents() {
+        return jdbc.queryForList(
+                "SELECT payload::text FROM ledger_outbox WHERE event_type = 'ledger.reconciliation.mismatch'", String.class);
+    }
+
+    private List<UUID> flagged(String flag) {
+        return jdbc.queryForList("SELECT account_id FROM ledger_reconcile_sums WHERE " + flag, UUID.class);
+    }
+}
@@ -0,0 +1,89 @@
+package com.paystream.ledgerservice.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class LedgerTransactionReadIT extends PostgresContainerSupport {
+
+    @Autowired MockMvc mvc;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ObjectMapper om;
+    @Autowired LedgerTransactionAppService app;
+
+    @BeforeEach
+    void cleanDb() {
+        truncateLedger(jdbc);
+    }
+
+    @Test
+    void transaction_returnsAllLegs_andTracksPublishStatus() throws Exception {
+        BookTransactionRequest req = transfer(UUID.randomUUID(), UUID.randomUUID(), 2500);
+        app.bookTransaction(req);
+
+        JsonNode pending = getJson("/v1/ledger/transactions/" + req.getTxId());
+        assertThat(pending.get("published").asBoolean()).isFalse();
+        assertThat(pending.get("entries")).hasSize(2);
+        assertThat(pending.get("entries").get(0).get("txSeq").asInt()).isZero();
+        assertThat(pending.get("entries").get(0).get("amountMinor").asLong()).isEqualTo(-2500);
+        assertThat(pending.get("entries").get(1).get("ledgerOffset").asLong()).isPositive();
+
+        // Relay yayınladı → durum güncellenir
+        jdbc.update("UPDATE ledger_outbox SET published_at = now()");
+        JsonNode published = getJson("/v1/ledger/transactions/" + req.getTxId());
+        assertThat(published.get("published").asBoolean()).isTrue();
+        published.get("entries").forEach(e -> assertThat(e.get("publishedAt").isNull()).isFalse());
+    }
+
+    @Test
+    void fullyPublishedTransaction_isServedFromCache() throws Exception {
+        BookTransactionRequest req = transfer(UUID.randomUUID(), UUID.randomUUID(), 700);
+        app.bookTransaction(req);
+        jdbc.update("UPDATE ledger_outbox SET published_at = now()");
+        getJson("/v1/ledger/transactions/" + req.getTxId());
+
+        // Satırlar silinse de (normalde asla olmaz) cevap cache'ten gelir
+        jdbc.update("TRUNCATE TABLE ledger_entries, ledger_outbox");
+        JsonNode cached = getJson("/v1/ledger/transactions/" + req.getTxId());
+        assertThat(cached.get("published").asBoolean()).isTrue();
+        assertThat(cached.get("entries")).hasSize(2);
+    }
+
+    @Test
+    void unknownTransaction_is404_untilBooked() throws Exception {
+        BookTransactionRequest req = transfer(UUID.randomUUID(), UUID.randomUUID(), 100);
+        mvc.perform(get("/v1/ledger/transactions/" + req.getTxId())).andExpect(status().isNotFound());
+
+        // 404 cache'lenmez
+        app.bookTransaction(req);
+        mvc.perform(get("/v1/ledger/transactions/" + req.getTxId())).andExpect(status().isOk());
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        String body = mvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return om.readTree(body);
+    }
+}
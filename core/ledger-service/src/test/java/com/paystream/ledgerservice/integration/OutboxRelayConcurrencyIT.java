@@ -0,0 +1,118 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.domain.OutboxRecord;
+import com.paystream.ledgerservice.infra.relay.OutboxRelay;
+import com.paystream.ledgerservice.infra.repo.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class OutboxRelayConcurrencyIT extends PostgresContainerSupport {
+
+    private static final int KEYS = 40;
+    private static final int EVENTS_PER_KEY = 50;
+    private static final int RELAYS = 4;
+
+    @Autowired OutboxRepository outboxRepo;
+    @Autowired TransactionTemplate tx;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void cleanDb() {
+        jdbc.update("TRUNCATE TABLE ledger_outbox");
+    }
+
+    @Test
+    void concurrentRelays_publishEachRowOnce_inPerKeyOrder() throws Exception {
+        // Her key için n=0..49 sırasıyla outbox satırı
+        List<UUID> keys = new ArrayList<>();
+        for (int k = 0; k < KEYS; k++) keys.add(UUID.randomUUID());
+        for (int n = 0; n < EVENTS_PER_KEY; n++) {
+            List<OutboxRecord> round = new ArrayList<>();
+            for (UUID key : keys) {
+                round.add(OutboxRecord.builder()
+                        .id(UUID.randomUUID())
+                        .eventType("ledger.entry.appended")
+                        .keyAccountId(key)
+                        .payload("{\"n\":" + n + "}")
+                        .build());
+            }
+            outboxRepo.insertAll(round);
+        }
+
+        // Tüm relay'ler aynı "broker"a yazar; send sırası kaydedilir
+        ConcurrentLinkedQueue<String[]> sent = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(RELAYS);
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < RELAYS; i++) {
+            OutboxRelay relay = new OutboxRelay(outboxRepo, recordingKafka(sent), new SimpleMeterRegistry(), tx);
+            running.add(pool.submit(() -> {
+                while (outboxRepo.backlogStats().size() > 0) {
+                    relay.publishBatch();
+                }
+            }));
+        }
+        for (Future<?> f : running) f.get();
+        pool.shutdown();
+
+        // 1) Hiç duplicate yok, her satır bir kez yayınlandı
+        assertThat(sent).hasSize(KEYS * EVENTS_PER_KEY);
+        Set<String> distinct = new HashSet<>();
+        for (String[] s : sent) distinct.add(s[0] + s[1]);
+        assertThat(distinct).hasSize(KEYS * EVENTS_PER_KEY);
+
+        // 2) Key başına sıra korunmuş
+        Map<String, Integer> lastN = new HashMap<>();
+        for (String[] s : sent) {
+            int n = Integer.parseInt(s[1].replaceAll("\\D", ""));
+            Integer prev = lastN.put(s[0], n);
+            assertThat(n).isEqualTo(prev == null ? 0 : prev + 1);
+        }
+
+        Integer unpublished = jdbc.queryForObject(
+                "SELECT count(*) FROM ledger_outbox WHERE published_at IS NULL", Integer.class);
+        assertThat(unpublished).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static KafkaTemplate<String, byte[]> recordingKafka(ConcurrentLinkedQueue<String[]> sent) {
+        KafkaTemplate<String, byte[]> kafka = mock(KafkaTemplate.class);
+        when(kafka.send(any(ProducerRecord.class))).thenAnswer(inv -> {
+            ProducerRecord<String, byte[]> msg = inv.getArgument(0);
+            sent.add(new String[]{msg.key(), new String(msg.value(), StandardCharsets.UTF_8)});
+            return CompletableFuture.completedFuture(null);
+        });
+        return kafka;
+    }
+}
@@ -0,0 +1,121 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.domain.InsufficientFundsException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Contention check for the funds check mode: many threads debit the same hot account,
+ * which serializes on its account_sequences row. Asserts that exactly the funded number of
+ * debits succeeds and the balance never goes negative. The larger run that logs the throughput
+ * reached is tagged "benchmark" and left out of the default build.
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "ledger.balance-check.enabled=true",
+        "ledger.balance-check.exempt-accounts=" + OverdraftContentionIT.TREASURY
+})
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class OverdraftContentionIT extends PostgresContainerSupport {
+
+    static final String TREASURY = "00000000-0000-0000-0000-0000000000aa";
+
+    private static final long DEBIT = 100;
+    private static final long FUNDED = 100 * DEBIT;   // 100 debits can succeed
+
+    private record Run(int attempts, int booked, int rejected, double seconds) {}
+
+    @Autowired LedgerTransactionAppService service;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void cleanDb() {
+        truncateLedger(jdbc);
+    }
+
+    @Test
+    void concurrentDebitsOnHotAccount_neverOverdraw() throws Exception {
+        assertNeverOverdrawn(8, 25);   // 200 attempts
+    }
+
+    @Test
+    @Tag("benchmark")
+    void concurrentDebitsOnHotAccount_logsThroughput() throws Exception {
+        Run run = assertNeverOverdrawn(32, 50);   // 1600 attempts
+        log.info("hot-account debits: {} attempts in {}s → {} tx/s ({} booked, {} rejected)",
+                run.attempts(), String.format("%.2f", run.seconds()), Math.round(run.attempts() / run.seconds()),
+                run.booked(), run.rejected());
+    }
+
+    @Test
+    void replayOfBookedDebit_isNotRejected() {
+        UUID hot = UUID.randomUUID();
+        service.bookTransaction(transfer(UUID.randomUUID(), UUID.fromString(TREASURY), hot, DEBIT));
+
+        BookTransactionRequest spend = transfer(UUID.randomUUID(), hot, UUID.randomUUID(), DEBIT);
+        service.bookTransaction(spend);
+        // Bakiye artık 0; aynı tx tekrar gelirse yeni satır eklenmez → 422 değil
+        service.bookTransaction(spend);
+
+        assertThat(jdbc.queryForObject(
+                "SELECT balance_minor FROM account_sequences WHERE account_id = ?", Long.class, hot)).isZero();
+    }
+
+    private Run assertNeverOverdrawn(int threads, int debitsPerThread) throws Exception {
+        UUID hot = UUID.randomUUID();
+        service.bookTransaction(transfer(UUID.randomUUID(), UUID.fromString(TREASURY), hot, FUNDED));
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        List<Future<?>> running = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            running.add(pool.submit(() -> {
+                for (int i = 0; i < debitsPerThread; i++) {
+                    try {
+                        service.bookTransaction(transfer(UUID.randomUUID(), hot, UUID.randomUUID(), DEBIT));
+                        booked.incrementAndGet();
+                    } catch (InsufficientFundsException ex) {
+                        rejected.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : running) f.get();
+        pool.shutdown();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        int attempts = threads * debitsPerThread;
+        assertThat(booked.get()).isEqualTo((int) (FUNDED / DEBIT));
+        assertThat(rejected.get()).isEqualTo(attempts - booked.get());
+        assertThat(jdbc.queryForObject(
+                "SELECT balance_minor FROM account_sequences WHERE account_id = ?", Long.class, hot)).isZero();
+        assertThat(jdbc.queryForObject(
+                "SELECT sum(amount_minor) FROM ledger_entries WHERE account_id = ?", Long.class, hot)).isZero();
+        return new Run(attempts, booked.get(), rejected.get(), seconds);
+    }
+}
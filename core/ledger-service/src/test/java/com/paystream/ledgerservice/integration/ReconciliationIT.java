@@ -14,6 +14,7 @@ import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -120,6 +121,64 @@ class ReconciliationIT extends PostgresContainerSupport {
         assertThat(off).isEqualTo(o3);
     }
 
+    @Test
+    void batch_apply_coalesces_and_skips_already_applied_events() {
+        UUID acc = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        String TRY = "TRY";
+
+        long o1 = insert(acc, TRY, +100, 0);
+        long o2 = insert(acc, TRY, +200, 1);
+        long o3 = insert(other, TRY, -300, 2);
+        long o4 = insert(acc, TRY, +50, 3);
+
+        // İlk poll: o1 tekil uygulanmış, sonra o1..o4 tekrar geliyor (redelivery)
+        snapshots.applyDelta(acc, TRY, +100, o1);
+        snapshots.applyDeltas(List.of(
+                new AccountSnapshotRepository.Delta(acc, TRY, +100, o1),
+                new AccountSnapshotRepository.Delta(acc, TRY, +200, o2),
+                new AccountSnapshotRepository.Delta(other, TRY, -300, o3),
+                new AccountSnapshotRepository.Delta(acc, TRY, +50, o4)));
+
+        assertThat(balance(acc, TRY)).isEqualTo(350L);
+        assertThat(balance(other, TRY)).isEqualTo(-300L);
+        Long off = jdbc.queryForObject("""
+            SELECT as_of_ledger_offset FROM account_snapshots
+            WHERE account_id=? AND currency=?
+        """, Long.class, acc, TRY);
+        assertThat(off).isEqualTo(o4);
+
+        // Aynı poll tamamen tekrar → NO-OP
+        snapshots.applyDeltas(List.of(
+                new AccountSnapshotRepository.Delta(acc, TRY, +200, o2),
+                new AccountSnapshotRepository.Delta(acc, TRY, +50, o4)));
+        assertThat(balance(acc, TRY)).isEqualTo(350L);
+    }
+
+    @Test
+    void seq_runs_only_apply_contiguously() {
+        UUID acc = UUID.randomUUID();
+        var key = new AccountSnapshotRepository.Key(acc, "TRY");
+
+        snapshots.applyRuns(List.of(new AccountSnapshotRepository.SeqRun(key, +100, 10, 1, 1)));
+        // seq 2 atlanmış → run [3..3] uygulanmaz
+        snapshots.applyRuns(List.of(new AccountSnapshotRepository.SeqRun(key, +300, 30, 3, 3)));
+        assertThat(balance(acc, "TRY")).isEqualTo(100L);
+
+        // [2..3] gelince uygulanır; aynısı tekrar gelirse NO-OP
+        snapshots.applyRuns(List.of(new AccountSnapshotRepository.SeqRun(key, +500, 30, 2, 3)));
+        snapshots.applyRuns(List.of(new AccountSnapshotRepository.SeqRun(key, +500, 30, 2, 3)));
+        assertThat(balance(acc, "TRY")).isEqualTo(600L);
+        assertThat(snapshots.appliedSeqs(List.of(key))).containsEntry(key, 3L);
+    }
+
+    private long balance(UUID acc, String currency) {
+        return jdbc.queryForObject("""
+            SELECT balance_minor FROM account_snapshots
+            WHERE account_id=? AND currency=?
+        """, Long.class, acc, currency);
+    }
+
     /**
      * Ledger entry ekler ve DB/sequence tarafından üretilen ledger offset'i döner.
      */
@@ -0,0 +1,140 @@
+package com.paystream.ledgerservice.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.common.events.LedgerEntryAppended;
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.infra.consumer.LedgerEventReader;
+import com.paystream.ledgerservice.infra.consumer.LedgerSnapshotConsumer;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Snapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class SnapshotConsumerGapIT extends PostgresContainerSupport {
+
+    @Autowired LedgerTransactionAppService app;
+    @Autowired LedgerEventReader reader;
+    @Autowired AccountSnapshotRepository snapshots;
+    @Autowired TransactionTemplate tx;
+    @Autowired ObjectMapper om;
+    @Autowired JdbcTemplate jdbc;
+
+    private final AtomicInteger acks = new AtomicInteger();
+    private long kafkaOffset;
+
+    @BeforeEach
+    void cleanDb() {
+        truncateLedger(jdbc, "account_snapshots", "account_snapshot_gaps");
+    }
+
+    @Test
+    void gapOpenForMorePollsThanAllowed_isReloadedFromLedger_andNoPollIsHeldBack() throws Exception {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        for (int i = 1; i <= 6; i++) app.bookTransaction(transfer(a, b, 10 * i));
+        List<LedgerEntryAppended> aEvents = events(a);
+        List<LedgerEntryAppended> bEvents = events(b);
+
+        LedgerSnapshotConsumer consumer = consumer();
+        ReflectionTestUtils.setField(consumer, "gapReloadPolls", 3);
+
+        // seq 1 of A is late by more than one poll; B arrives in order
+        List<LedgerEntryAppended> poll1 = new ArrayList<>(bEvents);
+        poll1.add(aEvents.get(1));
+        consumer.onMessages(records(poll1), acks::incrementAndGet);
+        consumer.onMessages(records(List.of(aEvents.get(2))), acks::incrementAndGet);
+
+        assertThat(acks).hasValue(2);
+        assertThat(snapshots.find(new Key(b, "TRY")).map(Snapshot::balanceMinor)).contains(210L);
+        assertThat(snapshots.find(new Key(a, "TRY"))).isEmpty();
+        assertThat(gapUpToSeq(a)).isEqualTo(3);
+
+        // Third poll with the gap still open: A is reloaded from ledger_entries, seq 4..6 included
+        consumer.onMessages(records(List.of(aEvents.get(3))), acks::incrementAndGet);
+
+        assertThat(acks).hasValue(3);
+        assertThat(snapshots.find(new Key(a, "TRY"))).contains(new Snapshot(-210, maxOffset(aEvents), 6L));
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM account_snapshot_gaps", Integer.class)).isZero();
+
+        // Late events (the missing seq 1 and the rest) are NO-OPs afterwards
+        consumer.onMessages(records(aEvents), acks::incrementAndGet);
+        assertThat(snapshots.find(new Key(a, "TRY")).map(Snapshot::balanceMinor)).contains(-210L);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM account_snapshot_gaps", Integer.class)).isZero();
+    }
+
+    @Test
+    void bufferLostOnRestart_isRecoveredFromPersistedGap() throws Exception {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        for (int i = 1; i <= 3; i++) app.bookTransaction(transfer(a, b, 10 * i));
+        List<LedgerEntryAppended> aEvents = events(a);
+
+        // Seq 2 and 3 are acked while seq 1 is missing, then the instance goes away
+        consumer().onMessages(records(aEvents.subList(1, 3)), acks::incrementAndGet);
+        assertThat(acks).hasValue(1);
+        assertThat(gapUpToSeq(a)).isEqualTo(3);
+
+        // A fresh instance never sees A's events again; the aged gap is reloaded on its next poll
+        LedgerSnapshotConsumer restarted = consumer();
+        ReflectionTestUtils.setField(restarted, "gapReloadMs", 0L);
+        restarted.onMessages(records(events(b).subList(0, 1)), acks::incrementAndGet);
+
+        assertThat(snapshots.find(new Key(a, "TRY"))).contains(new Snapshot(-60, maxOffset(aEvents), 3L));
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM account_snapshot_gaps", Integer.class)).isZero();
+    }
+
+    private LedgerSnapshotConsumer consumer() {
+        return new LedgerSnapshotConsumer(reader, snapshots, tx, new SimpleMeterRegistry());
+    }
+
+    private List<LedgerEntryAppended> events(UUID account) {
+        return jdbc.query("""
+            SELECT entry_id, tx_id, ledger_offset, account_seq, account_id, currency, amount_minor
+            FROM ledger_entries WHERE account_id = ? ORDER BY account_seq
+        """, (rs, i) -> new LedgerEntryAppended(UUID.randomUUID(), (UUID) rs.getObject("tx_id"),
+                (UUID) rs.getObject("entry_id"), rs.getLong("ledger_offset"), rs.getLong("account_seq"),
+                (UUID) rs.getObject("account_id"), rs.getString("currency"), rs.getLong("amount_minor"),
+                System.currentTimeMillis()), account);
+    }
+
+    // JSON without the content-type header, as published before the binary encoding
+    private List<ConsumerRecord<String, byte[]>> records(List<LedgerEntryAppended> events) throws Exception {
+        List<ConsumerRecord<String, byte[]>> recs = new ArrayList<>();
+        for (LedgerEntryAppended e : events) {
+            recs.add(new ConsumerRecord<>("ledger.entry.appended", 0, kafkaOffset++,
+                    e.accountId().toString(), om.writeValueAsBytes(e)));
+        }
+        return recs;
+    }
+
+    private long gapUpToSeq(UUID account) {
+        return jdbc.queryForObject("SELECT up_to_seq FROM account_snapshot_gaps WHERE account_id = ?", Long.class, account);
+    }
+
+    private static long maxOffset(List<LedgerEntryAppended> events) {
+        return events.stream().mapToLong(LedgerEntryAppended::ledgerOffset).max().orElseThrow();
+    }
+}
@@ -0,0 +1,163 @@
+package com.paystream.ledgerservice.integration;
+
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import com.paystream.ledgerservice.infra.maintenance.SnapshotRebuildJob;
+import com.paystream.ledgerservice.infra.maintenance.SnapshotRebuildJob.State;
+import com.paystream.ledgerservice.infra.maintenance.SnapshotRebuildJob.Status;
+import com.paystream.ledgerservice.infra.repo.CommittedWatermarkRepository;
+import com.paystream.ledgerservice.infra.repo.SnapshotRebuildRepository;
+import com.paystream.ledgerservice.infra.repo.SnapshotRebuildRepository.RebuildLock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.awaitCommittedWatermark;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestKafkaConfig.class)
+class SnapshotRebuildIT extends PostgresContainerSupport {
+
+    @Autowired LedgerTransactionAppService app;
+    @Autowired SnapshotRebuildJob job;
+    @Autowired CommittedWatermarkRepository watermarks;
+    @Autowired SnapshotRebuildRepository rebuildRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    @BeforeEach
+    void cleanDb() {
+        truncateLedger(jdbc, "account_snapshots");
+    }
+
+    @Test
+    void rebuild_replacesCorruptedSnapshots_withLedgerSums() throws Exception {
+        List<UUID> accounts = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        for (int i = 0; i < 40; i++) {
+            app.bookTransaction(transfer(accounts.get(i % 4), accounts.get((i + 1) % 4), 100 + i));
+        }
+
+        // Bozuk snapshot: yanlış bakiye + ledger'da olmayan hesap
+        jdbc.update("INSERT INTO account_snapshots(account_id, currency, balance_minor, as_of_ledger_offset) VALUES (?, 'TRY', 999, 1)",
+                accounts.get(0));
+        jdbc.update("INSERT INTO account_snapshots(account_id, currency, balance_minor, as_of_ledger_offset) VALUES (?, 'TRY', 5, 1)",
+                UUID.randomUUID());
+
+        awaitCommittedWatermark(watermarks);
+        Status started = job.start();
+        Status done = awaitFinished();
+
+        assertThat(done.jobId()).isEqualTo(started.jobId());
+        assertThat(done.state()).isEqualTo(State.COMPLETED);
+        assertThat(done.rangesDone()).isEqualTo(done.rangesTotal());
+        assertThat(done.entriesScanned()).isEqualTo(80);
+        assertThat(done.accounts()).isEqualTo(4);
+
+        // ReconciliationIT ile aynı invariant: ledger toplamı = snapshot bakiyesi
+        assertThat(ledgerVsSnapshots()).isEmpty();
+
+        // Consumer'ın kaldığı yer: son account_seq
+        Long seq = jdbc.queryForObject("SELECT as_of_account_seq FROM account_snapshots WHERE account_id = ?",
+                Long.class, accounts.get(0));
+        assertThat(seq).isEqualTo(20L);
+    }
+
+    @Test
+    void entriesAboveCommittedWatermark_areCaughtUpAtSwap() throws Exception {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            app.bookTransaction(transfer(a, b, 10));
+        }
+        awaitCommittedWatermark(watermarks);
+        // Watermark ilerlemeden gelen booking'ler bulk fazında okunmaz, swap'ta eklenir
+        app.bookTransaction(transfer(b, a, 3));
+        app.bookTransaction(transfer(b, a, 4));
+
+        job.start();
+        Status done = awaitFinished();
+
+        assertThat(done.state()).isEqualTo(State.COMPLETED);
+        assertThat(done.entriesScanned()).isEqualTo(10);
+        assertThat(ledgerVsSnapshots()).isEmpty();
+        assertThat(jdbc.queryForObject("SELECT as_of_account_seq FROM account_snapshots WHERE account_id = ?",
+                Long.class, a)).isEqualTo(7L);
+    }
+
+    @Test
+    void rebuiltTableDisagreeingWithAccountSequences_isNotSwappedIn() throws Exception {
+        UUID a = UUID.randomUUID();
+        app.bookTransaction(transfer(a, UUID.randomUUID(), 10));
+        jdbc.update("INSERT INTO account_snapshots(account_id, currency, balance_minor, as_of_ledger_offset) VALUES (?, 'TRY', 999, 1)", a);
+
+        // account_sequences'a uğramadan yazılmış entry: ledger'dan yeniden toplam artık tutmaz
+        jdbc.update("""
+            INSERT INTO ledger_entries(entry_id, tx_id, tx_seq, account_id, currency, amount_minor, ledger_offset, entry_hash)
+            VALUES (gen_random_uuid(), gen_random_uuid(), 0, ?, 'TRY', 7, ledger_next_offset(), '\\x00')
+        """, a);
+        awaitCommittedWatermark(watermarks);
+
+        job.start();
+        Status done = awaitFinished();
+
+        assertThat(done.state()).isEqualTo(State.FAILED);
+        assertThat(done.error()).contains("1 accounts differ from account_sequences");
+        assertThat(jdbc.queryForObject("SELECT balance_minor FROM account_snapshots WHERE account_id = ?",
+                Long.class, a)).isEqualTo(999L);
+    }
+
+    @Test
+    void rebuildRunningElsewhere_refusesStart_andLeavesWorkTableAlone() throws Exception {
+        UUID a = UUID.randomUUID();
+        app.bookTransaction(transfer(a, UUID.randomUUID(), 10));
+        awaitCommittedWatermark(watermarks);
+
+        // Başka bir instance'ın rebuild'i: aynı advisory lock başka bir session'da tutuluyor
+        try (RebuildLock other = rebuildRepo.tryLock()) {
+            assertThat(other).isNotNull();
+            jdbc.execute("CREATE TABLE account_snapshots_rebuild (LIKE account_snapshots INCLUDING ALL)");
+
+            Status refused = job.start();
+
+            assertThat(refused.state()).isEqualTo(State.FAILED);
+            assertThat(refused.error()).contains("Another snapshot rebuild is running");
+            assertThat(jdbc.queryForObject("SELECT to_regclass('account_snapshots_rebuild') IS NOT NULL",
+                    Boolean.class)).isTrue();
+        } finally {
+            jdbc.execute("DROP TABLE IF EXISTS account_snapshots_rebuild");
+        }
+
+        job.start();
+        assertThat(awaitFinished().state()).isEqualTo(State.COMPLETED);
+        assertThat(ledgerVsSnapshots()).isEmpty();
+    }
+
+    private List<Map<String, Object>> ledgerVsSnapshots() {
+        return jdbc.queryForList("""
+            SELECT account_id, currency
+            FROM (SELECT account_id, currency, sum(amount_minor) s FROM ledger_entries GROUP BY 1, 2) l
+            FULL JOIN account_snapshots r USING (account_id, currency)
+            WHERE l.s IS DISTINCT FROM r.balance_minor
+        """);
+    }
+
+    private Status awaitFinished() throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            Status s = job.status();
+            if (s.finishedAt() != null) return s;
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Rebuild did not finish: " + job.status());
+    }
+}
@@ -0,0 +1,142 @@
+package com.paystream.ledgerservice.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.ledgerservice.config.TestKafkaConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.paystream.ledgerservice.integration.LedgerFixtures.transfer;
+import static com.paystream.ledgerservice.integration.LedgerFixtures.truncateLedger;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Platform vs virtual threads on POST /v1/ledger/transactions, same load and same Hikari pool.
+ * Many more concurrent callers than Tomcat's platform threads; admission control is off so the
+ * thread model is the only difference. Logs tx/s and p99 for both modes; tagged "benchmark"
+ * and left out of the default build.
+ */
+@Slf4j
+@Tag("benchmark")
+class ThreadModelLoadIT {
+
+    private static final int CALLERS = 800;
+    private static final int TX_PER_CALLER = 10;
+
+    private static final Map<String, String> RESULTS = new ConcurrentHashMap<>();
+
+    @AfterAll
+    static void logComparison() {
+        RESULTS.forEach((mode, result) -> log.info("{} threads: {}", mode, result));
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=false",
+            "ledger.admission.enabled=false",
+            "spring.datasource.hikari.maximum-pool-size=20"
+    })
+    @Import(TestKafkaConfig.class)
+    class PlatformThreads extends PostgresContainerSupport {
+
+        @LocalServerPort int port;
+        @Autowired ObjectMapper om;
+        @Autowired JdbcTemplate jdbc;
+
+        @Test
+        void bookingUnderHighConcurrency() throws Exception {
+            RESULTS.put("platform", load(port, om, jdbc));
+        }
+    }
+
+    @Nested
+    @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+            "spring.threads.virtual.enabled=true",
+            "ledger.admission.enabled=false",
+            "spring.datasource.hikari.maximum-pool-size=20"
+    })
+    @Import(TestKafkaConfig.class)
+    class VirtualThreads extends PostgresContainerSupport {
+
+        @LocalServerPort int port;
+        @Autowired ObjectMapper om;
+        @Autowired JdbcTemplate jdbc;
+        @Autowired MeterRegistry meters;
+
+        @Test
+        void bookingUnderHighConcurrency() throws Exception {
+            String result = load(port, om, jdbc);
+            // Pinning izleyicisi yalnızca virtual modda kayıtlı
+            long pinned = meters.find("jvm.threads.virtual.pinned").timers().stream()
+                    .mapToLong(Timer::count).sum();
+            RESULTS.put("virtual", result + ", pinned events " + pinned);
+        }
+    }
+
+    private static String load(int port, ObjectMapper om, JdbcTemplate jdbc) throws Exception {
+        truncateLedger(jdbc);
+        URI uri = URI.create("http://localhost:" + port + "/v1/ledger/transactions");
+        List<Long> latenciesNanos = Collections.synchronizedList(new ArrayList<>());
+
+        // İstemci tarafı her modda virtual thread: ölçülen yalnızca sunucu
+        try (ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient http = HttpClient.newBuilder().executor(callers).connectTimeout(Duration.ofSeconds(10)).build();
+            long started = System.nanoTime();
+            List<Future<?>> running = new ArrayList<>();
+            for (int c = 0; c < CALLERS; c++) {
+                running.add(callers.submit(() -> {
+                    for (int i = 0; i < TX_PER_CALLER; i++) {
+                        HttpRequest req = HttpRequest.newBuilder(uri)
+                                .timeout(Duration.ofSeconds(60))
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(
+                                        om.writeValueAsString(transfer(UUID.randomUUID(), UUID.randomUUID(), 100))))
+                                .build();
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> res = http.send(req, HttpResponse.BodyHandlers.discarding());
+                        latenciesNanos.add(System.nanoTime() - t0);
+                        assertThat(res.statusCode()).isEqualTo(202);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : running) f.get();
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            int expected = CALLERS * TX_PER_CALLER;
+            assertThat(jdbc.queryForObject("SELECT count(DISTINCT tx_id) FROM ledger_tx_keys", Integer.class)).isEqualTo(expected);
+
+            List<Long> sorted = new ArrayList<>(latenciesNanos);
+            Collections.sort(sorted);
+            return String.format("%.0f tx/s, p50 %d ms, p99 %d ms (%d callers)",
+                    expected / seconds,
+                    sorted.get(sorted.size() / 2) / 1_000_000,
+                    sorted.get((int) (sorted.size() * 0.99)) / 1_000_000,
+                    CALLERS);
+        }
+    }
+}
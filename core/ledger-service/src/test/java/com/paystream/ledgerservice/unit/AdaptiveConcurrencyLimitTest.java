@@ -0,0 +1,82 @@
+package com.paystream.ledgerservice.unit;
+
+import com.paystream.ledgerservice.infra.admission.AdaptiveConcurrencyLimit;
+import com.paystream.ledgerservice.infra.admission.AdaptiveConcurrencyLimit.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MS = 1_000_000L;
+
+    @Test
+    void overLimit_queueFullIsImmediate_andWaitTimesOut() throws Exception {
+        AdaptiveConcurrencyLimit noQueue = new AdaptiveConcurrencyLimit(1, 1, 10, 0);
+        assertEquals(Outcome.ADMITTED, noQueue.acquire(0, TimeUnit.MILLISECONDS));
+        // Kuyruk yok → beklemeden red
+        assertEquals(Outcome.QUEUE_FULL, noQueue.acquire(1, TimeUnit.SECONDS));
+
+        AdaptiveConcurrencyLimit queued = new AdaptiveConcurrencyLimit(1, 1, 10, 1);
+        assertEquals(Outcome.ADMITTED, queued.acquire(0, TimeUnit.MILLISECONDS));
+        assertEquals(Outcome.TIMED_OUT, queued.acquire(20, TimeUnit.MILLISECONDS));
+        assertEquals(0, queued.waiting());
+    }
+
+    @Test
+    void waiter_isAdmitted_whenSlotIsReleased() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 1, 10, 1);
+        limit.acquire(0, TimeUnit.MILLISECONDS);
+
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {
+            }
+            limit.release(5 * MS, 1);
+        });
+        releaser.start();
+
+        assertEquals(Outcome.ADMITTED, limit.acquire(5, TimeUnit.SECONDS));
+        releaser.join();
+    }
+
+    @Test
+    void risingLatency_shrinksLimit() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 4, 200, 0);
+        // Taban gecikme 10ms
+        samples(limit, 200, 10 * MS);
+        int before = limit.limit();
+
+        // Postgres yavaşladı: 100ms
+        samples(limit, 50, 100 * MS);
+
+        assertTrue(limit.limit() < before / 2, "limit " + before + " → " + limit.limit());
+    }
+
+    @Test
+    void flatLatency_growsLimit_onlyWhenSaturated() throws Exception {
+        AdaptiveConcurrencyLimit idle = new AdaptiveConcurrencyLimit(20, 4, 200, 0);
+        for (int i = 0; i < 100; i++) {
+            idle.acquire(0, TimeUnit.MILLISECONDS);
+            idle.release(10 * MS, 1); // limitin çok altında → kapasite hakkında bilgi yok
+        }
+        assertEquals(20, idle.limit());
+
+        AdaptiveConcurrencyLimit busy = new AdaptiveConcurrencyLimit(20, 4, 200, 0);
+        samples(busy, 100, 10 * MS);
+        assertTrue(busy.limit() > 20);
+        assertTrue(busy.limit() <= 200);
+    }
+
+    // Limit doluyken ölçülmüş örnekler
+    private static void samples(AdaptiveConcurrencyLimit limit, int n, long rttNanos) throws Exception {
+        for (int i = 0; i < n; i++) {
+            limit.acquire(0, TimeUnit.MILLISECONDS);
+            limit.release(rttNanos, limit.limit());
+        }
+    }
+}
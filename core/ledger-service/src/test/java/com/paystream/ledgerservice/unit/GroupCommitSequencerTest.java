@@ -0,0 +1,62 @@
+package com.paystream.ledgerservice.unit;
+
+import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.app.GroupCommitSequencer;
+import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.app.SequencerUnavailableException;
+import com.paystream.ledgerservice.app.SequencerUnavailableException.Reason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class GroupCommitSequencerTest {
+
+    @Mock
+    LedgerTransactionAppService app;
+
+    @Test
+    void callerTimeout_andFullQueue_areRetryableRejections() {
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        // Writer thread not started: the single slot stays taken by the first request
+        GroupCommitSequencer sequencer = new GroupCommitSequencer(app, meters, 1, 500, 20);
+
+        SequencerUnavailableException timeout =
+                assertThrows(SequencerUnavailableException.class, () -> sequencer.book(request()));
+        assertEquals(Reason.TIMEOUT, timeout.reason());
+
+        SequencerUnavailableException full =
+                assertThrows(SequencerUnavailableException.class, () -> sequencer.book(request()));
+        assertEquals(Reason.QUEUE_FULL, full.reason());
+
+        assertEquals(1.0, meters.get("ledger.sequencer.rejected").tag("reason", "timeout").counter().count());
+        assertEquals(1.0, meters.get("ledger.sequencer.rejected").tag("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void interruptedCaller_isRetryableRejection_andKeepsInterruptFlag() {
+        GroupCommitSequencer sequencer = new GroupCommitSequencer(app, new SimpleMeterRegistry(), 1, 500, 10_000);
+
+        Thread.currentThread().interrupt();
+        try {
+            SequencerUnavailableException ex =
+                    assertThrows(SequencerUnavailableException.class, () -> sequencer.book(request()));
+            assertEquals(Reason.INTERRUPTED, ex.reason());
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static BookTransactionRequest request() {
+        BookTransactionRequest req = new BookTransactionRequest();
+        req.setTxId(UUID.randomUUID());
+        return req;
+    }
+}
@@ -0,0 +1,63 @@
+package com.paystream.ledgerservice.unit;
+
+import com.paystream.ledgerservice.infra.cache.HotBalanceCache;
+import com.paystream.ledgerservice.infra.cache.HotBalanceCache.CachedBalance;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Snapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HotBalanceCacheTest {
+
+    private final Key key = new Key(UUID.randomUUID(), "TRY");
+    private final AccountSnapshotRepository repo = mock(AccountSnapshotRepository.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    private final HotBalanceCache cache = new HotBalanceCache(repo, meters, 100, Duration.ofMinutes(5));
+
+    @Test
+    void miss_loadsSnapshotOnce_thenContiguousEventsAdvanceInPlace() {
+        when(repo.find(key)).thenReturn(Optional.of(new Snapshot(1_000, 50L, 5L)));
+
+        assertEquals(new CachedBalance(1_000, 50L, 5L), cache.get(key).orElseThrow());
+
+        cache.apply(key, -200, 60, 6L);
+        cache.apply(key, +50, 55, 7L);   // offset daha küçük olabilir; seq belirleyici
+        cache.apply(key, -200, 60, 6L);  // tekrar gelen event yok sayılır
+
+        assertEquals(new CachedBalance(850, 60L, 7L), cache.get(key).orElseThrow());
+        verify(repo, times(1)).find(key);
+        assertEquals(1.0, meters.get("cache.gets").tag("cache", "ledger.balance.cache").tag("result", "miss").functionCounter().count());
+        assertEquals(1.0, meters.get("cache.gets").tag("cache", "ledger.balance.cache").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void gapOrLegacyEvent_evicts_soNextReadReloads() {
+        when(repo.find(key)).thenReturn(Optional.of(new Snapshot(100, 10L, 1L)));
+        cache.get(key);
+
+        cache.apply(key, +10, 30, 3L);   // seq 2 kaçırıldı
+        cache.get(key);
+        cache.apply(key, +10, 40, null); // seq'siz eski format
+        cache.get(key);
+
+        verify(repo, times(3)).find(key);
+    }
+
+    @Test
+    void unknownAccount_isNotCached() {
+        when(repo.find(key)).thenReturn(Optional.empty());
+
+        assertTrue(cache.get(key).isEmpty());
+        cache.apply(key, +10, 1, 1L);
+        assertTrue(cache.get(key).isEmpty());
+        verify(repo, times(2)).find(key);
+    }
+}
@@ -0,0 +1,60 @@
+package com.paystream.ledgerservice.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.common.events.LedgerEntryAppended;
+import com.paystream.common.events.LedgerEntryAppendedCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static com.paystream.ledgerservice.unit.LedgerEntryAppendedCodecTest.event;
+import static com.paystream.ledgerservice.unit.LedgerEntryAppendedCodecTest.json;
+
+/**
+ * Bytes/event and encode/decode ns/op, JSON vs binary. A rough measurement (warm-up + timed
+ * loop), not a JMH run; numbers are logged for comparison across changes and nothing is asserted.
+ * Excluded from the default test task: ./gradlew :core:ledger-service:benchmark
+ */
+@Slf4j
+@Tag("benchmark")
+class LedgerEntryAppendedCodecBenchmark {
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void bytesPerEvent_andNsPerOp() throws Exception {
+        LedgerEntryAppended e = event(123_456L);
+        int warmup = 50_000;
+        int iterations = 200_000;
+        long sink = 0;
+
+        byte[] json = json(om, e);
+        byte[] bin = LedgerEntryAppendedCodec.encode(e);
+
+        for (int i = 0; i < warmup; i++) {
+            sink += json(om, e).length + om.readValue(json, LedgerEntryAppended.class).amountMinor();
+            sink += LedgerEntryAppendedCodec.encode(e).length + LedgerEntryAppendedCodec.decode(bin).amountMinor();
+        }
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += json(om, e).length;
+        long jsonEncode = (System.nanoTime() - t0) / iterations;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += om.readValue(json, LedgerEntryAppended.class).amountMinor();
+        long jsonDecode = (System.nanoTime() - t0) / iterations;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += LedgerEntryAppendedCodec.encode(e).length;
+        long binEncode = (System.nanoTime() - t0) / iterations;
+
+        t0 = System.nanoTime();
+        for (int i = 0; i < iterations; i++) sink += LedgerEntryAppendedCodec.decode(bin).amountMinor();
+        long binDecode = (System.nanoTime() - t0) / iterations;
+
+        log.info("ledger.entry.appended json:   {} bytes/event, encode {} ns/op, decode {} ns/op",
+                json.length, jsonEncode, jsonDecode);
+        log.info("ledger.entry.appended binary: {} bytes/event, encode {} ns/op, decode {} ns/op (sink={})",
+                bin.length, binEncode, binDecode, sink);
+    }
+}
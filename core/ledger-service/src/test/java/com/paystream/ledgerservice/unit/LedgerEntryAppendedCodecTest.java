@@ -0,0 +1,87 @@
+package com.paystream.ledgerservice.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paystream.common.events.LedgerEntryAppended;
+import com.paystream.common.events.LedgerEntryAppendedCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerEntryAppendedCodecTest {
+
+    private final ObjectMapper om = new ObjectMapper();
+
+    @Test
+    void binary_roundTrip_preservesAllFields() {
+        LedgerEntryAppended e = event(42L);
+
+        byte[] bytes = LedgerEntryAppendedCodec.encode(e);
+
+        assertEquals(102, bytes.length);
+        assertEquals(e, LedgerEntryAppendedCodec.decode(bytes));
+    }
+
+    @Test
+    void binary_roundTrip_keepsMissingAccountSeqNull() {
+        LedgerEntryAppended e = event(null);
+
+        // accountSeq olmayan eski event'ler null olarak kalmalı, 0 değil
+        assertNull(LedgerEntryAppendedCodec.decode(LedgerEntryAppendedCodec.encode(e)).accountSeq());
+    }
+
+    @Test
+    void json_decodesIntoSameRecord() throws Exception {
+        LedgerEntryAppended e = event(7L);
+
+        // Relay'in bugüne kadar gönderdiği JSON aynı record'a okunur
+        LedgerEntryAppended read = om.readValue(json(om, e), LedgerEntryAppended.class);
+
+        assertEquals(e, read);
+    }
+
+    @Test
+    void decode_rejectsUnknownVersionAndTruncatedPayload() {
+        byte[] bytes = LedgerEntryAppendedCodec.encode(event(1L));
+        bytes[0] = 9;
+
+        assertThrows(IllegalArgumentException.class, () -> LedgerEntryAppendedCodec.decode(bytes));
+        assertThrows(IllegalArgumentException.class, () -> LedgerEntryAppendedCodec.decode(new byte[10]));
+    }
+
+    @Test
+    void binary_isLessThanHalfTheJsonSize() throws Exception {
+        LedgerEntryAppended e = event(123_456L);
+
+        // Boyut deterministik; süreler LedgerEntryAppendedCodecBenchmark'ta (tag: benchmark)
+        assertTrue(LedgerEntryAppendedCodec.encode(e).length * 2 < json(om, e).length);
+    }
+
+    // Same shape as LedgerTransactionAppService.toPayload
+    static byte[] json(ObjectMapper om, LedgerEntryAppended e) throws Exception {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventId", e.eventId().toString());
+        payload.put("txId", e.txId().toString());
+        payload.put("entryId", e.entryId().toString());
+        payload.put("ledgerOffset", e.ledgerOffset());
+        payload.put("accountSeq", e.accountSeq());
+        payload.put("accountId", e.accountId().toString());
+        payload.put("currency", e.currency());
+        payload.put("amountMinor", e.amountMinor());
+        payload.put("occurredAt", new Date(e.occurredAt()));
+        return om.writeValueAsBytes(payload);
+    }
+
+    static LedgerEntryAppended event(Long accountSeq) {
+        return new LedgerEntryAppended(
+                UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), 9_876_543L, accountSeq,
+                UUID.randomUUID(), "TRY", -150_000L, 1_760_000_000_000L);
+    }
+}
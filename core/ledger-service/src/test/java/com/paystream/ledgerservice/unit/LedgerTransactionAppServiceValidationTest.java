@@ -1,21 +1,34 @@
 package com.paystream.ledgerservice.unit;
 
 import com.paystream.ledgerservice.app.LedgerTransactionAppService;
+import com.paystream.ledgerservice.api.BookBatchResponse;
 import com.paystream.ledgerservice.api.BookTransactionRequest;
+import com.paystream.ledgerservice.domain.LedgerEntry;
+import com.paystream.ledgerservice.domain.TransactionConflictException;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
 import com.paystream.ledgerservice.infra.repo.LedgerEntryRepository;
 import com.paystream.ledgerservice.infra.repo.OutboxRepository;
-import com.paystream.ledgerservice.infra.repo.LedgerEntryRepository.InsertResult;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +40,9 @@ class LedgerTransactionAppServiceValidationTest {
     @Mock
     OutboxRepository outboxRepo;
 
+    @Mock
+    TransactionTemplate tx;
+
     @InjectMocks
     LedgerTransactionAppService service;
 
@@ -44,7 +60,7 @@ class LedgerTransactionAppServiceValidationTest {
     }
 
     @Test
-    void mixedCurrencies_shouldThrow() {
+    void mixedCurrencies_withoutFxAccounts_shouldThrow() {
         BookTransactionRequest.Entry e1 = new BookTransactionRequest.Entry();
         e1.setAccountId(UUID.randomUUID());
         e1.setCurrency("TRY");
@@ -66,6 +82,70 @@ class LedgerTransactionAppServiceValidationTest {
         verifyNoInteractions(ledgerRepo, outboxRepo);
     }
 
+    @Test
+    void mixedCurrencies_viaFxAccounts_bookedInOneCommit() {
+        UUID fx = UUID.randomUUID();
+        ReflectionTestUtils.setField(service, "fxAccounts", Set.of(fx));
+
+        // TRY müşteriden FX pozisyonuna, USD FX pozisyonundan müşteriye; her para biriminde toplam 0
+        BookTransactionRequest req = new BookTransactionRequest();
+        req.setTxId(UUID.randomUUID());
+        req.setEntries(List.of(
+                leg(UUID.randomUUID(), "TRY", -3200L),
+                leg(fx, "TRY", +3200L),
+                leg(fx, "USD", -100L),
+                leg(UUID.randomUUID(), "USD", +100L)));
+        when(ledgerRepo.insertAll(any())).thenReturn(List.of());
+        when(ledgerRepo.findByTxIds(any())).thenReturn(stored(req));
+
+        service.bookTransaction(req);
+
+        // Dört bacak tek insert (tek DB transaction) ile yazılır
+        verify(ledgerRepo, times(1)).insertAll(argThat(lines -> lines.size() == 4));
+    }
+
+    @Test
+    void mixedCurrencies_unbalancedPerCurrency_shouldThrow() {
+        UUID fx = UUID.randomUUID();
+        ReflectionTestUtils.setField(service, "fxAccounts", Set.of(fx));
+
+        // Genel toplam 0, ama para birimi bazında TRY -10 / USD +10
+        BookTransactionRequest req = new BookTransactionRequest();
+        req.setTxId(UUID.randomUUID());
+        req.setEntries(List.of(
+                leg(UUID.randomUUID(), "TRY", -100L),
+                leg(fx, "TRY", +90L),
+                leg(fx, "USD", -90L),
+                leg(UUID.randomUUID(), "USD", +100L)));
+
+        IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> service.bookTransaction(req));
+
+        assertTrue(ex.getMessage().contains("per currency"));
+        verifyNoInteractions(ledgerRepo, outboxRepo);
+    }
+
+    @Test
+    void mixedCurrencies_currencyWithoutFxLeg_shouldThrow() {
+        UUID fx = UUID.randomUUID();
+        ReflectionTestUtils.setField(service, "fxAccounts", Set.of(fx));
+
+        // USD bacağı FX hesabından geçmiyor
+        BookTransactionRequest req = new BookTransactionRequest();
+        req.setTxId(UUID.randomUUID());
+        req.setEntries(List.of(
+                leg(UUID.randomUUID(), "TRY", -100L),
+                leg(fx, "TRY", +100L),
+                leg(UUID.randomUUID(), "USD", -5L),
+                leg(UUID.randomUUID(), "USD", +5L)));
+
+        IllegalArgumentException ex =
+                assertThrows(IllegalArgumentException.class, () -> service.bookTransaction(req));
+
+        assertTrue(ex.getMessage().contains("FX"));
+        verifyNoInteractions(ledgerRepo, outboxRepo);
+    }
+
     @Test
     void sumNotZero_shouldThrow() {
         BookTransactionRequest.Entry only = new BookTransactionRequest.Entry();
@@ -101,20 +181,243 @@ class LedgerTransactionAppServiceValidationTest {
         req.setTxId(UUID.randomUUID());
         req.setEntries(List.of(c, d));
 
-        // Servis upsert dönüşünü kullanıyorsa NPE olmasın diye dummy InsertResult dön.
-        InsertResult dummy = mock(InsertResult.class, RETURNS_DEFAULTS);
-        // Eğer InsertResult içinde offset accessor'ı varsa (ör. offset()/getOffset()),
-        // aşağıdakini aktif edebilirsin:
-        // when(dummy.offset()).thenReturn(1L);
+        // Repo yeni eklenen satırları offset/created_at dolu olarak geri döner
+        when(ledgerRepo.insertAll(any())).thenAnswer(inv -> {
+            List<LedgerEntry> lines = inv.getArgument(0);
+            long offset = 1;
+            for (LedgerEntry e : lines) {
+                e.setLedgerOffset(offset++);
+                e.setCreatedAt(OffsetDateTime.now());
+            }
+            return lines;
+        });
+
+        service.bookTransaction(req);
+
+        // Ledger'a iki kayıt (debit/credit) tek çağrıda yazılmalı
+        verify(ledgerRepo, times(1)).insertAll(argThat(lines -> lines.size() == 2));
+        verify(ledgerRepo, never()).upsert(any());
+
+        // Outbox'a entry başına bir event, tek batch halinde
+        verify(outboxRepo, times(1)).insertAll(argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void replay_shouldNotWriteOutbox() {
+        BookTransactionRequest.Entry c = new BookTransactionRequest.Entry();
+        c.setAccountId(UUID.randomUUID());
+        c.setCurrency("TRY");
+        c.setAmountMinor(-1000L);
 
-        when(ledgerRepo.upsert(any())).thenReturn(dummy);
+        BookTransactionRequest.Entry d = new BookTransactionRequest.Entry();
+        d.setAccountId(UUID.randomUUID());
+        d.setCurrency("TRY");
+        d.setAmountMinor(+1000L);
+
+        BookTransactionRequest req = new BookTransactionRequest();
+        req.setTxId(UUID.randomUUID());
+        req.setEntries(List.of(c, d));
+
+        // Tüm satırlar zaten var (aynı tx_id, tx_seq) → hiçbiri eklenmez
+        when(ledgerRepo.insertAll(any())).thenReturn(List.of());
+        when(ledgerRepo.findByTxIds(any())).thenReturn(stored(req));
 
         service.bookTransaction(req);
 
-        // Ledger'a iki kayıt (debit/credit) yazılmalı
-        verify(ledgerRepo, times(2)).upsert(any());
+        verify(outboxRepo).insertAll(argThat(List::isEmpty));
+    }
+
+    @Test
+    void replay_withMoreLegsThanStored_isConflict_andWritesNoOutbox() {
+        BookTransactionRequest original = twoLeg(UUID.randomUUID(), 1000L);
+        BookTransactionRequest repeat = new BookTransactionRequest();
+        repeat.setTxId(original.getTxId());
+        repeat.setEntries(List.of(original.getEntries().get(0), original.getEntries().get(1),
+                leg(UUID.randomUUID(), "TRY", -5L), leg(UUID.randomUUID(), "TRY", +5L)));
+
+        // İlk iki bacak zaten var; fazladan gelen tx_seq 2 ve 3 yeni satır olarak eklenir
+        when(ledgerRepo.insertAll(any())).thenAnswer(inv -> {
+            List<LedgerEntry> lines = inv.<List<LedgerEntry>>getArgument(0).subList(2, 4);
+            lines.forEach(e -> { e.setLedgerOffset(1L); e.setCreatedAt(OffsetDateTime.now()); });
+            return lines;
+        });
+
+        assertThrows(TransactionConflictException.class, () -> service.bookTransaction(repeat));
+        verifyNoInteractions(outboxRepo);
+    }
+
+    @Test
+    void replay_withDifferentAmounts_isConflict() {
+        BookTransactionRequest original = twoLeg(UUID.randomUUID(), 1000L);
+        BookTransactionRequest repeat = new BookTransactionRequest();
+        repeat.setTxId(original.getTxId());
+        repeat.setEntries(List.of(
+                leg(original.getEntries().get(0).getAccountId(), "TRY", -900L),
+                leg(original.getEntries().get(1).getAccountId(), "TRY", +900L)));
+
+        when(ledgerRepo.insertAll(any())).thenReturn(List.of());
+        when(ledgerRepo.findByTxIds(any())).thenReturn(stored(original));
+
+        assertThrows(TransactionConflictException.class, () -> service.bookTransaction(repeat));
+        verifyNoInteractions(outboxRepo);
+    }
+
+    @Test
+    void bookBatch_reportsResultPerItem() {
+        UUID txId = UUID.randomUUID();
+        BookTransactionRequest ok = twoLeg(txId, 1000L);
+        BookTransactionRequest unbalanced = twoLeg(UUID.randomUUID(), 1000L);
+        unbalanced.getEntries().get(1).setAmountMinor(999L);
+        BookTransactionRequest sameTxAgain = new BookTransactionRequest();
+        sameTxAgain.setTxId(txId);
+        sameTxAgain.setEntries(ok.getEntries());
+
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // Aynı txId ikinci kez geldiğinde DB (tx_id, tx_seq) çakışması nedeniyle onu eklemez
+        when(ledgerRepo.insertAll(any())).thenAnswer(inv -> {
+            List<LedgerEntry> lines = inv.getArgument(0);
+            List<LedgerEntry> firstTx = lines.subList(0, 2);
+            long offset = 1;
+            for (LedgerEntry e : firstTx) {
+                e.setLedgerOffset(offset++);
+                e.setCreatedAt(OffsetDateTime.now());
+            }
+            return firstTx;
+        });
+
+        List<BookBatchResponse.Item> results = service.bookBatch(List.of(ok, unbalanced, sameTxAgain));
+
+        assertEquals(List.of(BookBatchResponse.Status.BOOKED,
+                        BookBatchResponse.Status.REJECTED,
+                        BookBatchResponse.Status.DUPLICATE),
+                results.stream().map(BookBatchResponse.Item::status).toList());
+        assertTrue(results.get(1).message().toLowerCase().contains("sum"));
 
-        // Outbox'a en az bir kayıt yazılmalı (tek event ya da entry başına olabilir)
-        verify(outboxRepo, atLeastOnce()).insert(any());
+        // Geçerli iki item tek chunk'ta, tek insert ile yazılır
+        verify(ledgerRepo, times(1)).insertAll(argThat(lines -> lines.size() == 4));
+        verify(outboxRepo, times(1)).insertAll(argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void bookBatch_balanceCheck_rejectsOverdrawingItem_andRetriesTheRest() {
+        ReflectionTestUtils.setField(service, "balanceCheck", true);
+        BookTransactionRequest funded = twoLeg(UUID.randomUUID(), 500L);
+        BookTransactionRequest overdraws = twoLeg(UUID.randomUUID(), 1000L);
+        UUID fundedDebit = funded.getEntries().get(0).getAccountId();
+
+        TransactionStatus status = mock(TransactionStatus.class);
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(status));
+        // Sadece ilk item'ın borçlu hesabında bakiye var
+        when(ledgerRepo.lockBalances(any())).thenAnswer(inv ->
+                new HashMap<>(Map.of(new Key(fundedDebit, "TRY"), 500L)));
+        when(ledgerRepo.insertAll(any())).thenAnswer(inv -> {
+            List<LedgerEntry> lines = inv.getArgument(0);
+            for (LedgerEntry e : lines) {
+                e.setLedgerOffset(1L);
+                e.setCreatedAt(OffsetDateTime.now());
+            }
+            return lines;
+        });
+
+        List<BookBatchResponse.Item> results = service.bookBatch(List.of(funded, overdraws));
+
+        assertEquals(List.of(BookBatchResponse.Status.BOOKED, BookBatchResponse.Status.REJECTED),
+                results.stream().map(BookBatchResponse.Item::status).toList());
+        // İlk deneme geri alınır, ikinci deneme yalnızca karşılanan item ile yapılır
+        verify(status, times(1)).setRollbackOnly();
+        verify(ledgerRepo, times(2)).insertAll(any());
+        verify(outboxRepo, times(1)).insertAll(argThat(events -> events.size() == 2));
+    }
+
+    @Test
+    void bookBatch_conflictingRepeat_isRefused_andTheRestIsBooked() {
+        BookTransactionRequest fresh = twoLeg(UUID.randomUUID(), 300L);
+        BookTransactionRequest booked = twoLeg(UUID.randomUUID(), 1000L);
+        BookTransactionRequest changedRepeat = twoLeg(booked.getTxId(), 700L);
+
+        TransactionStatus status = mock(TransactionStatus.class);
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(status));
+        // booked'ın bacakları zaten kayıtlı; yalnızca fresh'in satırları yeni
+        when(ledgerRepo.insertAll(any())).thenAnswer(inv -> {
+            List<LedgerEntry> lines = inv.<List<LedgerEntry>>getArgument(0).stream()
+                    .filter(e -> e.getTxId().equals(fresh.getTxId())).toList();
+            lines.forEach(e -> { e.setLedgerOffset(1L); e.setCreatedAt(OffsetDateTime.now()); });
+            return lines;
+        });
+        when(ledgerRepo.findByTxIds(any())).thenReturn(stored(booked));
+
+        List<BookBatchResponse.Item> results = service.bookBatch(List.of(fresh, changedRepeat));
+
+        assertEquals(List.of(BookBatchResponse.Status.BOOKED, BookBatchResponse.Status.CONFLICT),
+                results.stream().map(BookBatchResponse.Item::status).toList());
+        verify(status, times(1)).setRollbackOnly();
+        verify(outboxRepo, times(1)).insertAll(argThat(events -> events.size() == 2));
+        assertEquals(1, BookBatchResponse.of(results).rejected());
+    }
+
+    @Test
+    void bookBatch_chunkThrowingAnyRuntimeException_isFailed_andLaterChunksAreBooked() {
+        ReflectionTestUtils.setField(service, "batchChunkSize", 1);
+        BookTransactionRequest first = twoLeg(UUID.randomUUID(), 100L);
+        BookTransactionRequest second = twoLeg(UUID.randomUUID(), 200L);
+
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(ledgerRepo.insertAll(any()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenAnswer(inv -> {
+                    List<LedgerEntry> lines = inv.getArgument(0);
+                    lines.forEach(e -> { e.setLedgerOffset(1L); e.setCreatedAt(OffsetDateTime.now()); });
+                    return lines;
+                });
+
+        List<BookBatchResponse.Item> results = service.bookBatch(List.of(first, second));
+
+        assertEquals(List.of(BookBatchResponse.Status.FAILED, BookBatchResponse.Status.BOOKED),
+                results.stream().map(BookBatchResponse.Item::status).toList());
+        assertTrue(results.get(0).message().contains("boom"));
+        BookBatchResponse response = BookBatchResponse.of(results);
+        assertEquals(0, response.rejected());
+        assertEquals(1, response.failed());
+    }
+
+    // Rows as ledger_entries would return them for an already booked request
+    private static List<LedgerEntry> stored(BookTransactionRequest req) {
+        List<LedgerEntry> rows = new ArrayList<>();
+        for (int i = 0; i < req.getEntries().size(); i++) {
+            BookTransactionRequest.Entry e = req.getEntries().get(i);
+            rows.add(LedgerEntry.builder().entryId(UUID.randomUUID()).txId(req.getTxId()).txSeq(i)
+                    .accountId(e.getAccountId()).currency(e.getCurrency()).amountMinor(e.getAmountMinor())
+                    .ledgerOffset((long) i + 1).createdAt(OffsetDateTime.now()).build());
+        }
+        return rows;
+    }
+
+    private static BookTransactionRequest.Entry leg(UUID accountId, String currency, long amountMinor) {
+        BookTransactionRequest.Entry e = new BookTransactionRequest.Entry();
+        e.setAccountId(accountId);
+        e.setCurrency(currency);
+        e.setAmountMinor(amountMinor);
+        return e;
+    }
+
+    private static BookTransactionRequest twoLeg(UUID txId, long amountMinor) {
+        BookTransactionRequest.Entry c = new BookTransactionRequest.Entry();
+        c.setAccountId(UUID.randomUUID());
+        c.setCurrency("TRY");
+        c.setAmountMinor(-amountMinor);
+
+        BookTransactionRequest.Entry d = new BookTransactionRequest.Entry();
+        d.setAccountId(UUID.randomUUID());
+        d.setCurrency("TRY");
+        d.setAmountMinor(amountMinor);
+
+        BookTransactionRequest req = new BookTransactionRequest();
+        req.setTxId(txId);
+        req.setEntries(List.of(c, d));
+        return req;
     }
 }
@@ -0,0 +1,79 @@
+package com.paystream.ledgerservice.unit;
+
+import com.paystream.ledgerservice.domain.HashBlock;
+import com.paystream.ledgerservice.domain.MerkleTree;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MerkleTreeTest {
+
+    @Test
+    void everyLeaf_provesAgainstRoot_forOddAndEvenSizes() {
+        for (int size = 1; size <= 9; size++) {
+            List<byte[]> hashes = hashes(size);
+            byte[] root = MerkleTree.root(hashes);
+            for (int i = 0; i < size; i++) {
+                List<MerkleTree.Step> path = MerkleTree.proof(hashes, i);
+                assertArrayEquals(root, MerkleTree.rootFromProof(hashes.get(i), path), "size=" + size + " i=" + i);
+            }
+        }
+    }
+
+    @Test
+    void changedEntryOrWrongPosition_doesNotProve() {
+        List<byte[]> hashes = hashes(5);
+        byte[] root = MerkleTree.root(hashes);
+
+        // Başka bir yaprağın hash'i aynı yolla kanıtlanamaz
+        List<MerkleTree.Step> path = MerkleTree.proof(hashes, 2);
+        assertFalse(Arrays.equals(root, MerkleTree.rootFromProof(hashes.get(3), path)));
+
+        // Tek bir entry değişirse kök değişir
+        List<byte[]> tampered = new ArrayList<>(hashes);
+        tampered.set(4, sha("tampered"));
+        assertFalse(Arrays.equals(root, MerkleTree.root(tampered)));
+    }
+
+    @Test
+    void emptyRange_andBadIndex_shouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.root(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> MerkleTree.proof(hashes(3), 3));
+    }
+
+    @Test
+    void blockHash_bindsPreviousBlock() {
+        byte[] root = MerkleTree.root(hashes(4));
+        byte[] first = HashBlock.hash(HashBlock.GENESIS, 1, 4, 4, root);
+        byte[] second = HashBlock.hash(first, 5, 8, 4, root);
+
+        assertEquals(32, first.length);
+        // Aynı içerik, farklı önceki blok → farklı hash
+        assertFalse(Arrays.equals(second, HashBlock.hash(HashBlock.GENESIS, 5, 8, 4, root)));
+        assertArrayEquals(first, HashBlock.hash(HashBlock.GENESIS, 1, 4, 4, root));
+    }
+
+    private static List<byte[]> hashes(int n) {
+        List<byte[]> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) out.add(sha("entry-" + i));
+        return out;
+    }
+
+    private static byte[] sha(String s) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
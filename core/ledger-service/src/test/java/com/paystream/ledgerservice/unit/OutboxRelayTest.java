@@ -0,0 +1,153 @@
+package com.paystream.ledgerservice.unit;
+
+import com.paystream.common.events.LedgerEntryAppendedCodec;
+import com.paystream.ledgerservice.domain.OutboxRecord;
+import com.paystream.ledgerservice.infra.relay.OutboxRelay;
+import com.paystream.ledgerservice.infra.repo.OutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pump_marksOnlyAckedRowsPublished_inOneUpdate() {
+        OutboxRepository repo = mock(OutboxRepository.class);
+        KafkaTemplate<String, byte[]> kafka = mock(KafkaTemplate.class);
+        SimpleMeterRegistry meters = new SimpleMeterRegistry();
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        OutboxRecord ok = record();
+        OutboxRecord broken = record();
+        when(repo.claimBuckets(anyInt())).thenReturn(List.of(7));
+        // İlk tur iki satır getirir, ikinci tur boş → drain döngüsü biter
+        when(repo.fetchUnpublishedBatch(anyList(), anyInt())).thenReturn(List.of(ok, broken), List.of());
+        when(repo.backlogStats()).thenReturn(new OutboxRepository.BacklogStats(1, OffsetDateTime.now()));
+
+        when(kafka.send(withKey(ok.getKeyAccountId())))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        when(kafka.send(withKey(broken.getKeyAccountId())))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+
+        new OutboxRelay(repo, kafka, meters, tx).pump();
+
+        // Tek UPDATE ile sadece ack'lenen satır işaretlenir
+        verify(repo, times(2)).fetchUnpublishedBatch(anyList(), anyInt());
+        verify(repo).markPublished(List.of(ok.getId()));
+        verify(repo, never()).markPublished(any(UUID.class));
+
+        assertEquals(1.0, meters.counter("ledger.outbox.relay.published").count());
+        assertEquals(1.0, meters.counter("ledger.outbox.relay.failed").count());
+        assertEquals(1.0, meters.get("ledger.outbox.backlog").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pump_doesNotLetLaterRowOfSameKeyOvertakeFailedOne() {
+        OutboxRepository repo = mock(OutboxRepository.class);
+        KafkaTemplate<String, byte[]> kafka = mock(KafkaTemplate.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        UUID key = UUID.randomUUID();
+        OutboxRecord first = record(key, "{\"n\":1}");
+        OutboxRecord second = record(key, "{\"n\":2}");
+        when(repo.claimBuckets(anyInt())).thenReturn(List.of(3));
+        when(repo.fetchUnpublishedBatch(anyList(), anyInt())).thenReturn(List.of(first, second));
+        when(repo.backlogStats()).thenReturn(new OutboxRepository.BacklogStats(2, OffsetDateTime.now()));
+
+        when(kafka.send(withValue(first.getPayload())))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("broker down")));
+        when(kafka.send(withValue(second.getPayload())))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        new OutboxRelay(repo, kafka, new SimpleMeterRegistry(), tx).pump();
+
+        // İkinci satır ack'lense de birincisi yayınlanmadan işaretlenmez
+        verify(repo).markPublished(List.<UUID>of());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void pump_sendsContentTypeHeader_andBinaryPayloadAsIs() {
+        OutboxRepository repo = mock(OutboxRepository.class);
+        KafkaTemplate<String, byte[]> kafka = mock(KafkaTemplate.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        byte[] bin = {1, 0, 42};
+        OutboxRecord json = record();
+        OutboxRecord binary = OutboxRecord.builder()
+                .id(UUID.randomUUID())
+                .eventType("ledger.entry.appended")
+                .keyAccountId(UUID.randomUUID())
+                .payloadBytes(bin)
+                .contentType(LedgerEntryAppendedCodec.BINARY)
+                .createdAt(OffsetDateTime.now())
+                .build();
+        when(repo.claimBuckets(anyInt())).thenReturn(List.of(1));
+        when(repo.fetchUnpublishedBatch(anyList(), anyInt())).thenReturn(List.of(json, binary), List.of());
+        when(repo.backlogStats()).thenReturn(new OutboxRepository.BacklogStats(0, null));
+        when(kafka.send(any(ProducerRecord.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        new OutboxRelay(repo, kafka, new SimpleMeterRegistry(), tx).pump();
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafka, times(2)).send(sent.capture());
+        // JSON satır UTF-8 metin olarak, binary satır olduğu gibi gider; format header'da
+        assertEquals("{}", new String(sent.getAllValues().get(0).value(), StandardCharsets.UTF_8));
+        assertEquals(LedgerEntryAppendedCodec.JSON, contentType(sent.getAllValues().get(0)));
+        assertArrayEquals(bin, sent.getAllValues().get(1).value());
+        assertEquals(LedgerEntryAppendedCodec.BINARY, contentType(sent.getAllValues().get(1)));
+    }
+
+    private static ProducerRecord<String, byte[]> withKey(UUID key) {
+        return argThat(r -> r != null && key.toString().equals(r.key()));
+    }
+
+    private static ProducerRecord<String, byte[]> withValue(String payload) {
+        return argThat(r -> r != null && payload.equals(new String(r.value(), StandardCharsets.UTF_8)));
+    }
+
+    private static String contentType(ProducerRecord<String, byte[]> r) {
+        return new String(r.headers().lastHeader(LedgerEntryAppendedCodec.HEADER).value(), StandardCharsets.UTF_8);
+    }
+
+    private static OutboxRecord record() {
+        return record(UUID.randomUUID(), "{}");
+    }
+
+    private static OutboxRecord record(UUID key, String payload) {
+        return OutboxRecord.builder()
+                .id(UUID.randomUUID())
+                .eventType("ledger.entry.appended")
+                .keyAccountId(key)
+                .payload(payload)
+                .createdAt(OffsetDateTime.now())
+                .build();
+    }
+}
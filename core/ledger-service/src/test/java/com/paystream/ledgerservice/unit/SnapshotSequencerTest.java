@@ -0,0 +1,70 @@
+package com.paystream.ledgerservice.unit;
+
+import com.paystream.ledgerservice.infra.consumer.SnapshotSequencer;
+import com.paystream.ledgerservice.infra.consumer.SnapshotSequencer.Pending;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.Key;
+import com.paystream.ledgerservice.infra.repo.AccountSnapshotRepository.SeqRun;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotSequencerTest {
+
+    private final Key key = new Key(UUID.randomUUID(), "TRY");
+
+    @Test
+    void outOfOrderEvents_waitForGap_thenApplyAsOneRun() {
+        SnapshotSequencer seq = new SnapshotSequencer();
+
+        // seq 2 ve 3 önce geliyor, 1 henüz yok
+        seq.offer(key, pending(2, +200, 20));
+        seq.offer(key, pending(3, +300, 15));
+        assertTrue(seq.drainContiguous(Map.of(key, 0L)).isEmpty());
+        assertTrue(seq.isBuffered(key, 2));
+        assertEquals(2, seq.size());
+        assertEquals(Map.of(key, 3L), seq.highestBuffered(List.of(key)));
+
+        // Boşluk kapanınca 1..3 tek run olarak çıkar; offset sırası seq sırasından farklı olabilir
+        seq.offer(key, pending(1, +100, 10));
+        List<SeqRun> runs = seq.drainContiguous(Map.of(key, 0L));
+
+        assertEquals(List.of(new SeqRun(key, 600, 20, 1, 3)), runs);
+        assertEquals(0, seq.size());
+        assertTrue(seq.highestBuffered(List.of(key)).isEmpty());
+    }
+
+    @Test
+    void alreadyAppliedAndDuplicateSeqs_areDropped() {
+        SnapshotSequencer seq = new SnapshotSequencer();
+
+        seq.offer(key, pending(4, +1, 40));
+        seq.offer(key, pending(5, +2, 50));
+        seq.offer(key, pending(5, +999, 51)); // redelivery: ilk kopya kalır
+        seq.offer(key, pending(6, +3, 60));
+
+        // Snapshot zaten 4'te
+        List<SeqRun> runs = seq.drainContiguous(Map.of(key, 4L));
+
+        assertEquals(List.of(new SeqRun(key, 5, 60, 5, 6)), runs);
+        assertFalse(seq.isBuffered(key, 4));
+    }
+
+    @Test
+    void revokedPartition_dropsItsBufferedEvents() {
+        SnapshotSequencer seq = new SnapshotSequencer();
+        seq.offer(key, new Pending(7, 1, 70, 3, System.currentTimeMillis()));
+
+        seq.dropPartitions(List.of(3));
+
+        assertEquals(0, seq.size());
+        assertEquals(-1, seq.oldestArrivalMs());
+    }
+
+    private static Pending pending(long s, long amount, long offset) {
+        return new Pending(s, amount, offset, 0, System.currentTimeMillis());
+    }
+}